@@ -0,0 +1,28 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts;
+
+import org.mockito.Mockito;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * Lightweight stand-ins for entities in benchmarks that do not run inside an engine.
+ * <p>
+ * The mocks are stub-only, so they do not record invocations and their overhead stays constant across iterations.
+ */
+public final class BenchmarkEntities {
+    private BenchmarkEntities() {
+    }
+
+    public static EntityRef entity(Component<?>... components) {
+        EntityRef entity = Mockito.mock(EntityRef.class, Mockito.withSettings().stubOnly());
+        Mockito.doReturn(true).when(entity).exists();
+        for (Component<?> component : components) {
+            Mockito.doReturn(component).when(entity).getComponent(component.getClass());
+            Mockito.doReturn(true).when(entity).hasComponent(component.getClass());
+        }
+        return entity;
+    }
+}
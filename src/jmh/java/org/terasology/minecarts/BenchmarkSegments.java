@@ -0,0 +1,62 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.terasology.segmentedpaths.segments.Segment;
+
+import java.util.function.Function;
+
+/**
+ * Segment shapes for benchmarks that sample them into {@link org.terasology.minecarts.blocks.SegmentSamples} during
+ * setup. The segments are parameterized by arc length and only queried while sampling, never in a measured loop.
+ */
+public final class BenchmarkSegments {
+    private BenchmarkSegments() {
+    }
+
+    /**
+     * A straight segment from the origin to the given point, with its normal tilted along with it.
+     */
+    public static Segment line(Vector3fc end) {
+        float length = end.length();
+        Vector3f tangent = new Vector3f(end).normalize();
+        Vector3f normal = new Vector3f(0, 1, 0).sub(new Vector3f(tangent).mul(tangent.y)).normalize();
+        return segment(length, position -> new Vector3f(tangent).mul(position),
+                position -> new Vector3f(tangent), position -> new Vector3f(normal));
+    }
+
+    /**
+     * A level quarter circle of radius 1 in the xz plane, starting at the origin heading along x.
+     */
+    public static Segment quarterCircle() {
+        return segment((float) (Math.PI / 2),
+                position -> new Vector3f((float) Math.sin(position), 0, 1 - (float) Math.cos(position)),
+                position -> new Vector3f((float) Math.cos(position), 0, (float) Math.sin(position)),
+                position -> new Vector3f(0, 1, 0));
+    }
+
+    private static Segment segment(float length, Function<Float, Vector3f> point, Function<Float, Vector3f> tangent,
+                                   Function<Float, Vector3f> normal) {
+        Segment segment = Mockito.mock(Segment.class, Mockito.withSettings().stubOnly());
+        Mockito.when(segment.maxDistance()).thenReturn(length);
+        Mockito.when(segment.index(ArgumentMatchers.anyFloat())).thenReturn(0);
+        Mockito.when(segment.t(ArgumentMatchers.anyInt(), ArgumentMatchers.anyFloat()))
+                .thenAnswer(invocation -> (float) invocation.getArgument(1) / length);
+        Mockito.when(segment.point(ArgumentMatchers.anyInt(), ArgumentMatchers.anyFloat(), ArgumentMatchers.any(),
+                ArgumentMatchers.any()))
+                .thenAnswer(invocation -> point.apply((float) invocation.getArgument(1) * length));
+        Mockito.when(segment.tangent(ArgumentMatchers.anyInt(), ArgumentMatchers.anyFloat(),
+                ArgumentMatchers.any(Quaternionf.class)))
+                .thenAnswer(invocation -> tangent.apply((float) invocation.getArgument(1) * length));
+        Mockito.when(segment.normal(ArgumentMatchers.anyInt(), ArgumentMatchers.anyFloat(),
+                ArgumentMatchers.any(Quaternionf.class)))
+                .thenAnswer(invocation -> normal.apply((float) invocation.getArgument(1) * length));
+        return segment;
+    }
+}
@@ -0,0 +1,29 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all rails benchmarks with the GC profiler attached, so every result reports the allocation rate
+ * ({@code gc.alloc.rate.norm}, bytes per operation) next to the throughput.
+ * <p>
+ * An optional argument narrows the run down to benchmarks matching the given regular expression.
+ */
+public final class RailsBenchmarks {
+    private RailsBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "org\\.terasology\\.minecarts\\..*Benchmark.*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,131 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.context.internal.ContextImpl;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.math.SideBitFlag;
+import org.terasology.engine.registry.InjectionHelper;
+import org.terasology.engine.world.BlockEntityRegistry;
+import org.terasology.engine.world.WorldProvider;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockBuilderHelper;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.family.BlockPlacementData;
+import org.terasology.engine.world.block.loader.BlockFamilyDefinition;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.minecarts.BenchmarkEntities;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placement of a rail block between existing rails, through {@link RailBlockFamily#getBlockForPlacement}.
+ * <p>
+ * The "straight", "corner" and "tee" layouts resolve to a registered connection directly; "slope" and "junction"
+ * fall through to the closest match search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RailBlockFamilyBenchmark {
+    @Param({"straight", "corner", "tee", "slope", "junction"})
+    public String layout;
+
+    private RailBlockFamily family;
+    private BlockPlacementData placement;
+    private final Map<Vector3ic, Block> rails = new HashMap<>();
+
+    @Setup
+    public void setup() {
+        BlockFamilyDefinition definition = Mockito.mock(BlockFamilyDefinition.class);
+        Mockito.doReturn(new ResourceUrn("Rails:rails")).when(definition).getUrn();
+        Mockito.doReturn(Collections.emptySet()).when(definition).getCategories();
+        BlockBuilderHelper blockBuilder = Mockito.mock(BlockBuilderHelper.class);
+        Mockito.doAnswer(invocation -> {
+            Block block = new Block();
+            block.setUri(invocation.getArgument(3));
+            return block;
+        }).when(blockBuilder).constructTransformedBlock(ArgumentMatchers.any(), ArgumentMatchers.anyString(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(BlockUri.class), ArgumentMatchers.any());
+        family = new RailBlockFamily(definition, blockBuilder);
+
+        EntityRef rail = BenchmarkEntities.entity(new RailComponent());
+        EntityRef ground = BenchmarkEntities.entity();
+        BlockEntityRegistry blockEntityRegistry = Mockito.mock(BlockEntityRegistry.class,
+                Mockito.withSettings().stubOnly());
+        Mockito.doAnswer(invocation -> rails.containsKey(invocation.getArgument(0)) ? rail : ground)
+                .when(blockEntityRegistry).getEntityAt(ArgumentMatchers.any());
+        WorldProvider worldProvider = Mockito.mock(WorldProvider.class, Mockito.withSettings().stubOnly());
+        Mockito.doAnswer(invocation -> rails.get(invocation.getArgument(0)))
+                .when(worldProvider).getBlock(ArgumentMatchers.any(Vector3ic.class));
+
+        ContextImpl context = new ContextImpl();
+        context.put(WorldProvider.class, worldProvider);
+        context.put(BlockEntityRegistry.class, blockEntityRegistry);
+        InjectionHelper.inject(family, context);
+
+        switch (layout) {
+            case "corner":
+                putRail(new Vector3i(0, 0, 1), Side.FRONT);
+                putRail(new Vector3i(1, 0, 0), Side.LEFT);
+                break;
+            case "tee":
+                putRail(new Vector3i(0, 0, 1), Side.FRONT);
+                putRail(new Vector3i(0, 0, -1), Side.BACK);
+                putRail(new Vector3i(1, 0, 0), Side.LEFT);
+                break;
+            case "slope":
+                putRail(new Vector3i(0, 0, -1), Side.BACK);
+                putRail(new Vector3i(0, 1, 1), Side.FRONT);
+                break;
+            case "junction":
+                putRail(new Vector3i(0, 0, 1), Side.FRONT, Side.BACK);
+                putRail(new Vector3i(0, 0, -1), Side.BACK);
+                putRail(new Vector3i(1, 0, 0), Side.LEFT, Side.RIGHT);
+                putRail(new Vector3i(-1, 0, 0), Side.RIGHT);
+                break;
+            default:
+                putRail(new Vector3i(0, 0, 1), Side.FRONT);
+                putRail(new Vector3i(0, 0, -1), Side.BACK);
+                break;
+        }
+        placement = new BlockPlacementData(new Vector3i(), Side.FRONT, new Vector3f());
+    }
+
+    private void putRail(Vector3i position, Side... connections) {
+        byte sides = 0;
+        for (Side side : connections) {
+            sides |= SideBitFlag.getSide(side);
+        }
+        rails.put(position, family.getBlockByConnection(sides));
+    }
+
+    @Benchmark
+    public Block getBlockForPlacement() {
+        return family.getBlockForPlacement(placement);
+    }
+}
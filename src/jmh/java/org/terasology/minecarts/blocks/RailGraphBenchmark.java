@@ -0,0 +1,78 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Vector3i;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.minecarts.BenchmarkEntities;
+import org.terasology.segmentedpaths.SegmentMeta;
+import org.terasology.segmentedpaths.controllers.SegmentMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walks a straight line of rail blocks through {@link RailBlockSegmentMapper#nextSegment} once every edge is resolved,
+ * which is the path every cart takes when it crosses a block boundary.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RailGraphBenchmark {
+    @Param({"1000"})
+    public int length;
+
+    private RailBlockSegmentMapper mapper;
+    private SegmentMeta[] metas;
+
+    @Setup
+    public void setup() {
+        RailGraph graph = new RailGraph();
+        mapper = new RailBlockSegmentMapper(null, null, null, null, graph);
+        Prefab descriptor = Mockito.mock(Prefab.class, Mockito.withSettings().stubOnly());
+
+        EntityRef[] rails = new EntityRef[length + 1];
+        for (int i = 0; i <= length; i++) {
+            rails[i] = BenchmarkEntities.entity(new BlockComponent(null, new Vector3i(i, 0, 0)));
+        }
+        metas = new SegmentMeta[length];
+        for (int i = 0; i < length; i++) {
+            Vector3i position = new Vector3i(i, 0, 0);
+            graph.putEdge(position, descriptor, SegmentMapping.SegmentEnd.END,
+                    new SegmentMapping.MappingResult(descriptor, rails[i + 1]));
+            if (i > 0) {
+                graph.putEdge(position, descriptor, SegmentMapping.SegmentEnd.START,
+                        new SegmentMapping.MappingResult(descriptor, rails[i - 1]));
+            }
+            metas[i] = new SegmentMeta(0, rails[i], descriptor);
+        }
+    }
+
+    @Benchmark
+    public int traverse() {
+        int resolved = 0;
+        for (SegmentMeta meta : metas) {
+            if (mapper.nextSegment(meta, SegmentMapping.SegmentEnd.END) != null) {
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,98 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.logic.characters.CharacterComponent;
+import org.terasology.engine.logic.characters.CharacterMovementComponent;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.physics.components.RigidBodyComponent;
+import org.terasology.engine.physics.events.CollideEvent;
+import org.terasology.minecarts.BenchmarkEntities;
+import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collision resolution in {@link CartImpulseSystem#onBump} for a cart hitting a character, another cart and a
+ * free rigid body.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartImpulseBenchmark {
+    @Param({"character", "cart", "rigidBody"})
+    public String other;
+
+    private CartImpulseSystem cartImpulseSystem;
+    private CollideEvent event;
+    private EntityRef cart;
+    private RailVehicleComponent railVehicle;
+
+    @Setup
+    public void setup() {
+        railVehicle = new RailVehicleComponent();
+        cart = cart(new Vector3f(), railVehicle);
+
+        EntityRef otherEntity;
+        switch (other) {
+            case "character":
+                LocationComponent location = new LocationComponent();
+                location.setWorldPosition(new Vector3f(0, 0, 1));
+                otherEntity = BenchmarkEntities.entity(new CharacterComponent(), new CharacterMovementComponent(),
+                        location);
+                break;
+            case "rigidBody":
+                LocationComponent bodyLocation = new LocationComponent();
+                bodyLocation.setWorldPosition(new Vector3f(0, 0, 1));
+                RigidBodyComponent rigidBody = new RigidBodyComponent();
+                rigidBody.mass = 10;
+                otherEntity = BenchmarkEntities.entity(bodyLocation, rigidBody);
+                break;
+            default:
+                otherEntity = cart(new Vector3f(0, 0, 1), new RailVehicleComponent());
+                break;
+        }
+
+        event = Mockito.mock(CollideEvent.class, Mockito.withSettings().stubOnly());
+        Mockito.doReturn(otherEntity).when(event).getOtherEntity();
+        Mockito.doReturn(new Vector3f(0, 0, 1)).when(event).getNormal();
+        Mockito.doReturn(.05f).when(event).getPenetration();
+
+        cartImpulseSystem = new CartImpulseSystem();
+        cartImpulseSystem.cartMotionSystem = new CartMotionSystem();
+    }
+
+    private static EntityRef cart(Vector3f position, RailVehicleComponent railVehicle) {
+        LocationComponent location = new LocationComponent();
+        location.setWorldPosition(position);
+        RigidBodyComponent rigidBody = new RigidBodyComponent();
+        rigidBody.mass = 250;
+        return BenchmarkEntities.entity(location, railVehicle, new PathFollowerComponent(), rigidBody);
+    }
+
+    @Benchmark
+    public void onBump() {
+        // keep the cart driving into the other body so every call resolves a contact
+        railVehicle.velocity.set(0, 0, 2);
+        cartImpulseSystem.onBump(event, cart);
+    }
+}
@@ -0,0 +1,105 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.minecarts.BenchmarkEntities;
+import org.terasology.minecarts.Constants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two numeric phases of a {@link CartMotionSystem} step, on the main thread and on the parallel integrator, for a
+ * growing number of moving carts on sloped track: integrating the carts, and solving the joints of the same carts
+ * coupled into trains of {@link #TRAIN_LENGTH}.
+ * <p>
+ * Comparing the two modes at the same cart count shows from where on running a phase in parallel pays for its
+ * scheduling, which is what {@link Constants#PARALLEL_INTEGRATION_THRESHOLD} is set from. The crossover depends on the
+ * number of cores, so measure it on the hardware of the server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartIntegrationBenchmark {
+    private static final float DELTA = 1f / 60f;
+    private static final int TRAIN_LENGTH = 8;
+    private static final float JOINT_LENGTH = 1.5f;
+
+    @Param({"256", "1024", "4096", "16384", "65536"})
+    public int carts;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private CartStateStore store;
+    private CartParallelIntegrator integrator;
+    private CartTrains trains;
+    private CartTrainSolver trainSolver;
+
+    @Setup
+    public void setup() {
+        store = new CartStateStore();
+        Vector3f tangent = new Vector3f(0, 1, 1).normalize();
+        trains = new CartTrains();
+        for (int i = 0; i < carts; i++) {
+            int slot = store.add(BenchmarkEntities.entity());
+            store.setHeading(slot, tangent);
+            store.setVelocity(slot, new Vector3f(tangent).mul(5));
+            store.setTrackFrame(slot, tangent, -Constants.GRAVITY * tangent.y,
+                    tangent.z * 0.01f / Constants.CART_FIXED_TIMESTEP);
+            store.setPosition(slot, new Vector3f(tangent).mul(-JOINT_LENGTH * (i % TRAIN_LENGTH)).add(i, 0, 0));
+            store.setMass(slot, 100);
+            if (i % TRAIN_LENGTH == 0) {
+                trains.beginTrain();
+            }
+            int cart = trains.addCart(slot);
+            if (i % TRAIN_LENGTH != 0) {
+                trains.addJoint(cart - 1, cart, JOINT_LENGTH);
+            }
+        }
+        trainSolver = new CartTrainSolver();
+        integrator = new CartParallelIntegrator(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        integrator.shutdown();
+    }
+
+    @Benchmark
+    public CartStateStore integrate() {
+        if (parallel) {
+            integrator.integrate(store, Constants.VELOCITY_CAP, DELTA, DELTA);
+        } else {
+            CartParallelIntegrator.integrateRange(store, Constants.VELOCITY_CAP, DELTA, DELTA, 0, store.size());
+        }
+        return store;
+    }
+
+    @Benchmark
+    public CartStateStore solveTrains() {
+        if (parallel) {
+            integrator.solveTrains(trains, store, DELTA, Constants.CART_JOINT_SOLVER_ITERATIONS);
+        } else {
+            CartParallelIntegrator.solveTrainRange(trains, store, trainSolver, DELTA,
+                    Constants.CART_JOINT_SOLVER_ITERATIONS, 0, trains.size());
+        }
+        return store;
+    }
+}
@@ -0,0 +1,103 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.physics.components.RigidBodyComponent;
+import org.terasology.minecarts.BenchmarkEntities;
+import org.terasology.minecarts.components.CartJointComponent;
+import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@link CartJointSystem#step} over a long train of joined carts on straight track, which gathers the train and
+ * solves it with {@link CartTrainSolver} on the simulated state of the motion system.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartJointBenchmark {
+    private static final float DELTA = 1f / 60f;
+
+    @Param({"10", "50", "200"})
+    public int trainLength;
+
+    @Param({"1", "4", "16"})
+    public int solverIterations;
+
+    private CartJointSystem cartJointSystem;
+
+    @Setup
+    public void setup() {
+        CartMotionSystem cartMotionSystem = new CartMotionSystem();
+        CartStateStore cartStates = cartMotionSystem.getCartStates();
+        List<EntityRef> carts = new ArrayList<>();
+        List<CartJointComponent> joints = new ArrayList<>();
+        for (int i = 0; i < trainLength; i++) {
+            LocationComponent location = new LocationComponent();
+            location.setWorldPosition(new Vector3f(0, 0, i * 1.4f));
+            RailVehicleComponent railVehicle = new RailVehicleComponent();
+            railVehicle.velocity.set(0, 0, i == 0 ? 2 : 0);
+            PathFollowerComponent pathFollower = new PathFollowerComponent();
+            pathFollower.heading = new Vector3f(0, 0, 1);
+            RigidBodyComponent rigidBody = new RigidBodyComponent();
+            rigidBody.mass = 250;
+            CartJointComponent joint = new CartJointComponent();
+            joint.front = new CartJointComponent.CartJointSocket();
+            joint.front.range = .7f;
+            joint.back = new CartJointComponent.CartJointSocket();
+            joint.back.range = .7f;
+            joints.add(joint);
+            EntityRef cart = BenchmarkEntities.entity(location, railVehicle, pathFollower, rigidBody, joint);
+            carts.add(cart);
+
+            int slot = cartStates.add(cart);
+            cartStates.setVelocity(slot, railVehicle.velocity);
+            cartStates.setPosition(slot, location.getWorldPosition(new Vector3f()));
+            cartStates.setHeading(slot, pathFollower.heading);
+            cartStates.setMass(slot, rigidBody.mass);
+        }
+        for (int i = 0; i + 1 < trainLength; i++) {
+            joints.get(i).front.entity = carts.get(i + 1);
+            joints.get(i).front.isOwning = true;
+            joints.get(i + 1).back.entity = carts.get(i);
+        }
+
+        EntityManager entityManager = Mockito.mock(EntityManager.class, Mockito.withSettings().stubOnly());
+        Mockito.doReturn(carts).when(entityManager).getEntitiesWith(RailVehicleComponent.class,
+                RigidBodyComponent.class, CartJointComponent.class);
+
+        cartJointSystem = new CartJointSystem();
+        cartJointSystem.entityManager = entityManager;
+        cartJointSystem.cartMotionSystem = cartMotionSystem;
+        cartJointSystem.setSolverIterations(solverIterations);
+    }
+
+    @Benchmark
+    public void step() {
+        cartJointSystem.step(DELTA);
+    }
+}
@@ -0,0 +1,183 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.math.Rotation;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.minecarts.BenchmarkEntities;
+import org.terasology.minecarts.BenchmarkSegments;
+import org.terasology.minecarts.Constants;
+import org.terasology.minecarts.Util;
+import org.terasology.minecarts.blocks.RailBlockSegmentMapper;
+import org.terasology.minecarts.blocks.RailComponent;
+import org.terasology.minecarts.blocks.RailGraph;
+import org.terasology.minecarts.blocks.RailProfile;
+import org.terasology.minecarts.blocks.RailProfiles;
+import org.terasology.minecarts.blocks.RailSegmentSampler;
+import org.terasology.minecarts.blocks.SegmentSamples;
+import org.terasology.segmentedpaths.SegmentMeta;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+import org.terasology.segmentedpaths.controllers.SegmentMapping;
+import org.terasology.segmentedpaths.segments.Segment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One step of {@link CartMotionSystem} for a batch of carts on a loop of straight, curved or sloped rail blocks.
+ * <p>
+ * Every cart goes through the same pieces the motion system uses: the track tangent from the {@link SegmentSamples}
+ * of its rail, gravity and friction from the {@link RailProfile} of the block, the integration in
+ * {@link CartStateStore}, the move along its path across block boundaries through the {@link RailGraph} and the new
+ * position and orientation. The path move is done here the way {@code PathFollowerSystem.move} does it, since the
+ * SegmentedPaths system needs a running engine.
+ * <p>
+ * Entities are stubs, see {@link BenchmarkEntities}, whose {@code getComponent} calls allocate, so
+ * {@code gc.alloc.rate.norm} is an upper bound of what the step allocates in the engine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartMotionBenchmark {
+    private static final float DELTA = Constants.CART_FIXED_TIMESTEP;
+    private static final int RAILS_PER_CART = 4;
+
+    @Param({"straight", "curved", "sloped"})
+    public String track;
+
+    @Param({"1000"})
+    public int carts;
+
+    private CartStateStore store;
+    private RailBlockSegmentMapper mapper;
+    private RailSegmentSampler sampler;
+    private RailProfiles profiles;
+    private PathFollowerComponent[] pathFollowers;
+    private float segmentLength;
+
+    private final Vector3f tangent = new Vector3f();
+    private final Vector3f position = new Vector3f();
+    private final Quaternionf rotation = new Quaternionf();
+
+    @Setup
+    public void setup() {
+        Segment segment;
+        switch (track) {
+            case "curved":
+                segment = BenchmarkSegments.quarterCircle();
+                break;
+            case "sloped":
+                segment = BenchmarkSegments.line(new Vector3f(1, 1, 0));
+                break;
+            default:
+                segment = BenchmarkSegments.line(new Vector3f(1, 0, 0));
+                break;
+        }
+        Prefab descriptor = Mockito.mock(Prefab.class, Mockito.withSettings().stubOnly());
+        Map<Prefab, SegmentSamples> samples = new HashMap<>();
+        samples.put(descriptor, SegmentSamples.sample(segment, Constants.SEGMENT_SAMPLE_STEP));
+        segmentLength = samples.get(descriptor).getLength();
+
+        Block block = Mockito.mock(Block.class, Mockito.withSettings().stubOnly());
+        Mockito.doReturn(Rotation.none()).when(block).getRotation();
+        int length = carts * RAILS_PER_CART;
+        EntityRef[] rails = new EntityRef[length];
+        for (int i = 0; i < length; i++) {
+            rails[i] = BenchmarkEntities.entity(new BlockComponent(block, new Vector3i(i, 0, 0)), new RailComponent());
+        }
+        // the end of the last rail leads back to the first one, so carts never run out of track
+        RailGraph graph = new RailGraph();
+        for (int i = 0; i < length; i++) {
+            Vector3i railPosition = new Vector3i(i, 0, 0);
+            graph.putEdge(railPosition, descriptor, SegmentMapping.SegmentEnd.END,
+                    new SegmentMapping.MappingResult(descriptor, rails[(i + 1) % length]));
+            graph.putEdge(railPosition, descriptor, SegmentMapping.SegmentEnd.START,
+                    new SegmentMapping.MappingResult(descriptor, rails[(i + length - 1) % length]));
+        }
+        mapper = new RailBlockSegmentMapper(null, null, null, null, graph);
+        sampler = new RailSegmentSampler(null, null, null, mapper, samples);
+        profiles = new RailProfiles(sampler);
+
+        store = new CartStateStore();
+        pathFollowers = new PathFollowerComponent[carts];
+        for (int i = 0; i < carts; i++) {
+            PathFollowerComponent pathFollower = new PathFollowerComponent();
+            pathFollower.segmentMeta = new SegmentMeta(segmentLength / 2, rails[i * RAILS_PER_CART], descriptor);
+            pathFollower.heading = new Vector3f();
+            EntityRef cart = BenchmarkEntities.entity(pathFollower);
+            sampler.tangent(cart, 0, pathFollower.heading);
+
+            int slot = store.add(cart);
+            pathFollowers[slot] = pathFollower;
+            store.setHeading(slot, pathFollower.heading);
+            store.setVelocity(slot, new Vector3f(pathFollower.heading).mul(5));
+        }
+    }
+
+    @Benchmark
+    public float step() {
+        float w = 0;
+        for (int slot = 0; slot < store.size(); slot++) {
+            EntityRef cart = store.getEntity(slot);
+            PathFollowerComponent pathFollower = pathFollowers[slot];
+            SegmentMeta segmentMeta = pathFollower.segmentMeta;
+
+            sampler.tangent(cart, 0, tangent);
+            RailProfile profile = profiles.get(segmentMeta.association, segmentMeta.prefab);
+            store.setTrackFrame(slot, tangent, profile.gravity(segmentMeta.position),
+                    profile.friction(segmentMeta.position));
+            float distance = store.integrate(slot, Constants.VELOCITY_CAP, DELTA);
+
+            move(segmentMeta, distance);
+            sampler.tangent(cart, 0, pathFollower.heading);
+            store.setHeading(slot, pathFollower.heading);
+            sampler.point(cart, 0, position).add(0, .01f, 0);
+            store.setPosition(slot, position);
+            w += Util.rotation(pathFollower.heading, rotation).w;
+        }
+        return w;
+    }
+
+    /**
+     * Advances the cart along its segment and carries what is left over into the next segments of the rail graph.
+     */
+    private void move(SegmentMeta segmentMeta, float distance) {
+        segmentMeta.position += distance;
+        while (segmentMeta.position > segmentLength) {
+            enter(segmentMeta, mapper.nextSegment(segmentMeta, SegmentMapping.SegmentEnd.END));
+            segmentMeta.position -= segmentLength;
+        }
+        while (segmentMeta.position < 0) {
+            enter(segmentMeta, mapper.nextSegment(segmentMeta, SegmentMapping.SegmentEnd.START));
+            segmentMeta.position += segmentLength;
+        }
+    }
+
+    private static void enter(SegmentMeta segmentMeta, SegmentMapping.MappingResult next) {
+        segmentMeta.association = next.entity;
+        segmentMeta.prefab = next.prefab;
+    }
+}
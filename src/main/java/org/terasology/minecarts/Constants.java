@@ -14,4 +14,146 @@ public class Constants {
 
 
     public static final float CART_JOINT_BREAK_DISTANCE = 10f;
+    /**
+     * Default number of solver passes over the joints of a train per tick.
+     */
+    public static final int CART_JOINT_SOLVER_ITERATIONS = 4;
+
+    /**
+     * Length in seconds of one step of the rail physics, which is independent of the frame time.
+     */
+    public static final float CART_FIXED_TIMESTEP = 1f / 60;
+    /**
+     * Maximum number of fixed steps taken in one frame; time beyond that is dropped.
+     */
+    public static final int CART_MAX_STEPS_PER_FRAME = 4;
+    /**
+     * Maximum number of substeps a fixed step is divided into.
+     */
+    public static final int CART_MAX_SUBSTEPS = 8;
+    /**
+     * With adaptive substepping, carts that would travel further than this in one step are substepped. At the default
+     * timestep this starts at half of {@link #VELOCITY_CAP}, which travels a quarter of a block per step.
+     */
+    public static final float CART_MAX_STEP_DISTANCE = .125f;
+
+    /**
+     * Number of ticks between write-backs of the simulated cart state into {@code RailVehicleComponent}.
+     */
+    public static final int CART_STATE_SYNC_INTERVAL = 10;
+    /**
+     * Number of ticks between track snapshots sent to predicting clients.
+     */
+    public static final int CART_SNAPSHOT_INTERVAL = 6;
+    /**
+     * Seconds over which a client blends the difference between its predicted and the authoritative cart position.
+     */
+    public static final float CART_PREDICTION_CORRECTION_TIME = .2f;
+    /**
+     * A prediction further off than this is not blended but snapped to the authoritative position.
+     */
+    public static final float CART_PREDICTION_SNAP_DISTANCE = 2f;
+
+    /**
+     * A cart slower than this on a level segment counts as resting.
+     */
+    public static final float CART_SLEEP_VELOCITY = .01f;
+    /**
+     * Number of consecutive resting ticks before a cart is put to sleep.
+     */
+    public static final int CART_SLEEP_TICKS = 60;
+    /**
+     * Maximum vertical component of the track tangent for a segment to count as level.
+     */
+    public static final float CART_SLEEP_SLOPE = .001f;
+
+    /**
+     * Default minimum number of carts before a phase of the rail physics is run on the thread pool, when enabled with
+     * the {@code railsParallel} command. Integrating a cart takes a few nanoseconds and solving a joint not many more,
+     * so below a few thousand carts handing the work to the pool costs more than it saves. Measure the crossover on
+     * the server's hardware with {@code CartIntegrationBenchmark} and set it with {@code railsParallelThreshold}.
+     */
+    public static final int PARALLEL_INTEGRATION_THRESHOLD = 4096;
+
+    /**
+     * Distance along the track at which two attached carts collide.
+     */
+    public static final float CART_CONTACT_LENGTH = 1.2f;
+    /**
+     * Maximum distance across the track for two attached carts to be on the same line, e.g. not on parallel tracks.
+     */
+    public static final float CART_CONTACT_WIDTH = .5f;
+    /**
+     * Minimum cosine of the angle between the headings of two attached carts for their contact to be resolved along the
+     * track. Carts meeting at a crossing or junction at a steeper angle collide through the physics engine instead.
+     */
+    public static final float CART_CONTACT_ALIGNMENT = .9f;
+
+    /**
+     * Length of the ray cast down from a detached cart to find track to attach to.
+     */
+    public static final float CART_ATTACH_DISTANCE = 1.2f;
+    /**
+     * Seconds between attach checks of a detached cart that stopped moving, doubled on every check up to
+     * {@link #CART_ATTACH_MAX_POLL_INTERVAL}.
+     */
+    public static final float CART_ATTACH_MIN_POLL_INTERVAL = .25f;
+    public static final float CART_ATTACH_MAX_POLL_INTERVAL = 2f;
+    /**
+     * A detached cart that moved less than this since its last attach check counts as resting.
+     */
+    public static final float CART_ATTACH_REST_DISTANCE = .05f;
+
+    /**
+     * Attached carts further than this from every player hibernate; a train only hibernates as a whole.
+     */
+    public static final float CART_HIBERNATION_RADIUS = 128f;
+    /**
+     * Seconds between checks for carts to hibernate or restore, which is also the step of the coarse advance of
+     * hibernating trains.
+     */
+    public static final float CART_HIBERNATION_INTERVAL = 1f;
+
+    /**
+     * Seconds between ticks of the coarse logistics simulation of trains that left the loaded world.
+     */
+    public static final float CART_LOGISTICS_INTERVAL = 2f;
+    /**
+     * Length in seconds of one integration step within a logistics tick.
+     */
+    public static final float CART_LOGISTICS_STEP = .25f;
+    /**
+     * Maximum number of rail blocks a logistics route is traced ahead of and behind a train.
+     */
+    public static final int CART_LOGISTICS_ROUTE_LENGTH = 4096;
+
+    /**
+     * Largest distance along a segment between two samples of its geometry, see {@code SegmentSamples}.
+     */
+    public static final float SEGMENT_SAMPLE_STEP = 1f / 32;
+
+    /**
+     * Carts closer to the camera than this get every wheel aligned with the track under it.
+     */
+    public static final float CART_WHEEL_DETAIL_DISTANCE = 24f;
+    /**
+     * Wheels of carts further from the camera than this, or behind it, are not updated; in between, the wheels simply
+     * follow the rotation of the cart body.
+     */
+    public static final float CART_WHEEL_CULL_DISTANCE = 96f;
+    /**
+     * Maximum number of wheels updated per frame; carts left over are continued with in the next frame.
+     */
+    public static final int CART_WHEEL_UPDATE_BUDGET = 512;
+
+    /**
+     * Maximum number of changed positions whose neighbouring rails are reconnected per tick after large block
+     * updates, e.g. explosions; the rest is carried over to the next tick.
+     */
+    public static final int RAIL_UPDATE_BUDGET = 1024;
+
+    /**
+     * Seconds between log summaries of the rails metrics while they are enabled.
+     */
+    public static final float RAILS_METRICS_LOG_INTERVAL = 30f;
 }
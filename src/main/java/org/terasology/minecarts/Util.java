@@ -3,8 +3,11 @@
 package org.terasology.minecarts;
 
 import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
 import org.joml.Vector3f;
 import org.joml.Vector3fc;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
 
 public class Util {
     public static Vector3f project(Vector3fc u, Vector3fc v, Vector3f dest) {
@@ -12,13 +15,65 @@ public class Util {
     }
 
     public static Quaternionf rotation(Vector3fc direction) {
-        Vector3f horizontal = new Vector3f(direction);
-        horizontal.y = 0;
-        horizontal.normalize();
-        Quaternionf horizontalRotation = new Quaternionf().rotateTo(new Vector3f(0, 0, 1), horizontal);
-        Quaternionf verticalRotation = new Quaternionf().rotateTo(horizontal, direction);
-        verticalRotation.mul(horizontalRotation);
-        return verticalRotation;
+        return rotation(direction, new Quaternionf());
+    }
+
+    /**
+     * Rotation that turns the positive z axis into the given direction, first around the y axis and then towards
+     * the vertical component of the direction.
+     *
+     * @param dest will hold the result
+     * @return dest
+     */
+    public static Quaternionf rotation(Vector3fc direction, Quaternionf dest) {
+        float horizontalLength = (float) Math.sqrt(direction.x() * direction.x() + direction.z() * direction.z());
+        float horizontalX = direction.x() / horizontalLength;
+        float horizontalZ = direction.z() / horizontalLength;
+        dest.rotationTo(horizontalX, 0, horizontalZ, direction.x(), direction.y(), direction.z());
+        return dest.rotateTo(0, 0, 1, horizontalX, 0, horizontalZ);
+    }
+
+    /**
+     * Compares two vectors bit for bit, so that e.g. {@code -0.0f} and {@code 0.0f} are different values.
+     */
+    public static boolean bitwiseEquals(Vector3fc a, Vector3fc b) {
+        return Float.floatToRawIntBits(a.x()) == Float.floatToRawIntBits(b.x())
+                && Float.floatToRawIntBits(a.y()) == Float.floatToRawIntBits(b.y())
+                && Float.floatToRawIntBits(a.z()) == Float.floatToRawIntBits(b.z());
+    }
+
+    public static boolean bitwiseEquals(Quaternionfc a, Quaternionfc b) {
+        return Float.floatToRawIntBits(a.x()) == Float.floatToRawIntBits(b.x())
+                && Float.floatToRawIntBits(a.y()) == Float.floatToRawIntBits(b.y())
+                && Float.floatToRawIntBits(a.z()) == Float.floatToRawIntBits(b.z())
+                && Float.floatToRawIntBits(a.w()) == Float.floatToRawIntBits(b.w());
+    }
+
+    /**
+     * Packs a block position into a single long, 21 bits per axis.
+     */
+    public static long packPosition(int x, int y, int z) {
+        return ((long) x & 0x1FFFFF) << 42 | ((long) y & 0x1FFFFF) << 21 | ((long) z & 0x1FFFFF);
+    }
+
+    public static long packPosition(Vector3ic position) {
+        return packPosition(position.x(), position.y(), position.z());
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 42) << 11 >> 11;
+    }
+
+    public static int unpackY(long key) {
+        return (int) (key >> 21) << 11 >> 11;
+    }
+
+    public static int unpackZ(long key) {
+        return (int) key << 11 >> 11;
+    }
+
+    public static Vector3i unpackPosition(long key, Vector3i dest) {
+        return dest.set(unpackX(key), unpackY(key), unpackZ(key));
     }
 
 }
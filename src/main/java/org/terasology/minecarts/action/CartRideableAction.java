@@ -17,13 +17,17 @@ import org.terasology.engine.logic.location.Location;
 import org.terasology.engine.logic.location.LocationComponent;
 import org.terasology.engine.physics.StandardCollisionGroup;
 import org.terasology.engine.physics.components.RigidBodyComponent;
+import org.terasology.engine.registry.In;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 import org.terasology.minecarts.components.CartRideableComponent;
 import org.terasology.minecarts.components.RidingCartComponent;
 import org.terasology.minecarts.controllers.CartImpulseSystem;
+import org.terasology.minecarts.controllers.CartMotionSystem;
 
 @RegisterSystem(RegisterMode.AUTHORITY)
 public class CartRideableAction extends BaseComponentSystem {
+    @In
+    CartMotionSystem cartMotionSystem;
 
     @ReceiveEvent(components = {CartRideableComponent.class, LocationComponent.class})
     public void onUseFunctional(ActivateEvent event, EntityRef entity) {
@@ -69,6 +73,7 @@ public class CartRideableAction extends BaseComponentSystem {
 
         cart.saveComponent(cartRideableComponent);
         cart.saveComponent(railVehicleRigidBody);
+        cartMotionSystem.wakeCart(cart);
     }
 
     private void dismount(EntityRef cart, EntityRef rider) {
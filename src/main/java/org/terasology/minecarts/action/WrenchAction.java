@@ -11,7 +11,6 @@ import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
 import org.terasology.engine.logic.common.ActivateEvent;
-import org.terasology.engine.math.SideBitFlag;
 import org.terasology.engine.registry.In;
 import org.terasology.engine.world.BlockEntityRegistry;
 import org.terasology.engine.world.WorldProvider;
@@ -74,9 +73,9 @@ public class WrenchAction extends BaseComponentSystem {
 
         Block block = worldProvider.getBlock(position);
 
-        byte connections = Byte.parseByte(block.getURI().getIdentifier().toString());
+        byte connections = RailBlockFamily.getConnections(block);
 
-        if (SideBitFlag.getSides(connections).size() == 3) {
+        if (Integer.bitCount(connections & 0xFF) == 3) {
             if (block.getBlockFamily() == railFamily) {
                 blockEntityRegistry.setBlockForceUpdateEntity(position, invertFamily.getBlockByConnection(connections));
             } else if (block.getBlockFamily() == invertFamily) {
@@ -0,0 +1,27 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.analysis;
+
+import org.joml.Vector3i;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+import java.util.List;
+
+/**
+ * Answer to {@link RailNetworkAnalysisSystem#findComponents}, sent to the entity that asked.
+ */
+public class RailComponentsEvent implements Event {
+    private final List<List<Vector3i>> components;
+
+    public RailComponentsEvent(List<List<Vector3i>> components) {
+        this.components = components;
+    }
+
+    /**
+     * @return the rail blocks of each separate piece of loaded track
+     */
+    public List<List<Vector3i>> getComponents() {
+        return components;
+    }
+}
@@ -0,0 +1,27 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.analysis;
+
+import org.joml.Vector3i;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+import java.util.List;
+
+/**
+ * Answer to {@link RailNetworkAnalysisSystem#findDeadEnds}, sent to the entity that asked.
+ */
+public class RailDeadEndsEvent implements Event {
+    private final List<Vector3i> deadEnds;
+
+    public RailDeadEndsEvent(List<Vector3i> deadEnds) {
+        this.deadEnds = deadEnds;
+    }
+
+    /**
+     * @return the loaded rail blocks where the track ends
+     */
+    public List<Vector3i> getDeadEnds() {
+        return deadEnds;
+    }
+}
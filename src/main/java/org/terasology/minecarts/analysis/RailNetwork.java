@@ -0,0 +1,292 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.analysis;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.joml.Vector3ic;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.math.SideBitFlag;
+import org.terasology.minecarts.Util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the track as a graph of rail blocks, for analysis off the game thread.
+ * <p>
+ * Two rail blocks are linked the way {@code RailBlockSegmentMapper} finds the next segment: a connected side leads to
+ * the block next to it, or to the one below that if there is no rail at the same height, and the raised end of a slope
+ * leads one block up. Links are followed in both directions. Positions are packed with
+ * {@link Util#packPosition(int, int, int)}.
+ */
+public final class RailNetwork {
+    private static final byte TOP = SideBitFlag.getSide(Side.TOP);
+
+    private final long[] positions;
+    private final TLongIntMap nodes;
+    private final int[] edgeStart;
+    private final int[] edges;
+
+    /**
+     * @param connections the connection byte of the rail block at the same index, see
+     *         {@code RailBlockFamily.getConnections}
+     */
+    public RailNetwork(long[] positions, byte[] connections) {
+        this.positions = positions.clone();
+        nodes = new TLongIntHashMap(positions.length, .5f, Long.MIN_VALUE, -1);
+        for (int node = 0; node < positions.length; node++) {
+            nodes.put(positions[node], node);
+        }
+
+        // collect the links of every node, then add the reverse ones so the graph is undirected
+        List<int[]> links = new ArrayList<>();
+        int[] degree = new int[positions.length];
+        for (int node = 0; node < positions.length; node++) {
+            for (int neighbour : neighbours(positions[node], connections[node])) {
+                if (neighbour != node) {
+                    links.add(new int[]{node, neighbour});
+                    degree[node]++;
+                    degree[neighbour]++;
+                }
+            }
+        }
+        edgeStart = new int[positions.length + 1];
+        for (int node = 0; node < positions.length; node++) {
+            edgeStart[node + 1] = edgeStart[node] + degree[node];
+        }
+        edges = new int[edgeStart[positions.length]];
+        int[] fill = Arrays.copyOf(edgeStart, positions.length);
+        for (int[] link : links) {
+            edges[fill[link[0]]++] = link[1];
+            edges[fill[link[1]]++] = link[0];
+        }
+    }
+
+    private int[] neighbours(long position, byte connection) {
+        int x = Util.unpackX(position);
+        int y = Util.unpackY(position);
+        int z = Util.unpackZ(position);
+        int[] found = new int[5];
+        int count = 0;
+        Side lowSide = null;
+        int horizontalSides = 0;
+        for (Side side : SideBitFlag.getSides(connection)) {
+            if (!side.isHorizontal()) {
+                continue;
+            }
+            horizontalSides++;
+            lowSide = side;
+            Vector3ic direction = side.direction();
+            int neighbour = nodes.get(Util.packPosition(x + direction.x(), y, z + direction.z()));
+            if (neighbour == -1) {
+                neighbour = nodes.get(Util.packPosition(x + direction.x(), y - 1, z + direction.z()));
+            }
+            if (neighbour != -1) {
+                found[count++] = neighbour;
+            }
+        }
+        if ((connection & TOP) != 0 && horizontalSides == 1) {
+            Vector3ic direction = lowSide.reverse().direction();
+            int neighbour = nodes.get(Util.packPosition(x + direction.x(), y + 1, z + direction.z()));
+            if (neighbour != -1) {
+                found[count++] = neighbour;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    public boolean contains(long position) {
+        return nodes.containsKey(position);
+    }
+
+    /**
+     * The shortest route in rail blocks between two rail blocks, found with a breadth-first search.
+     *
+     * @return the positions along the route including both ends, or an empty array if there is none
+     */
+    public long[] route(long from, long to) {
+        int start = nodes.get(from);
+        int goal = nodes.get(to);
+        if (start == -1 || goal == -1) {
+            return new long[0];
+        }
+        int[] previous = new int[positions.length];
+        Arrays.fill(previous, -1);
+        previous[start] = start;
+        int[] queue = new int[positions.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail && previous[goal] == -1) {
+            int node = queue[head++];
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int next = edges[edge];
+                if (previous[next] == -1) {
+                    previous[next] = node;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        if (previous[goal] == -1) {
+            return new long[0];
+        }
+        TLongArrayList route = new TLongArrayList();
+        for (int node = goal; node != start; node = previous[node]) {
+            route.add(positions[node]);
+        }
+        route.add(positions[start]);
+        route.reverse();
+        return route.toArray();
+    }
+
+    /**
+     * Follows the track from a rail block in the given horizontal direction without turning back, going straight on
+     * at junctions where the track allows it, until the track ends, leads back to where it started or the maximum
+     * number of blocks is reached.
+     *
+     * @return the positions along the track starting with the given one, ending with the given one again if the track
+     *         is a loop, or an empty array if it is not a rail
+     */
+    public long[] trace(long from, float directionX, float directionZ, int maxLength) {
+        int start = nodes.get(from);
+        if (start == -1) {
+            return new long[0];
+        }
+        TLongArrayList trace = new TLongArrayList();
+        trace.add(from);
+        int previous = -1;
+        int node = start;
+        float towardsX = directionX;
+        float towardsZ = directionZ;
+        while (trace.size() < maxLength) {
+            int next = -1;
+            float best = 0;
+            int x = Util.unpackX(positions[node]);
+            int z = Util.unpackZ(positions[node]);
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int candidate = edges[edge];
+                if (candidate == previous) {
+                    continue;
+                }
+                float score = (Util.unpackX(positions[candidate]) - x) * towardsX
+                        + (Util.unpackZ(positions[candidate]) - z) * towardsZ;
+                // the first step has to go the given way, later ones may turn off a junction
+                if (next == -1 && (previous != -1 || score > 0) || score > best) {
+                    next = candidate;
+                    best = score;
+                }
+            }
+            if (next == -1) {
+                break;
+            }
+            trace.add(positions[next]);
+            if (next == start) {
+                break;
+            }
+            towardsX = Util.unpackX(positions[next]) - x;
+            towardsZ = Util.unpackZ(positions[next]) - z;
+            previous = node;
+            node = next;
+        }
+        return trace.toArray();
+    }
+
+    /**
+     * @return every rail block connected to the given one, including itself, or an empty array if it is not a rail
+     */
+    public long[] reachable(long from) {
+        int start = nodes.get(from);
+        if (start == -1) {
+            return new long[0];
+        }
+        int[] component = components();
+        TLongArrayList reachable = new TLongArrayList();
+        for (int node = 0; node < positions.length; node++) {
+            if (component[node] == component[start]) {
+                reachable.add(positions[node]);
+            }
+        }
+        return reachable.toArray();
+    }
+
+    /**
+     * @return the rail blocks of each separate piece of track
+     */
+    public List<long[]> connectedComponents() {
+        int[] component = components();
+        int count = 0;
+        for (int id : component) {
+            count = Math.max(count, id + 1);
+        }
+        TLongArrayList[] members = new TLongArrayList[count];
+        for (int id = 0; id < count; id++) {
+            members[id] = new TLongArrayList();
+        }
+        for (int node = 0; node < positions.length; node++) {
+            members[component[node]].add(positions[node]);
+        }
+        List<long[]> result = new ArrayList<>(count);
+        for (TLongArrayList list : members) {
+            result.add(list.toArray());
+        }
+        return result;
+    }
+
+    /**
+     * @return the rail blocks linked to at most one other rail block
+     */
+    public long[] deadEnds() {
+        TLongArrayList deadEnds = new TLongArrayList();
+        for (int node = 0; node < positions.length; node++) {
+            int distinct = 0;
+            int first = -1;
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1] && distinct < 2; edge++) {
+                if (edges[edge] != first) {
+                    if (first == -1) {
+                        first = edges[edge];
+                    }
+                    distinct++;
+                }
+            }
+            if (distinct < 2) {
+                deadEnds.add(positions[node]);
+            }
+        }
+        return deadEnds.toArray();
+    }
+
+    private int[] components() {
+        int[] component = new int[positions.length];
+        Arrays.fill(component, -1);
+        int[] stack = new int[positions.length];
+        int next = 0;
+        for (int root = 0; root < positions.length; root++) {
+            if (component[root] != -1) {
+                continue;
+            }
+            int id = next++;
+            int top = 0;
+            stack[top++] = root;
+            component[root] = id;
+            while (top > 0) {
+                int node = stack[--top];
+                for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                    int neighbour = edges[edge];
+                    if (component[neighbour] == -1) {
+                        component[neighbour] = id;
+                        stack[top++] = neighbour;
+                    }
+                }
+            }
+        }
+        return component;
+    }
+}
@@ -0,0 +1,193 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.analysis;
+
+import gnu.trove.map.TLongByteMap;
+import gnu.trove.map.hash.TLongByteHashMap;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.world.OnChangedBlock;
+import org.terasology.engine.world.WorldComponent;
+import org.terasology.engine.world.WorldProvider;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
+import org.terasology.engine.world.chunks.event.OnChunkLoaded;
+import org.terasology.gestalt.entitysystem.event.Event;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.minecarts.Util;
+import org.terasology.minecarts.blocks.RailBlockFamily;
+import org.terasology.minecarts.blocks.RailGraphSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Answers questions about the loaded track network, such as the shortest route between two rail blocks, without
+ * stalling the game thread.
+ * <p>
+ * The track is copied into a {@link RailNetwork} snapshot when the first question after a change comes in. Building
+ * the graph and answering the questions runs on a background thread, and the answers are sent as events to the entity
+ * that asked during the next update. The connections of every rail block are cached between snapshots, so after a
+ * track edit only the changed blocks are read from the world again.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(RailNetworkAnalysisSystem.class)
+public class RailNetworkAnalysisSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    private static final Logger logger = LoggerFactory.getLogger(RailNetworkAnalysisSystem.class);
+
+    @In
+    private WorldProvider worldProvider;
+    @In
+    private RailGraphSystem railGraphSystem;
+
+    private ExecutorService executor;
+    private TLongByteMap connections = new TLongByteHashMap();
+    private CompletableFuture<RailNetwork> network;
+    private final Queue<Runnable> answers = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void initialise() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Rail network analysis");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+        network = null;
+        connections.clear();
+        answers.clear();
+    }
+
+    @Override
+    public void update(float delta) {
+        Runnable answer;
+        while ((answer = answers.poll()) != null) {
+            answer.run();
+        }
+    }
+
+    /**
+     * Finds the shortest route between two rail blocks; answered with a {@link RailRouteEvent}.
+     */
+    public void findRoute(EntityRef requester, Vector3ic from, Vector3ic to) {
+        Vector3i start = new Vector3i(from);
+        Vector3i goal = new Vector3i(to);
+        ask(requester, network -> new RailRouteEvent(start, goal,
+                toPositions(network.route(Util.packPosition(start), Util.packPosition(goal)))));
+    }
+
+    /**
+     * Finds every rail block connected to the given one; answered with a {@link RailReachableEvent}.
+     */
+    public void findReachable(EntityRef requester, Vector3ic from) {
+        Vector3i start = new Vector3i(from);
+        ask(requester, network -> new RailReachableEvent(start,
+                toPositions(network.reachable(Util.packPosition(start)))));
+    }
+
+    /**
+     * Finds the rail blocks where the track ends; answered with a {@link RailDeadEndsEvent}.
+     */
+    public void findDeadEnds(EntityRef requester) {
+        ask(requester, network -> new RailDeadEndsEvent(toPositions(network.deadEnds())));
+    }
+
+    /**
+     * Splits the track into its separate pieces; answered with a {@link RailComponentsEvent}.
+     */
+    public void findComponents(EntityRef requester) {
+        ask(requester, network -> {
+            List<List<Vector3i>> components = new ArrayList<>();
+            for (long[] component : network.connectedComponents()) {
+                components.add(toPositions(component));
+            }
+            return new RailComponentsEvent(components);
+        });
+    }
+
+    @ReceiveEvent(components = {BlockComponent.class})
+    public void onBlockChanged(OnChangedBlock event, EntityRef blockEntity) {
+        if (isRail(event.getOldType()) || isRail(event.getNewType())) {
+            connections.remove(Util.packPosition(event.getBlockPosition()));
+            network = null;
+        }
+    }
+
+    @ReceiveEvent(components = {WorldComponent.class})
+    public void onChunkLoaded(OnChunkLoaded event, EntityRef worldEntity) {
+        network = null;
+    }
+
+    @ReceiveEvent(components = {WorldComponent.class})
+    public void onChunkUnload(BeforeChunkUnload event, EntityRef worldEntity) {
+        network = null;
+    }
+
+    private void ask(EntityRef requester, Function<RailNetwork, Event> question) {
+        snapshot().thenApplyAsync(question, executor).whenComplete((answer, error) -> answers.add(() -> {
+            if (error != null) {
+                logger.error("Rail network analysis failed", error);
+            } else if (requester.exists()) {
+                requester.send(answer);
+            }
+        }));
+    }
+
+    /**
+     * Copies the loaded track for a new snapshot if it changed since the last one; the graph itself is built on the
+     * background thread.
+     */
+    private CompletableFuture<RailNetwork> snapshot() {
+        if (network == null) {
+            long[] positions = railGraphSystem.getRailPositions().toArray();
+            byte[] railConnections = new byte[positions.length];
+            TLongByteMap cached = new TLongByteHashMap(positions.length);
+            for (int i = 0; i < positions.length; i++) {
+                long position = positions[i];
+                byte connection = connections.containsKey(position)
+                        ? connections.get(position)
+                        : RailBlockFamily.getConnections(worldProvider.getBlock(Util.unpackX(position),
+                                Util.unpackY(position), Util.unpackZ(position)));
+                railConnections[i] = connection;
+                cached.put(position, connection);
+            }
+            // positions that were unloaded or removed drop out of the cache here
+            connections = cached;
+            network = CompletableFuture.supplyAsync(() -> new RailNetwork(positions, railConnections), executor);
+        }
+        return network;
+    }
+
+    private static boolean isRail(Block block) {
+        return block.getBlockFamily() instanceof RailBlockFamily;
+    }
+
+    private static List<Vector3i> toPositions(long[] packed) {
+        List<Vector3i> positions = new ArrayList<>(packed.length);
+        for (long position : packed) {
+            positions.add(Util.unpackPosition(position, new Vector3i()));
+        }
+        return positions;
+    }
+}
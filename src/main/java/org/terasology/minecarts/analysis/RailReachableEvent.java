@@ -0,0 +1,34 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.analysis;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+import java.util.List;
+
+/**
+ * Answer to {@link RailNetworkAnalysisSystem#findReachable}, sent to the entity that asked.
+ */
+public class RailReachableEvent implements Event {
+    private final Vector3i from;
+    private final List<Vector3i> reachable;
+
+    public RailReachableEvent(Vector3ic from, List<Vector3i> reachable) {
+        this.from = new Vector3i(from);
+        this.reachable = reachable;
+    }
+
+    public Vector3ic getFrom() {
+        return from;
+    }
+
+    /**
+     * @return every rail block that can be reached from the start, empty if there is no rail at the start
+     */
+    public List<Vector3i> getReachable() {
+        return reachable;
+    }
+}
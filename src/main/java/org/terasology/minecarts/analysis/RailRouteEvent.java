@@ -0,0 +1,44 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.analysis;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+import java.util.List;
+
+/**
+ * Answer to {@link RailNetworkAnalysisSystem#findRoute}, sent to the entity that asked.
+ */
+public class RailRouteEvent implements Event {
+    private final Vector3i from;
+    private final Vector3i to;
+    private final List<Vector3i> route;
+
+    public RailRouteEvent(Vector3ic from, Vector3ic to, List<Vector3i> route) {
+        this.from = new Vector3i(from);
+        this.to = new Vector3i(to);
+        this.route = route;
+    }
+
+    public Vector3ic getFrom() {
+        return from;
+    }
+
+    public Vector3ic getTo() {
+        return to;
+    }
+
+    /**
+     * @return the rail blocks along the shortest route including both ends, empty if they are not connected
+     */
+    public List<Vector3i> getRoute() {
+        return route;
+    }
+
+    public boolean isConnected() {
+        return !route.isEmpty();
+    }
+}
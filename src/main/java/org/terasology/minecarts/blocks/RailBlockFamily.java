@@ -4,7 +4,9 @@ package org.terasology.minecarts.blocks;
 
 import com.google.common.collect.Sets;
 import gnu.trove.map.TByteObjectMap;
+import gnu.trove.map.TObjectByteMap;
 import gnu.trove.map.hash.TByteObjectHashMap;
+import gnu.trove.map.hash.TObjectByteHashMap;
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.terasology.engine.entitySystem.entity.EntityRef;
@@ -14,6 +16,7 @@ import org.terasology.engine.math.SideBitFlag;
 import org.terasology.engine.world.block.Block;
 import org.terasology.engine.world.block.BlockBuilderHelper;
 import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.family.BlockFamily;
 import org.terasology.engine.world.block.family.BlockPlacementData;
 import org.terasology.engine.world.block.family.BlockSections;
 import org.terasology.engine.world.block.family.MultiConnectFamily;
@@ -21,6 +24,7 @@ import org.terasology.engine.world.block.family.RegisterBlockFamily;
 import org.terasology.engine.world.block.loader.BlockFamilyDefinition;
 import org.terasology.engine.world.block.shapes.BlockShape;
 import org.terasology.gestalt.naming.Name;
+import org.terasology.minecarts.Util;
 import org.terasology.segmentedpaths.blocks.PathFamily;
 
 import java.util.EnumSet;
@@ -28,6 +32,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.LongPredicate;
 
 @RegisterBlockFamily("rails")
 @BlockSections({"no_connections", "one_connection", "one_connection_slope", "line_connection", "2d_corner", "2d_t", "cross"})
@@ -42,6 +47,14 @@ public class RailBlockFamily extends MultiConnectFamily implements PathFamily {
 
     private TByteObjectMap<Rotation> rotationMap = new TByteObjectHashMap<>();
     private Map<String, Byte> baseSideBitMap = new HashMap<>();
+    private TObjectByteMap<Block> connectionMap = new TObjectByteHashMap<>();
+
+    /**
+     * Best matching block for every connection byte, one table per side the slope goes up to ({@link Side#BOTTOM}
+     * for no slope). Built on first use, once all blocks of the family are registered.
+     */
+    private Block[][] placementTable;
+    private Side[] connectionSides;
 
     public RailBlockFamily(BlockFamilyDefinition definition, BlockShape shape, BlockBuilderHelper blockBuilder) {
         super(definition, shape, blockBuilder);
@@ -83,6 +96,7 @@ public class RailBlockFamily extends MultiConnectFamily implements PathFamily {
             Block block = blockBuilder.constructTransformedBlock(definition, name, rotation, new BlockUri(root,
                 new Name(String.valueOf(sideBits))), this);
             rotationMap.put(sideBits, rotation);
+            connectionMap.put(block, sideBits);
             blocks.put(sideBits, block);
             result.add(block);
         }
@@ -91,37 +105,127 @@ public class RailBlockFamily extends MultiConnectFamily implements PathFamily {
 
     @Override
     public Block getBlockForPlacement(BlockPlacementData data) {
+        if (placementTable == null) {
+            buildPlacementTable();
+        }
+
         byte connections = 0;
-        for (Side connectSide : SideBitFlag.getSides(getConnectionSides())) {
+        for (Side connectSide : connectionSides) {
             if (this.connectionCondition(data.blockPosition, connectSide) && !isFullyConnected(data.blockPosition, connectSide)) {
                 connections |= SideBitFlag.getSide(connectSide);
             }
         }
 
-        for (Side connectSide : SideBitFlag.getSides(getConnectionSides())) {
-            if (this.connectionCondition(new Vector3i(data.blockPosition).add(new Vector3i(0, -1, 0)), connectSide)) {
+        Vector3i below = new Vector3i(data.blockPosition).add(0, -1, 0);
+        for (Side connectSide : connectionSides) {
+            if (this.connectionCondition(below, connectSide)) {
+                connections |= SideBitFlag.getSide(connectSide);
+            }
+        }
+
+        Side topSide = Side.BOTTOM;
+        Vector3i above = below.add(0, 2, 0);
+        for (Side connectSide : connectionSides) {
+            if (this.connectionCondition(above, connectSide)) {
+                connections |= SideBitFlag.getSide(Side.TOP);
+                topSide = connectSide;
+                if (connections == SideBitFlag.getSide(Side.TOP)) {
+                    connections |= SideBitFlag.getSide(connectSide.reverse());
+                }
+                break;
+            }
+        }
+
+        return getBlockForConnections(connections, topSide);
+    }
+
+    /**
+     * The block that best matches the given connections, the same block {@link #getBlockForPlacement} picks for a
+     * location with these neighbours.
+     *
+     * @param topSide the side a slope goes up to, or {@link Side#BOTTOM} if the rail is level
+     */
+    public Block getBlockForConnections(byte connections, Side topSide) {
+        if (placementTable == null) {
+            buildPlacementTable();
+        }
+        return placementTable[topSide.ordinal()][connections & 0xFF];
+    }
+
+    /**
+     * The block for a rail at the given position, worked out from which of its neighbours are rails. Used to lay whole
+     * stretches of track at once, where the neighbours are not placed yet.
+     * <p>
+     * Like {@link #getBlockForPlacement}, the rail does not connect to a level neighbour already in the world that has
+     * two connections and none towards it.
+     *
+     * @param isRail tells whether there is, or is going to be, a rail at a position packed with
+     *         {@link Util#packPosition(int, int, int)}
+     * @param inWorld tells whether a rail at a packed position is already in the world, rather than placed along
+     *         with this one
+     */
+    public Block getBlockForNeighbours(Vector3ic position, LongPredicate isRail, LongPredicate inWorld) {
+        if (placementTable == null) {
+            buildPlacementTable();
+        }
+
+        byte connections = 0;
+        for (Side connectSide : connectionSides) {
+            long key = neighbour(position, connectSide, 0);
+            if (isRail.test(key) && !(inWorld.test(key) && isFullyConnected(position, connectSide))) {
+                connections |= SideBitFlag.getSide(connectSide);
+            }
+        }
+        for (Side connectSide : connectionSides) {
+            if (isRail.test(neighbour(position, connectSide, -1))) {
                 connections |= SideBitFlag.getSide(connectSide);
             }
         }
 
         Side topSide = Side.BOTTOM;
-        for (Side connectSide : SideBitFlag.getSides(getConnectionSides())) {
-            if (this.connectionCondition(new Vector3i(data.blockPosition).add(new Vector3i(0, 1, 0)), connectSide)) {
+        for (Side connectSide : connectionSides) {
+            if (isRail.test(neighbour(position, connectSide, 1))) {
                 connections |= SideBitFlag.getSide(Side.TOP);
                 topSide = connectSide;
-                if (SideBitFlag.getSides(connections).size() == 1) {
+                if (connections == SideBitFlag.getSide(Side.TOP)) {
                     connections |= SideBitFlag.getSide(connectSide.reverse());
                 }
                 break;
             }
         }
 
-        Block result = blocks.get(connections);
-        if (result != null) {
-            return result;
-        } else {
-            return getClosestMatch(connections, topSide);
+        return getBlockForConnections(connections, topSide);
+    }
+
+    private static long neighbour(Vector3ic position, Side side, int height) {
+        Vector3ic direction = side.direction();
+        return Util.packPosition(position.x() + direction.x(), position.y() + height, position.z() + direction.z());
+    }
+
+    /**
+     * The connections of a rail block, read from its family instead of parsing the identifier of its URI.
+     *
+     * @return the connection byte, or 0 if the block does not belong to a rail family
+     */
+    public static byte getConnections(Block block) {
+        BlockFamily family = block.getBlockFamily();
+        if (family instanceof RailBlockFamily) {
+            return ((RailBlockFamily) family).connectionMap.get(block);
+        }
+        return 0;
+    }
+
+    private void buildPlacementTable() {
+        connectionSides = SideBitFlag.getSides(getConnectionSides()).toArray(new Side[0]);
+        Block[][] table = new Block[Side.values().length][256];
+        for (Side topSide : Side.values()) {
+            for (int connections = 0; connections < 256; connections++) {
+                Block block = blocks.get((byte) connections);
+                table[topSide.ordinal()][connections] = block != null ? block : getClosestMatch((byte) connections,
+                        topSide);
+            }
         }
+        placementTable = table;
     }
 
     private Block getClosestMatch(byte connections, Side topSide) {
@@ -194,18 +298,13 @@ public class RailBlockFamily extends MultiConnectFamily implements PathFamily {
         if (connectionCondition(location, connectSide)) {
             Vector3i neighborLocation = new Vector3i(location);
             neighborLocation.add(connectSide.direction());
-            EnumSet<Side> sides =
-                SideBitFlag.getSides(Byte.parseByte(worldProvider.getBlock(neighborLocation).getURI().getIdentifier().toString()));
+            byte sides = getConnections(worldProvider.getBlock(neighborLocation));
 
-            for (Side side : sides) {
-                if (side == Side.TOP || side == Side.BOTTOM) {
-                    continue;
-                }
-                if (new Vector3i(neighborLocation).add(side.direction()).equals(location)) {
-                    return false;
-                }
+            // the neighbour already connects back to this location
+            if ((sides & SideBitFlag.getSide(connectSide.reverse())) != 0) {
+                return false;
             }
-            if (sides.size() > 1) {
+            if (Integer.bitCount(sides & 0xFF) > 1) {
                 return true;
             }
 
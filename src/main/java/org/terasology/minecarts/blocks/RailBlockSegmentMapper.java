@@ -14,6 +14,7 @@ import org.terasology.engine.math.Side;
 import org.terasology.engine.world.BlockEntityRegistry;
 import org.terasology.engine.world.block.BlockComponent;
 import org.terasology.engine.world.block.family.BlockFamily;
+import org.terasology.minecarts.metrics.RailsMetrics;
 import org.terasology.segmentedpaths.SegmentMeta;
 import org.terasology.segmentedpaths.blocks.PathFamily;
 import org.terasology.segmentedpaths.components.BlockMappingComponent;
@@ -33,80 +34,115 @@ public class RailBlockSegmentMapper implements SegmentMapping {
     private final SegmentSystem segmentSystem;
     private final SegmentCacheSystem segmentCacheSystem;
     private final BlockEntityRegistry blockEntityRegistry;
+    private final RailGraph railGraph;
+    private RailsMetrics metrics = new RailsMetrics();
 
     public RailBlockSegmentMapper(BlockEntityRegistry blockEntityRegistry, PathFollowerSystem pathFollowerSystem,
                                   SegmentSystem segmentSystem, SegmentCacheSystem segmentCacheSystem) {
+        this(blockEntityRegistry, pathFollowerSystem, segmentSystem, segmentCacheSystem, null);
+    }
+
+    /**
+     * @param railGraph graph caching resolved neighbours, or null to resolve every lookup against the world
+     */
+    public RailBlockSegmentMapper(BlockEntityRegistry blockEntityRegistry, PathFollowerSystem pathFollowerSystem,
+                                  SegmentSystem segmentSystem, SegmentCacheSystem segmentCacheSystem,
+                                  RailGraph railGraph) {
         this.blockEntityRegistry = blockEntityRegistry;
         this.pathFollowerSystem = pathFollowerSystem;
         this.segmentCacheSystem = segmentCacheSystem;
         this.segmentSystem = segmentSystem;
+        this.railGraph = railGraph;
     }
 
 
+    public void setMetrics(RailsMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     @Override
     public MappingResult nextSegment(SegmentMeta meta, SegmentEnd ends) {
-        if (meta.association.hasComponent(BlockComponent.class)) {
-            BlockComponent blockComponent = meta.association.getComponent(BlockComponent.class);
-            BlockFamily blockFamily = blockComponent.getBlock().getBlockFamily();
-
-            Vector3f v1 = segmentSystem.segmentPosition(meta.association);
-            Quaternionf q1 = segmentSystem.segmentRotation(meta.association);
-
-            Segment currentSegment = segmentCacheSystem.getSegment(meta.prefab);
-
-
-            BlockMappingComponent blockMappingComponent = meta.prefab.getComponent(BlockMappingComponent.class);
-            if (blockFamily instanceof PathFamily) {
-
-                Rotation rotation = ((PathFamily) blockFamily).getRotationFor(blockComponent.getBlock().getURI());
-                switch (ends) {
-                    case START: {
-                        Vector3i segment = findOffset(blockComponent.getPosition(),
-                                blockMappingComponent.s1, blockMappingComponent.s2, rotation);//rotation.rotate
-                        // (blockMappingComponent.s1).getVector3i());
-                        EntityRef blockEntity = blockEntityRegistry.getBlockEntityAt(segment);
-                        PathDescriptorComponent pathDescriptor =
-                                blockEntity.getComponent(PathDescriptorComponent.class);
-                        if (pathDescriptor == null) {
-                            return null;
-                        }
+        metrics.increment(RailsMetrics.Counter.NEXT_SEGMENT_CALLS);
+        BlockComponent blockComponent = meta.association.getComponent(BlockComponent.class);
+        if (blockComponent == null) {
+            return null;
+        }
+        if (railGraph == null) {
+            return resolveSegment(meta, ends, blockComponent);
+        }
+
+        MappingResult result = railGraph.getEdge(blockComponent.getPosition(), meta.prefab, ends);
+        if (result == null) {
+            result = resolveSegment(meta, ends, blockComponent);
+            if (result != null) {
+                railGraph.putEdge(blockComponent.getPosition(), meta.prefab, ends, result);
+            }
+        } else {
+            metrics.increment(RailsMetrics.Counter.NEXT_SEGMENT_CACHE_HITS);
+        }
+        return result;
+    }
 
-                        Vector3f v2 = segmentSystem.segmentPosition(blockEntity);
-                        Quaternionf q2 = segmentSystem.segmentRotation(blockEntity);
+    private MappingResult resolveSegment(SegmentMeta meta, SegmentEnd ends, BlockComponent blockComponent) {
+        BlockFamily blockFamily = blockComponent.getBlock().getBlockFamily();
 
-                        for (Prefab d : pathDescriptor.descriptors) {
+        Vector3f v1 = segmentSystem.segmentPosition(meta.association);
+        Quaternionf q1 = segmentSystem.segmentRotation(meta.association);
 
-                            Segment nextSegment = segmentCacheSystem.getSegment(d);
-                            if (segmentSystem.segmentMatch(currentSegment, v1, q1, nextSegment, v2, q2) != SegmentSystem.JointMatch.None) {
-                                return new MappingResult(d, blockEntity);
-                            }
-                        }
+        Segment currentSegment = segmentCacheSystem.getSegment(meta.prefab);
+
+
+        BlockMappingComponent blockMappingComponent = meta.prefab.getComponent(BlockMappingComponent.class);
+        if (blockFamily instanceof PathFamily) {
+
+            Rotation rotation = ((PathFamily) blockFamily).getRotationFor(blockComponent.getBlock().getURI());
+            switch (ends) {
+                case START: {
+                    Vector3i segment = findOffset(blockComponent.getPosition(),
+                            blockMappingComponent.s1, blockMappingComponent.s2, rotation);//rotation.rotate
+                    // (blockMappingComponent.s1).getVector3i());
+                    EntityRef blockEntity = blockEntityRegistry.getBlockEntityAt(segment);
+                    PathDescriptorComponent pathDescriptor =
+                            blockEntity.getComponent(PathDescriptorComponent.class);
+                    if (pathDescriptor == null) {
+                        return null;
                     }
-                    break;
-                    case END: {
-                        Vector3i segment = findOffset(blockComponent.getPosition(),
-                                blockMappingComponent.s2, blockMappingComponent.s1, rotation);//rotation.rotate
-                        // (blockMappingComponent.s2).getVector3i());
-                        EntityRef blockEntity = blockEntityRegistry.getBlockEntityAt(segment);
-                        PathDescriptorComponent pathDescriptor =
-                                blockEntity.getComponent(PathDescriptorComponent.class);
-                        if (pathDescriptor == null) {
-                            return null;
+
+                    Vector3f v2 = segmentSystem.segmentPosition(blockEntity);
+                    Quaternionf q2 = segmentSystem.segmentRotation(blockEntity);
+
+                    for (Prefab d : pathDescriptor.descriptors) {
+
+                        Segment nextSegment = segmentCacheSystem.getSegment(d);
+                        if (segmentSystem.segmentMatch(currentSegment, v1, q1, nextSegment, v2, q2) != SegmentSystem.JointMatch.None) {
+                            return new MappingResult(d, blockEntity);
                         }
+                    }
+                }
+                break;
+                case END: {
+                    Vector3i segment = findOffset(blockComponent.getPosition(),
+                            blockMappingComponent.s2, blockMappingComponent.s1, rotation);//rotation.rotate
+                    // (blockMappingComponent.s2).getVector3i());
+                    EntityRef blockEntity = blockEntityRegistry.getBlockEntityAt(segment);
+                    PathDescriptorComponent pathDescriptor =
+                            blockEntity.getComponent(PathDescriptorComponent.class);
+                    if (pathDescriptor == null) {
+                        return null;
+                    }
 
-                        Vector3f v2 = segmentSystem.segmentPosition(blockEntity);
-                        Quaternionf q2 = segmentSystem.segmentRotation(blockEntity);
+                    Vector3f v2 = segmentSystem.segmentPosition(blockEntity);
+                    Quaternionf q2 = segmentSystem.segmentRotation(blockEntity);
 
-                        for (Prefab d : pathDescriptor.descriptors) {
+                    for (Prefab d : pathDescriptor.descriptors) {
 
-                            Segment nextSegment = segmentCacheSystem.getSegment(d);
-                            if (segmentSystem.segmentMatch(currentSegment, v1, q1, nextSegment, v2, q2) != SegmentSystem.JointMatch.None) {
-                                return new MappingResult(d, blockEntity);
-                            }
+                        Segment nextSegment = segmentCacheSystem.getSegment(d);
+                        if (segmentSystem.segmentMatch(currentSegment, v1, q1, nextSegment, v2, q2) != SegmentSystem.JointMatch.None) {
+                            return new MappingResult(d, blockEntity);
                         }
                     }
-                    break;
                 }
+                break;
             }
         }
 
@@ -0,0 +1,135 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.minecarts.Util;
+import org.terasology.segmentedpaths.controllers.SegmentMapping;
+
+import java.util.Arrays;
+
+/**
+ * Connectivity graph of the loaded rail network.
+ * <p>
+ * Nodes are the path descriptors of a rail block, keyed by the packed block position. Each node caches the segment
+ * resolved at its {@link SegmentMapping.SegmentEnd#START} and {@link SegmentMapping.SegmentEnd#END}, so walking from
+ * one segment to the next is a hash lookup once an edge has been resolved.
+ * <p>
+ * Only resolved edges are stored; a missing edge is looked up again the next time it is asked for, which keeps the
+ * graph correct when the neighbouring chunk is loaded later.
+ */
+public class RailGraph {
+    private final TLongObjectMap<Node> nodes = new TLongObjectHashMap<>();
+
+    /**
+     * @return the cached segment next to the given end of a descriptor, or null if it has not been resolved yet
+     */
+    public SegmentMapping.MappingResult getEdge(Vector3ic position, Prefab descriptor, SegmentMapping.SegmentEnd end) {
+        Node node = nodes.get(Util.packPosition(position));
+        if (node == null) {
+            return null;
+        }
+        int index = node.indexOf(descriptor);
+        if (index == -1) {
+            return null;
+        }
+        return end == SegmentMapping.SegmentEnd.START ? node.starts[index] : node.ends[index];
+    }
+
+    public void putEdge(Vector3ic position, Prefab descriptor, SegmentMapping.SegmentEnd end,
+                        SegmentMapping.MappingResult result) {
+        long key = Util.packPosition(position);
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node();
+            nodes.put(key, node);
+        }
+        int index = node.indexOf(descriptor);
+        if (index == -1) {
+            index = node.add(descriptor);
+        }
+        if (end == SegmentMapping.SegmentEnd.START) {
+            node.starts[index] = result;
+        } else {
+            node.ends[index] = result;
+        }
+    }
+
+    /**
+     * Drops every node whose edges may lead through the given block: the block itself and all blocks touching it,
+     * including diagonally for slopes.
+     */
+    public void invalidateAround(Vector3ic position) {
+        for (int x = -1; x <= 1; x++) {
+            for (int y = -1; y <= 1; y++) {
+                for (int z = -1; z <= 1; z++) {
+                    nodes.remove(Util.packPosition(position.x() + x, position.y() + y, position.z() + z));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every node inside the given chunk and in the one block wide shell around it. Nodes in the shell may cache
+     * edges leading to the block entities of the chunk, which do not survive the unload.
+     */
+    public void removeChunk(Vector3ic chunkPosition) {
+        int minX = chunkPosition.x() * Chunks.SIZE_X - 1;
+        int minY = chunkPosition.y() * Chunks.SIZE_Y - 1;
+        int minZ = chunkPosition.z() * Chunks.SIZE_Z - 1;
+        int maxX = minX + Chunks.SIZE_X + 1;
+        int maxY = minY + Chunks.SIZE_Y + 1;
+        int maxZ = minZ + Chunks.SIZE_Z + 1;
+        TLongObjectIterator<Node> iterator = nodes.iterator();
+        while (iterator.hasNext()) {
+            iterator.advance();
+            long key = iterator.key();
+            int x = Util.unpackX(key);
+            int y = Util.unpackY(key);
+            int z = Util.unpackZ(key);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public void clear() {
+        nodes.clear();
+    }
+
+    private static final class Node {
+        private Prefab[] descriptors = new Prefab[1];
+        private SegmentMapping.MappingResult[] starts = new SegmentMapping.MappingResult[1];
+        private SegmentMapping.MappingResult[] ends = new SegmentMapping.MappingResult[1];
+        private int count;
+
+        int indexOf(Prefab descriptor) {
+            for (int i = 0; i < count; i++) {
+                if (descriptors[i] == descriptor) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int add(Prefab descriptor) {
+            if (count == descriptors.length) {
+                descriptors = Arrays.copyOf(descriptors, count * 2);
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            descriptors[count] = descriptor;
+            return count++;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Vector3ic;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.event.EventPriority;
+import org.terasology.engine.entitySystem.event.Priority;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.world.OnChangedBlock;
+import org.terasology.engine.world.WorldComponent;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.ChunkProvider;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
+import org.terasology.engine.world.chunks.event.OnChunkLoaded;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.minecarts.Util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@link RailGraph} shared by all {@link RailBlockSegmentMapper}s and the {@link RailPositionIndex} in line
+ * with the world, and holds the {@link SegmentSamples} shared by all {@link RailSegmentSampler}s.
+ * <p>
+ * Registered on clients as well as on the authority, since the client side wheel animation walks the track too.
+ * <p>
+ * Every chunk that loads is scanned for rails once, here; other systems that keep data about the rails of loaded
+ * chunks get it from that scan through a {@link RailScanListener} instead of scanning the chunk themselves.
+ */
+@RegisterSystem
+@Share(RailGraphSystem.class)
+public class RailGraphSystem extends BaseComponentSystem {
+    @In
+    private ChunkProvider chunkProvider;
+
+    private final RailGraph railGraph = new RailGraph();
+    private final RailPositionIndex railPositions = new RailPositionIndex();
+    private final Map<Prefab, SegmentSamples> segmentSamples = new HashMap<>();
+    private final List<RailScanListener> scanListeners = new ArrayList<>();
+
+    public RailGraph getRailGraph() {
+        return railGraph;
+    }
+
+    public RailPositionIndex getRailPositions() {
+        return railPositions;
+    }
+
+    /**
+     * Sampled geometry by path descriptor. It only depends on the descriptor, so it never has to be invalidated.
+     */
+    public Map<Prefab, SegmentSamples> getSegmentSamples() {
+        return segmentSamples;
+    }
+
+    public void addScanListener(RailScanListener listener) {
+        scanListeners.add(listener);
+    }
+
+    public void removeScanListener(RailScanListener listener) {
+        scanListeners.remove(listener);
+    }
+
+    @Override
+    public void shutdown() {
+        railGraph.clear();
+        railPositions.clear();
+        segmentSamples.clear();
+    }
+
+    /**
+     * Runs ahead of the other handlers of block changes, so the graph and the index are current when they look at them,
+     * e.g. {@link RailsBlockFamilyUpdateSystem} to find the rails next to the changed block.
+     */
+    @Priority(EventPriority.PRIORITY_HIGH)
+    @ReceiveEvent(components = {BlockComponent.class})
+    public void onBlockChanged(OnChangedBlock event, EntityRef blockEntity) {
+        Vector3ic position = event.getBlockPosition();
+        railGraph.invalidateAround(position);
+        if (isRail(event.getNewType())) {
+            railPositions.add(position.x(), position.y(), position.z());
+        } else {
+            railPositions.remove(position.x(), position.y(), position.z());
+        }
+    }
+
+    @ReceiveEvent(components = {WorldComponent.class})
+    public void onChunkLoaded(OnChunkLoaded event, EntityRef worldEntity) {
+        Chunk chunk = chunkProvider.getChunk(event.getChunkPos());
+        if (chunk == null) {
+            return;
+        }
+        int offsetX = event.getChunkPos().x() * Chunks.SIZE_X;
+        int offsetY = event.getChunkPos().y() * Chunks.SIZE_Y;
+        int offsetZ = event.getChunkPos().z() * Chunks.SIZE_Z;
+        for (int x = 0; x < Chunks.SIZE_X; x++) {
+            for (int y = 0; y < Chunks.SIZE_Y; y++) {
+                for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                    Block block = chunk.getBlock(x, y, z);
+                    if (isRail(block)) {
+                        railPositions.add(offsetX + x, offsetY + y, offsetZ + z);
+                        if (!scanListeners.isEmpty()) {
+                            long position = Util.packPosition(offsetX + x, offsetY + y, offsetZ + z);
+                            for (RailScanListener listener : scanListeners) {
+                                listener.onRailLoaded(position, block);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        for (RailScanListener listener : scanListeners) {
+            listener.onChunkScanned(event.getChunkPos());
+        }
+    }
+
+    @ReceiveEvent(components = {WorldComponent.class})
+    public void onChunkUnload(BeforeChunkUnload event, EntityRef worldEntity) {
+        railGraph.removeChunk(event.getChunkPos());
+        railPositions.removeChunk(event.getChunkPos());
+    }
+
+    /**
+     * Whether blocks of this type get a {@link RailComponent}, which is what carts attach to.
+     */
+    private static boolean isRail(Block block) {
+        Prefab prefab = block.getPrefab().orElse(null);
+        return prefab != null && prefab.hasComponent(RailComponent.class);
+    }
+
+    /**
+     * Gets the rails of every chunk that loads from the scan of this system.
+     */
+    public interface RailScanListener {
+        /**
+         * Called for every block with a {@link RailComponent} in a chunk that loaded.
+         *
+         * @param position the position of the block, packed by {@link Util#packPosition(int, int, int)}
+         */
+        void onRailLoaded(long position, Block block);
+
+        /**
+         * Called once all rails of the chunk were reported and added to the {@link RailPositionIndex}.
+         */
+        void onChunkScanned(Vector3ic chunkPos);
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.joml.Vector3fc;
+import org.joml.Vector3ic;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.minecarts.Util;
+
+/**
+ * Set of the positions of all loaded rail blocks.
+ * <p>
+ * Lets detached carts find out whether there is any track under them with a hash lookup, before paying for a
+ * physics ray-trace.
+ */
+public class RailPositionIndex {
+    private final TLongSet positions = new TLongHashSet();
+
+    public void add(int x, int y, int z) {
+        positions.add(Util.packPosition(x, y, z));
+    }
+
+    public void remove(int x, int y, int z) {
+        positions.remove(Util.packPosition(x, y, z));
+    }
+
+    public boolean contains(Vector3ic position) {
+        return positions.contains(Util.packPosition(position));
+    }
+
+    /**
+     * @param key a position packed with {@link Util#packPosition(int, int, int)}
+     */
+    public boolean contains(long key) {
+        return positions.contains(key);
+    }
+
+    /**
+     * Whether any rail block is hit by a vertical ray of the given length going down from a world position.
+     */
+    public boolean hasRailBelow(Vector3fc position, float distance) {
+        int x = Math.round(position.x());
+        int z = Math.round(position.z());
+        int top = Math.round(position.y());
+        int bottom = Math.round(position.y() - distance);
+        for (int y = top; y >= bottom; y--) {
+            if (positions.contains(Util.packPosition(x, y, z))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops every position inside the given chunk.
+     */
+    public void removeChunk(Vector3ic chunkPosition) {
+        TLongIterator iterator = positions.iterator();
+        while (iterator.hasNext()) {
+            long key = iterator.next();
+            if (Math.floorDiv(Util.unpackX(key), Chunks.SIZE_X) == chunkPosition.x()
+                    && Math.floorDiv(Util.unpackY(key), Chunks.SIZE_Y) == chunkPosition.y()
+                    && Math.floorDiv(Util.unpackZ(key), Chunks.SIZE_Z) == chunkPosition.z()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * @return the packed positions of all rail blocks
+     */
+    public long[] toArray() {
+        return positions.toArray();
+    }
+
+    public void clear() {
+        positions.clear();
+    }
+}
@@ -0,0 +1,68 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.minecarts.Constants;
+
+/**
+ * The acceleration a cart gets from gravity and loses to friction along one path descriptor of one rail block, as a
+ * function of the segment position.
+ * <p>
+ * Both only depend on the geometry of the segment, how the block turns it and the friction coefficient of the rail,
+ * so a profile is worked out once per block and descriptor and looked up from the {@link SegmentSamples} of the
+ * descriptor afterwards, instead of projecting the gravity vector onto the tangent and normal of the track per cart
+ * and step.
+ */
+public final class RailProfile {
+    private final Prefab descriptor;
+    private final SegmentSamples samples;
+    private final float upX;
+    private final float upY;
+    private final float upZ;
+    private final float frictionCoefficient;
+
+    private RailProfile(Prefab descriptor, SegmentSamples samples, Vector3f up, float frictionCoefficient) {
+        this.descriptor = descriptor;
+        this.samples = samples;
+        this.upX = up.x;
+        this.upY = up.y;
+        this.upZ = up.z;
+        this.frictionCoefficient = frictionCoefficient;
+    }
+
+    /**
+     * @param rotation the rotation of the segment in the world, see
+     *         {@link org.terasology.segmentedpaths.controllers.SegmentSystem#segmentRotation}
+     */
+    public static RailProfile of(Prefab descriptor, SegmentSamples samples, Quaternionfc rotation,
+                                 float frictionCoefficient) {
+        // the up axis in the local space of the segment, where the samples are
+        Vector3f up = rotation.transformInverse(new Vector3f(0, 1, 0)).normalize();
+        return new RailProfile(descriptor, samples, up, frictionCoefficient);
+    }
+
+    public Prefab getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * The acceleration by gravity along the tangent of the segment, in the direction of increasing segment position.
+     */
+    public float gravity(float segmentPosition) {
+        return -Constants.GRAVITY * samples.tangentAlong(segmentPosition, upX, upY, upZ);
+    }
+
+    /**
+     * The deceleration by friction, which is the friction coefficient of the rail scaled by how much of the weight of
+     * the cart the track carries. The coefficient is the speed lost per step of {@link Constants#CART_FIXED_TIMESTEP},
+     * which is what it was tuned against.
+     */
+    public float friction(float segmentPosition) {
+        return Math.abs(samples.normalAlong(segmentPosition, upX, upY, upZ)) * frictionCoefficient
+                / Constants.CART_FIXED_TIMESTEP;
+    }
+}
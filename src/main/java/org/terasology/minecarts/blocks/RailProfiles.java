@@ -0,0 +1,65 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.segmentedpaths.components.PathDescriptorComponent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link RailProfile}s of the loaded rail blocks, by block entity and path descriptor.
+ * <p>
+ * Profiles are meant to be worked out when a rail is placed or loaded, see {@link #precompute(EntityRef)}, and have
+ * to be invalidated whenever the block changes. A profile missing at lookup is worked out on the spot.
+ */
+public class RailProfiles {
+    private static final RailProfile[] NONE = new RailProfile[0];
+
+    private final RailSegmentSampler segmentSampler;
+    private final Map<EntityRef, RailProfile[]> profiles = new HashMap<>();
+
+    public RailProfiles(RailSegmentSampler segmentSampler) {
+        this.segmentSampler = segmentSampler;
+    }
+
+    public RailProfile get(EntityRef railBlock, Prefab descriptor) {
+        RailProfile[] blockProfiles = profiles.getOrDefault(railBlock, NONE);
+        for (RailProfile profile : blockProfiles) {
+            if (profile.getDescriptor() == descriptor) {
+                return profile;
+            }
+        }
+        RailProfile profile = segmentSampler.profile(railBlock, descriptor);
+        blockProfiles = Arrays.copyOf(blockProfiles, blockProfiles.length + 1);
+        blockProfiles[blockProfiles.length - 1] = profile;
+        profiles.put(railBlock, blockProfiles);
+        return profile;
+    }
+
+    /**
+     * Works out the profiles of all path descriptors of a rail block.
+     */
+    public void precompute(EntityRef railBlock) {
+        PathDescriptorComponent pathDescriptor = railBlock.getComponent(PathDescriptorComponent.class);
+        if (pathDescriptor == null || pathDescriptor.descriptors == null) {
+            return;
+        }
+        profiles.remove(railBlock);
+        for (Prefab descriptor : pathDescriptor.descriptors) {
+            get(railBlock, descriptor);
+        }
+    }
+
+    public void invalidate(EntityRef railBlock) {
+        profiles.remove(railBlock);
+    }
+
+    public void clear() {
+        profiles.clear();
+    }
+}
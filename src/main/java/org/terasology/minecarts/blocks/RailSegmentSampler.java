@@ -0,0 +1,157 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.minecarts.Constants;
+import org.terasology.segmentedpaths.SegmentMeta;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+import org.terasology.segmentedpaths.controllers.PathFollowerSystem;
+import org.terasology.segmentedpaths.controllers.SegmentCacheSystem;
+import org.terasology.segmentedpaths.controllers.SegmentMapping;
+import org.terasology.segmentedpaths.controllers.SegmentSystem;
+
+import java.util.Map;
+
+/**
+ * Answers the geometry queries {@link PathFollowerSystem} offers for a vehicle from {@link SegmentSamples} tables.
+ * <p>
+ * As long as a point lies on the segment the vehicle is on, it is a table lookup. Only offsets reaching into another
+ * segment fall back to walking the track with the path follower system. Lookups do not allocate: the frame of the
+ * rail block is read into scratch objects instead of being fetched from {@link SegmentSystem}, which returns new ones.
+ */
+public class RailSegmentSampler {
+    private final PathFollowerSystem pathFollowerSystem;
+    private final SegmentSystem segmentSystem;
+    private final SegmentCacheSystem segmentCacheSystem;
+    private final SegmentMapping segmentMapping;
+    private final Map<Prefab, SegmentSamples> samples;
+
+    private final Vector3f localTangent = new Vector3f();
+    private final Vector3f localHeading = new Vector3f();
+    private final Quaternionf frameRotation = new Quaternionf();
+    private final Vector3f framePosition = new Vector3f();
+
+    /**
+     * @param samples tables by path descriptor, filled on demand and shared by all samplers, see
+     *         {@link RailGraphSystem#getSegmentSamples()}
+     */
+    public RailSegmentSampler(PathFollowerSystem pathFollowerSystem, SegmentSystem segmentSystem,
+                              SegmentCacheSystem segmentCacheSystem, SegmentMapping segmentMapping,
+                              Map<Prefab, SegmentSamples> samples) {
+        this.pathFollowerSystem = pathFollowerSystem;
+        this.segmentSystem = segmentSystem;
+        this.segmentCacheSystem = segmentCacheSystem;
+        this.segmentMapping = segmentMapping;
+        this.samples = samples;
+    }
+
+    /**
+     * The point at the given distance along the heading of the vehicle, like
+     * {@link PathFollowerSystem#vehiclePoint(EntityRef, float, SegmentMapping)}.
+     *
+     * @return dest, or null if there is no track at that distance
+     */
+    public Vector3f point(EntityRef vehicle, float offset, Vector3f dest) {
+        PathFollowerComponent pathFollower = vehicle.getComponent(PathFollowerComponent.class);
+        if (pathFollower == null) {
+            return null;
+        }
+        SegmentMeta segmentMeta = pathFollower.segmentMeta;
+        SegmentSamples table = getSamples(segmentMeta.prefab);
+        readFrame(segmentMeta.association);
+        float segmentPosition = offsetPosition(table, segmentMeta, pathFollower.heading, offset);
+        if (!table.contains(segmentPosition)) {
+            Vector3f walked = pathFollowerSystem.vehiclePoint(vehicle, offset, segmentMapping);
+            return walked == null ? null : dest.set(walked);
+        }
+        return frameRotation.transform(table.point(segmentPosition, dest)).add(framePosition);
+    }
+
+    /**
+     * The normalized tangent of the track at the given distance along the heading of the vehicle, like
+     * {@link PathFollowerSystem#vehicleTangent(EntityRef, float, SegmentMapping)}.
+     *
+     * @return dest, or null if there is no track at that distance
+     */
+    public Vector3f tangent(EntityRef vehicle, float offset, Vector3f dest) {
+        PathFollowerComponent pathFollower = vehicle.getComponent(PathFollowerComponent.class);
+        if (pathFollower == null) {
+            return null;
+        }
+        SegmentMeta segmentMeta = pathFollower.segmentMeta;
+        SegmentSamples table = getSamples(segmentMeta.prefab);
+        readFrame(segmentMeta.association);
+        float segmentPosition = offsetPosition(table, segmentMeta, pathFollower.heading, offset);
+        if (!table.contains(segmentPosition)) {
+            Vector3f walked = pathFollowerSystem.vehicleTangent(vehicle, offset, segmentMapping);
+            return walked == null ? null : dest.set(walked).normalize();
+        }
+        return frameRotation.transform(table.tangent(segmentPosition, dest));
+    }
+
+    /**
+     * The normalized normal of the track under the vehicle, like {@link PathFollowerSystem#vehicleNormal(EntityRef)}.
+     *
+     * @return dest, or null if the vehicle is not on a track
+     */
+    public Vector3f normal(EntityRef vehicle, Vector3f dest) {
+        PathFollowerComponent pathFollower = vehicle.getComponent(PathFollowerComponent.class);
+        if (pathFollower == null) {
+            return null;
+        }
+        SegmentMeta segmentMeta = pathFollower.segmentMeta;
+        readFrame(segmentMeta.association);
+        return frameRotation.transform(getSamples(segmentMeta.prefab).normal(segmentMeta.position, dest));
+    }
+
+    /**
+     * Works out the {@link RailProfile} of one of the path descriptors of a rail block.
+     */
+    public RailProfile profile(EntityRef railBlock, Prefab descriptor) {
+        RailComponent rail = railBlock.getComponent(RailComponent.class);
+        return RailProfile.of(descriptor, getSamples(descriptor), segmentSystem.segmentRotation(railBlock),
+                rail == null ? 0 : rail.frictionCoefficient);
+    }
+
+    private SegmentSamples getSamples(Prefab descriptor) {
+        SegmentSamples table = samples.get(descriptor);
+        if (table == null) {
+            table = SegmentSamples.sample(segmentCacheSystem.getSegment(descriptor), Constants.SEGMENT_SAMPLE_STEP);
+            samples.put(descriptor, table);
+        }
+        return table;
+    }
+
+    /**
+     * Reads the rotation and position of the segment of a rail block into {@link #frameRotation} and
+     * {@link #framePosition}, the same as {@link SegmentSystem#segmentRotation(EntityRef)} and
+     * {@link SegmentSystem#segmentPosition(EntityRef)} return.
+     */
+    private void readFrame(EntityRef association) {
+        BlockComponent block = association.getComponent(BlockComponent.class);
+        if (block != null) {
+            frameRotation.set(block.getBlock().getRotation().orientation());
+            framePosition.set(block.getPosition());
+        } else {
+            frameRotation.set(segmentSystem.segmentRotation(association));
+            framePosition.set(segmentSystem.segmentPosition(association));
+        }
+    }
+
+    private float offsetPosition(SegmentSamples table, SegmentMeta segmentMeta, Vector3fc heading, float offset) {
+        if (offset == 0) {
+            return segmentMeta.position;
+        }
+        // the offset runs along the heading of the vehicle, which may point against the segment
+        frameRotation.transformInverse(localHeading.set(heading));
+        float sign = table.tangent(segmentMeta.position, localTangent).dot(localHeading) < 0 ? -1 : 1;
+        return segmentMeta.position + sign * offset;
+    }
+}
@@ -3,7 +3,11 @@
 
 package org.terasology.minecarts.blocks;
 
-import com.google.common.collect.Sets;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
@@ -21,8 +25,8 @@ import org.terasology.engine.logic.health.DoDestroyEvent;
 import org.terasology.engine.logic.health.EngineDamageTypes;
 import org.terasology.engine.logic.inventory.ItemComponent;
 import org.terasology.engine.math.Side;
-import org.terasology.engine.math.SideBitFlag;
 import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
 import org.terasology.engine.world.BlockEntityRegistry;
 import org.terasology.engine.world.OnChangedBlock;
 import org.terasology.engine.world.WorldProvider;
@@ -35,11 +39,19 @@ import org.terasology.engine.world.block.family.BlockPlacementData;
 import org.terasology.engine.world.block.items.BlockItemComponent;
 import org.terasology.engine.world.block.items.OnBlockItemPlaced;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.minecarts.Constants;
+import org.terasology.minecarts.Util;
+import org.terasology.minecarts.metrics.RailsMetrics;
+import org.terasology.minecarts.metrics.RailsMetricsSystem;
 import org.terasology.module.health.events.DoDamageEvent;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongPredicate;
 
 @RegisterSystem(RegisterMode.AUTHORITY)
+@Share(RailsBlockFamilyUpdateSystem.class)
 public class RailsBlockFamilyUpdateSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
     private static final Logger logger = LoggerFactory.getLogger(RailsBlockFamilyUpdateSystem.class);
 
@@ -49,9 +61,19 @@ public class RailsBlockFamilyUpdateSystem extends BaseComponentSystem implements
     private BlockEntityRegistry blockEntityRegistry;
     @In
     private BlockManager blockManager;
+    @In
+    private RailsMetricsSystem railsMetricsSystem;
+    @In
+    private RailGraphSystem railGraphSystem;
 
     private int largeBlockUpdateCount;
-    private Set<Vector3i> blocksUpdatedInLargeBlockUpdate = Sets.newHashSet();
+    private int updateDepth;
+    private TLongSet placingTrack;
+    // positions changed during large block updates, waiting for their neighbours to be reconnected
+    private final TLongList worklist = new TLongArrayList();
+    private final TLongSet queued = new TLongHashSet();
+    private int worklistHead;
+    private final Vector3i workPosition = new Vector3i();
     private int[] checkOnHeight = {-1, 0, 1};
 
     @ReceiveEvent
@@ -68,7 +90,7 @@ public class RailsBlockFamilyUpdateSystem extends BaseComponentSystem implements
         }
 
         if (largeBlockUpdateCount == 0) {
-            notifyNeighboursOfChangedBlocks();
+            notifyNeighboursOfChangedBlocks(Constants.RAIL_UPDATE_BUDGET);
         }
     }
 
@@ -114,55 +136,212 @@ public class RailsBlockFamilyUpdateSystem extends BaseComponentSystem implements
 
     }
 
-    private void notifyNeighboursOfChangedBlocks() {
-        // Invoke the updates in another large block change for this class only
+    /**
+     * Works through the queued positions, at most {@code budget} of them; the rest is carried over to the next tick.
+     */
+    private void notifyNeighboursOfChangedBlocks(int budget) {
+        // Invoke the updates in another large block change for this class only, so changes they cause are queued too
         largeBlockUpdateCount++;
-        while (!blocksUpdatedInLargeBlockUpdate.isEmpty()) {
-            Set<Vector3i> blocksToUpdate = blocksUpdatedInLargeBlockUpdate;
+        try {
+            for (int processed = 0; processed < budget && worklistHead < worklist.size(); processed++) {
+                long key = worklist.get(worklistHead++);
+                queued.remove(key);
+                processUpdateForBlockLocation(Util.unpackPosition(key, workPosition));
+            }
+            worklist.remove(0, worklistHead);
+            worklistHead = 0;
+        } finally {
+            largeBlockUpdateCount--;
+        }
+    }
 
-            // Setup new collection for blocks changed in this pass
-            blocksUpdatedInLargeBlockUpdate = Sets.newHashSet();
+    /**
+     * Queues a changed position, unless it is already queued or there is no rail next to it that could reconnect.
+     */
+    private void queueUpdate(Vector3ic blockLocation) {
+        if (isNextToRail(blockLocation) && queued.add(Util.packPosition(blockLocation))) {
+            worklist.add(Util.packPosition(blockLocation));
+        }
+    }
 
-            for (Vector3i blockLocation : blocksToUpdate) {
-                processUpdateForBlockLocation(blockLocation);
+    private boolean isNextToRail(Vector3ic blockLocation) {
+        RailPositionIndex railPositions = railGraphSystem.getRailPositions();
+        for (int height : checkOnHeight) {
+            for (Side side : Side.horizontalSides()) {
+                if (railPositions.contains(Util.packPosition(blockLocation.x() + side.direction().x(),
+                        blockLocation.y() + height, blockLocation.z() + side.direction().z()))) {
+                    return true;
+                }
             }
         }
-        largeBlockUpdateCount--;
+        return false;
     }
 
+    /**
+     * Reconnects the rails next to a changed block. The rail index was already updated for the change, since
+     * {@link RailGraphSystem#onBlockChanged} runs at a higher priority.
+     */
     @ReceiveEvent(components = {BlockComponent.class})
     public void blockUpdate(OnChangedBlock event, EntityRef blockEntity) {
+        if (placingTrack != null && placingTrack.contains(Util.packPosition(event.getBlockPosition()))) {
+            // connected up front by placeTrack
+            return;
+        }
         if (largeBlockUpdateCount > 0) {
-            blocksUpdatedInLargeBlockUpdate.add(event.getBlockPosition());
-        } else {
-            Vector3i blockLocation = event.getBlockPosition();
-            processUpdateForBlockLocation(blockLocation);
+            queueUpdate(event.getBlockPosition());
+        } else if (isNextToRail(event.getBlockPosition())) {
+            processUpdateForBlockLocation(event.getBlockPosition());
         }
     }
 
     private void processUpdateForBlockLocation(Vector3ic blockLocation) {
+        // setting a neighbour re-enters through blockUpdate, so only the outermost update is timed
+        RailsMetrics metrics = railsMetricsSystem.getMetrics();
+        long start = updateDepth++ == 0 ? metrics.start() : 0;
+        try {
+            updateNeighbours(blockLocation);
+        } finally {
+            if (--updateDepth == 0) {
+                metrics.stop(RailsMetrics.Timer.RAIL_UPDATES, start);
+            }
+        }
+    }
+
+    private void updateNeighbours(Vector3ic blockLocation) {
         for (int height : checkOnHeight) {
             for (Side side : Side.horizontalSides()) {
                 Vector3i neighborLocation = new Vector3i(blockLocation);
                 neighborLocation.add(side.direction());
                 neighborLocation.y += height;
-                Block neighborBlock = worldProvider.getBlock(neighborLocation);
-                EntityRef blockEntity = blockEntityRegistry.getBlockEntityAt(neighborLocation);
-                if (blockEntity.hasComponent(RailComponent.class)) {
-                    RailBlockFamily railsFamily = (RailBlockFamily) neighborBlock.getBlockFamily();
-                    Block neighborBlockAfterUpdate =
-                            railsFamily.getBlockForPlacement(new BlockPlacementData(neighborLocation, Side.FRONT,
-                                    new Vector3f()));
-                    if (neighborBlock != neighborBlockAfterUpdate && neighborBlockAfterUpdate != null) {
-                        byte connections = Byte.parseByte(neighborBlock.getURI().getIdentifier().toString());
-                        //only add segment with two connections
-                        if (SideBitFlag.getSides(connections).size() <= 1) {
-                            worldProvider.setBlock(neighborLocation, neighborBlockAfterUpdate);
-                        }
+                reconnect(neighborLocation);
+            }
+        }
+    }
+
+    /**
+     * Lets the rail at the given location, if there is one, pick up new neighbours.
+     */
+    private void reconnect(Vector3ic location) {
+        Block block = worldProvider.getBlock(location);
+        EntityRef blockEntity = blockEntityRegistry.getBlockEntityAt(location);
+        if (blockEntity.hasComponent(RailComponent.class)) {
+            RailBlockFamily railsFamily = (RailBlockFamily) block.getBlockFamily();
+            Block blockAfterUpdate =
+                    railsFamily.getBlockForPlacement(new BlockPlacementData(location, Side.FRONT, new Vector3f()));
+            if (block != blockAfterUpdate && blockAfterUpdate != null) {
+                byte connections = RailBlockFamily.getConnections(block);
+                //only add segment with two connections
+                if (Integer.bitCount(connections & 0xFF) <= 1) {
+                    worldProvider.setBlock(location, blockAfterUpdate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Places rails at all of the given positions at once.
+     * <p>
+     * The connections of the new rails are worked out in memory from which of the positions, and of the rails already
+     * in the world, are next to each other, following the rules of placing them one at a time, and all blocks are set
+     * within a single large block update. Only rails already in the world next to the new track are reconnected
+     * afterwards, so laying long track does not cascade through {@link #blockUpdate} for every block.
+     */
+    public void placeTrack(Collection<? extends Vector3ic> positions, RailBlockFamily family) {
+        TLongSet track = new TLongHashSet(positions.size());
+        for (Vector3ic position : positions) {
+            track.add(Util.packPosition(position));
+        }
+        RailPositionIndex railPositions = railGraphSystem.getRailPositions();
+        LongPredicate isRail = key -> track.contains(key) || railPositions.contains(key);
+        LongPredicate inWorld = key -> !track.contains(key);
+
+        List<Vector3ic> targets = new ArrayList<>(positions);
+        List<Block> blocks = new ArrayList<>(targets.size());
+        for (Vector3ic position : targets) {
+            blocks.add(family.getBlockForNeighbours(position, isRail, inWorld));
+        }
+        commitTrack(targets, blocks, track);
+    }
+
+    /**
+     * Places a line of rails through the given points, like {@link #placeTrack} but connecting every rail only to
+     * the rails before and after it on the line.
+     * <p>
+     * Consecutive points have to be on the same level and differ along a single horizontal axis; both end points
+     * connect to rails already in the world as well.
+     *
+     * @throws IllegalArgumentException if two consecutive points are not on a straight level line
+     */
+    public void placeTrackAlong(List<? extends Vector3ic> polyline, RailBlockFamily family) {
+        List<Vector3ic> targets = new ArrayList<>();
+        for (int i = 0; i < polyline.size(); i++) {
+            Vector3ic point = polyline.get(i);
+            if (i == 0) {
+                targets.add(new Vector3i(point));
+                continue;
+            }
+            Vector3ic previous = polyline.get(i - 1);
+            if (previous.y() != point.y() || (previous.x() != point.x() && previous.z() != point.z())) {
+                throw new IllegalArgumentException("Track from " + previous + " to " + point + " is not a straight level line");
+            }
+            int steps = Math.abs(point.x() - previous.x()) + Math.abs(point.z() - previous.z());
+            int stepX = Integer.signum(point.x() - previous.x());
+            int stepZ = Integer.signum(point.z() - previous.z());
+            for (int step = 1; step <= steps; step++) {
+                targets.add(new Vector3i(previous.x() + stepX * step, point.y(), previous.z() + stepZ * step));
+            }
+        }
+
+        TLongSet track = new TLongHashSet(targets.size());
+        for (Vector3ic position : targets) {
+            track.add(Util.packPosition(position));
+        }
+        RailPositionIndex railPositions = railGraphSystem.getRailPositions();
+        LongPredicate inWorld = key -> !track.contains(key);
+        List<Block> blocks = new ArrayList<>(targets.size());
+        int last = targets.size() - 1;
+        for (int i = 0; i <= last; i++) {
+            long previous = i > 0 ? Util.packPosition(targets.get(i - 1)) : Long.MIN_VALUE;
+            long next = i < last ? Util.packPosition(targets.get(i + 1)) : Long.MIN_VALUE;
+            boolean end = i == 0 || i == last;
+            blocks.add(family.getBlockForNeighbours(targets.get(i),
+                    key -> key == previous || key == next || end && !track.contains(key) && railPositions.contains(key),
+                    inWorld));
+        }
+        commitTrack(targets, blocks, track);
+    }
+
+    private void commitTrack(List<Vector3ic> positions, List<Block> blocks, TLongSet track) {
+        EntityRef worldEntity = worldProvider.getWorldEntity();
+        placingTrack = track;
+        worldEntity.send(new LargeBlockUpdateStarting());
+        try {
+            for (int i = 0; i < positions.size(); i++) {
+                worldProvider.setBlock(positions.get(i), blocks.get(i));
+            }
+        } finally {
+            worldEntity.send(new LargeBlockUpdateFinished());
+            placingTrack = null;
+        }
+
+        // existing rails next to the new track may have to turn towards it
+        RailPositionIndex railPositions = railGraphSystem.getRailPositions();
+        TLongSet boundary = new TLongHashSet();
+        for (Vector3ic position : positions) {
+            for (int height : checkOnHeight) {
+                for (Side side : Side.horizontalSides()) {
+                    long neighbour = Util.packPosition(position.x() + side.direction().x(), position.y() + height,
+                            position.z() + side.direction().z());
+                    if (!track.contains(neighbour) && railPositions.contains(neighbour)) {
+                        boundary.add(neighbour);
                     }
                 }
             }
         }
+        Vector3i location = new Vector3i();
+        for (TLongIterator iterator = boundary.iterator(); iterator.hasNext(); ) {
+            reconnect(Util.unpackPosition(iterator.next(), location));
+        }
     }
 
     @Override
@@ -171,5 +350,9 @@ public class RailsBlockFamilyUpdateSystem extends BaseComponentSystem implements
             logger.error("Unmatched LargeBlockUpdateStarted - LargeBlockUpdateFinished not invoked enough times");
         }
         largeBlockUpdateCount = 0;
+
+        if (worklistHead < worklist.size()) {
+            notifyNeighboursOfChangedBlocks(Constants.RAIL_UPDATE_BUDGET);
+        }
     }
 }
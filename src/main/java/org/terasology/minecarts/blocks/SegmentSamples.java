@@ -0,0 +1,119 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.terasology.segmentedpaths.segments.Segment;
+
+/**
+ * Points, tangents and normals of a {@link Segment} sampled at fixed steps of its segment position, in the local space
+ * of the segment.
+ * <p>
+ * Looking up a position interpolates linearly between the two closest samples, which replaces evaluating the curve of
+ * the segment. Tangents and normals are stored normalized.
+ */
+public final class SegmentSamples {
+    private final float step;
+    private final float length;
+    private final int count;
+    private final float[] points;
+    private final float[] tangents;
+    private final float[] normals;
+
+    private SegmentSamples(float step, float length, int count) {
+        this.step = step;
+        this.length = length;
+        this.count = count;
+        this.points = new float[count * 3];
+        this.tangents = new float[count * 3];
+        this.normals = new float[count * 3];
+    }
+
+    /**
+     * @param maxStep the largest distance between two samples; the actual step divides the segment evenly
+     */
+    public static SegmentSamples sample(Segment segment, float maxStep) {
+        float length = segment.maxDistance();
+        int count = Math.max(2, (int) Math.ceil(length / maxStep) + 1);
+        float step = length > 0 ? length / (count - 1) : 1;
+        SegmentSamples samples = new SegmentSamples(step, length, count);
+        Vector3f origin = new Vector3f();
+        Quaternionf identity = new Quaternionf();
+        for (int sample = 0; sample < count; sample++) {
+            float segmentPosition = Math.min(sample * step, length);
+            int index = segment.index(segmentPosition);
+            float t = segment.t(index, segmentPosition);
+            store(samples.points, sample, segment.point(index, t, origin, identity));
+            store(samples.tangents, sample, segment.tangent(index, t, identity).normalize());
+            store(samples.normals, sample, segment.normal(index, t, identity).normalize());
+        }
+        return samples;
+    }
+
+    private static void store(float[] values, int sample, Vector3f value) {
+        values[sample * 3] = value.x;
+        values[sample * 3 + 1] = value.y;
+        values[sample * 3 + 2] = value.z;
+    }
+
+    public float getLength() {
+        return length;
+    }
+
+    public boolean contains(float segmentPosition) {
+        return segmentPosition >= 0 && segmentPosition <= length;
+    }
+
+    public Vector3f point(float segmentPosition, Vector3f dest) {
+        return interpolate(points, segmentPosition, dest);
+    }
+
+    public Vector3f tangent(float segmentPosition, Vector3f dest) {
+        return interpolate(tangents, segmentPosition, dest).normalize();
+    }
+
+    public Vector3f normal(float segmentPosition, Vector3f dest) {
+        return interpolate(normals, segmentPosition, dest).normalize();
+    }
+
+    /**
+     * The component of the normalized tangent along the given unit direction, e.g. the sine of the gradient for the up
+     * axis.
+     */
+    public float tangentAlong(float segmentPosition, float x, float y, float z) {
+        return along(tangents, segmentPosition, x, y, z);
+    }
+
+    /**
+     * The component of the normalized normal along the given unit direction.
+     */
+    public float normalAlong(float segmentPosition, float x, float y, float z) {
+        return along(normals, segmentPosition, x, y, z);
+    }
+
+    private float along(float[] values, float segmentPosition, float x, float y, float z) {
+        float scaled = Math.max(0, Math.min(segmentPosition, length)) / step;
+        int sample = Math.min((int) scaled, count - 2);
+        float weight = Math.min(1, scaled - sample);
+        int a = sample * 3;
+        int b = a + 3;
+        float vx = values[a] + (values[b] - values[a]) * weight;
+        float vy = values[a + 1] + (values[b + 1] - values[a + 1]) * weight;
+        float vz = values[a + 2] + (values[b + 2] - values[a + 2]) * weight;
+        return (vx * x + vy * y + vz * z) / (float) Math.sqrt(vx * vx + vy * vy + vz * vz);
+    }
+
+    private Vector3f interpolate(float[] values, float segmentPosition, Vector3f dest) {
+        float scaled = Math.max(0, Math.min(segmentPosition, length)) / step;
+        int sample = Math.min((int) scaled, count - 2);
+        float weight = Math.min(1, scaled - sample);
+        int a = sample * 3;
+        int b = a + 3;
+        return dest.set(
+                values[a] + (values[b] - values[a]) * weight,
+                values[a + 1] + (values[b + 1] - values[a + 1]) * weight,
+                values[a + 2] + (values[b + 2] - values[a + 2]) * weight);
+    }
+}
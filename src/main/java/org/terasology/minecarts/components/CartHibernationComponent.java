@@ -0,0 +1,35 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.components;
+
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * Marks an attached cart that is far from every player and no longer simulated, and records where on the track it is.
+ * <p>
+ * The rail block is kept as a position rather than an entity, so the cart can be put back onto its segment after its
+ * chunk was unloaded and loaded again. The joints of the cart stay in its {@link CartJointComponent}.
+ */
+public class CartHibernationComponent implements Component<CartHibernationComponent> {
+    public Vector3i railBlock = new Vector3i();
+    public Prefab descriptor;
+    public float segmentPosition;
+    public Vector3f heading = new Vector3f();
+    /**
+     * Speed along {@link #heading}, negative when the cart moves backwards.
+     */
+    public float speed;
+
+    @Override
+    public void copyFrom(CartHibernationComponent other) {
+        this.railBlock = new Vector3i(other.railBlock);
+        this.descriptor = other.descriptor;
+        this.segmentPosition = other.segmentPosition;
+        this.heading = new Vector3f(other.heading);
+        this.speed = other.speed;
+    }
+}
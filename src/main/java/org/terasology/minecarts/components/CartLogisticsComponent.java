@@ -0,0 +1,16 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.components;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * Marks a hibernating cart that left the loaded world and is moved by the coarse logistics simulation. Its place on the
+ * track is kept up to date in its {@link CartHibernationComponent}.
+ */
+public class CartLogisticsComponent implements Component<CartLogisticsComponent> {
+    @Override
+    public void copyFrom(CartLogisticsComponent other) {
+    }
+}
@@ -0,0 +1,50 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.components;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.network.Replicate;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * Authoritative snapshot of where an attached cart is on its track, sent to clients at a reduced rate so they can
+ * predict the cart in between, see {@code CartPredictionSystem}.
+ * <p>
+ * Only fields that changed since the last snapshot are replicated, so while a cart stays on one rail block a snapshot
+ * carries just its position and speed, fixed-point encoded with {@code CartTrackEncoding}.
+ */
+public class CartTrackStateComponent implements Component<CartTrackStateComponent> {
+    /**
+     * The rail block the cart is on.
+     */
+    @Replicate
+    public EntityRef association = EntityRef.NULL;
+    /**
+     * The path descriptor of the rail block the cart follows.
+     */
+    @Replicate
+    public Prefab descriptor;
+    @Replicate
+    public int segmentPosition;
+    /**
+     * Whether the cart heads against the tangent of its segment.
+     */
+    @Replicate
+    public boolean reversed;
+    /**
+     * Speed along the heading of the cart, negative when it moves backwards.
+     */
+    @Replicate
+    public int speed;
+
+    @Override
+    public void copyFrom(CartTrackStateComponent other) {
+        this.association = other.association;
+        this.descriptor = other.descriptor;
+        this.segmentPosition = other.segmentPosition;
+        this.reversed = other.reversed;
+        this.speed = other.speed;
+    }
+}
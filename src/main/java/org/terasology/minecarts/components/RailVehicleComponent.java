@@ -5,11 +5,13 @@ package org.terasology.minecarts.components;
 
 import org.joml.Vector3f;
 import org.terasology.engine.network.Replicate;
+import org.terasology.engine.network.ReplicationCheck;
 import org.terasology.engine.network.ServerEvent;
 import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.reflection.metadata.FieldMetadata;
 
 @ServerEvent(lagCompensate = true)
-public class RailVehicleComponent implements Component<RailVehicleComponent> {
+public class RailVehicleComponent implements Component<RailVehicleComponent>, ReplicationCheck {
     @Replicate
     public Vector3f velocity = new Vector3f();
     @Replicate
@@ -18,6 +20,16 @@ public class RailVehicleComponent implements Component<RailVehicleComponent> {
     public float frontAxisOffset = 0.0f;
     @Replicate
     public float lastDetach = 0;
+    /**
+     * Whether changes are sent to clients after the component was first replicated. Turned off while clients predict
+     * the cart from its {@link CartTrackStateComponent} snapshots, like {@code LocationComponent.replicateChanges}.
+     */
+    public boolean replicateChanges = true;
+
+    @Override
+    public boolean shouldReplicate(FieldMetadata<?, ?> field, boolean initial, boolean toOwner) {
+        return initial || replicateChanges;
+    }
 
     @Override
     public void copyFrom(RailVehicleComponent other) {
@@ -25,5 +37,6 @@ public class RailVehicleComponent implements Component<RailVehicleComponent> {
         this.backAxisOffset = other.backAxisOffset;
         this.frontAxisOffset = other.frontAxisOffset;
         this.lastDetach = other.lastDetach;
+        this.replicateChanges = other.replicateChanges;
     }
 }
@@ -0,0 +1,71 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides how often a detached cart looks for track under it.
+ * <p>
+ * A moving cart is checked every tick. A cart that stays where it is, e.g. one left lying in a field, is checked
+ * less and less often, doubling the interval up to {@code maxInterval} until it is moved again.
+ */
+public class CartAttachPoller {
+    private final Map<EntityRef, PollState> states = new HashMap<>();
+    private final float minInterval;
+    private final float maxInterval;
+    private final float restDistanceSquared;
+
+    public CartAttachPoller(float minInterval, float maxInterval, float restDistance) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.restDistanceSquared = restDistance * restDistance;
+    }
+
+    /**
+     * @param time the current game time in seconds
+     * @param position the current world position of the cart
+     * @return whether the cart should look for track this tick
+     */
+    public boolean shouldPoll(EntityRef cart, float time, Vector3fc position) {
+        PollState state = states.get(cart);
+        if (state == null) {
+            state = new PollState();
+            state.position.set(position);
+            states.put(cart, state);
+            return true;
+        }
+        if (state.position.distanceSquared(position) > restDistanceSquared) {
+            state.position.set(position);
+            state.interval = 0;
+            state.nextPoll = 0;
+            return true;
+        }
+        if (time < state.nextPoll) {
+            return false;
+        }
+        state.interval = state.interval == 0 ? minInterval : Math.min(state.interval * 2, maxInterval);
+        state.nextPoll = time + state.interval;
+        return true;
+    }
+
+    public void forget(EntityRef cart) {
+        states.remove(cart);
+    }
+
+    public void clear() {
+        states.clear();
+    }
+
+    private static final class PollState {
+        private final Vector3f position = new Vector3f();
+        private float interval;
+        private float nextPoll;
+    }
+}
@@ -0,0 +1,124 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.joml.Vector3f;
+import org.terasology.minecarts.Util;
+
+import java.util.Arrays;
+
+/**
+ * Finds touching pairs of attached carts without going through the physics engine.
+ * <p>
+ * Carts are bucketed into a uniform grid with cells as wide as the contact length, so only neighbouring cells have to
+ * be searched. Candidate pairs are tested along the heading of the first cart: they touch if they are closer than
+ * {@code contactLength} along the track and no further than {@code contactWidth} apart across it, which is what two
+ * carts on the same track look like. Carts whose headings are not aligned, e.g. crossing each other at a junction, are
+ * left to the physics engine.
+ */
+public class CartBroadphase {
+    private final TLongIntMap cellHeads = new TLongIntHashMap(64, 0.5f, Long.MIN_VALUE, -1);
+    private int[] cellNext = new int[0];
+
+    private int contactCount;
+    private int[] contactSlot = new int[16];
+    private int[] contactOther = new int[16];
+    private float[] contactNormalX = new float[16];
+    private float[] contactNormalY = new float[16];
+    private float[] contactNormalZ = new float[16];
+    private float[] contactPenetration = new float[16];
+
+    private final Vector3f position = new Vector3f();
+    private final Vector3f otherPosition = new Vector3f();
+    private final Vector3f heading = new Vector3f();
+
+    /**
+     * Collects all touching pairs in which at least one cart is awake.
+     *
+     * @return the number of contacts found
+     */
+    public int findContacts(CartStateStore store, float contactLength, float contactWidth, float minAlignment) {
+        int size = store.size();
+        if (cellNext.length < size) {
+            cellNext = new int[Math.max(size, cellNext.length * 2)];
+        }
+        cellHeads.clear();
+        contactCount = 0;
+
+        for (int slot = 0; slot < size; slot++) {
+            store.getPosition(slot, position);
+            int cx = (int) Math.floor(position.x / contactLength);
+            int cy = (int) Math.floor(position.y / contactLength);
+            int cz = (int) Math.floor(position.z / contactLength);
+            for (int x = cx - 1; x <= cx + 1; x++) {
+                for (int y = cy - 1; y <= cy + 1; y++) {
+                    for (int z = cz - 1; z <= cz + 1; z++) {
+                        for (int other = cellHeads.get(Util.packPosition(x, y, z)); other != -1; other = cellNext[other]) {
+                            if (!store.isSleeping(slot) || !store.isSleeping(other)) {
+                                testPair(store, slot, other, contactLength, contactWidth, minAlignment);
+                            }
+                        }
+                    }
+                }
+            }
+            long cell = Util.packPosition(cx, cy, cz);
+            cellNext[slot] = cellHeads.get(cell);
+            cellHeads.put(cell, slot);
+        }
+        return contactCount;
+    }
+
+    private void testPair(CartStateStore store, int slot, int other, float contactLength, float contactWidth,
+                          float minAlignment) {
+        if (!store.areAligned(slot, other, minAlignment)) {
+            return;
+        }
+        store.getHeading(slot, heading);
+        heading.normalize();
+        store.getPosition(other, otherPosition).sub(store.getPosition(slot, position));
+
+        float separation = otherPosition.dot(heading);
+        float lateralSquared = otherPosition.lengthSquared() - separation * separation;
+        if (Math.abs(separation) >= contactLength || lateralSquared > contactWidth * contactWidth) {
+            return;
+        }
+
+        if (contactCount == contactSlot.length) {
+            int capacity = contactCount * 2;
+            contactSlot = Arrays.copyOf(contactSlot, capacity);
+            contactOther = Arrays.copyOf(contactOther, capacity);
+            contactNormalX = Arrays.copyOf(contactNormalX, capacity);
+            contactNormalY = Arrays.copyOf(contactNormalY, capacity);
+            contactNormalZ = Arrays.copyOf(contactNormalZ, capacity);
+            contactPenetration = Arrays.copyOf(contactPenetration, capacity);
+        }
+        // the normal points from the first cart towards the second one along the track
+        float sign = separation < 0 ? -1 : 1;
+        contactSlot[contactCount] = slot;
+        contactOther[contactCount] = other;
+        contactNormalX[contactCount] = heading.x * sign;
+        contactNormalY[contactCount] = heading.y * sign;
+        contactNormalZ[contactCount] = heading.z * sign;
+        contactPenetration[contactCount] = contactLength - Math.abs(separation);
+        contactCount++;
+    }
+
+    public int getSlot(int contact) {
+        return contactSlot[contact];
+    }
+
+    public int getOther(int contact) {
+        return contactOther[contact];
+    }
+
+    public Vector3f getNormal(int contact, Vector3f dest) {
+        return dest.set(contactNormalX[contact], contactNormalY[contact], contactNormalZ[contact]);
+    }
+
+    public float getPenetration(int contact) {
+        return contactPenetration[contact];
+    }
+}
@@ -0,0 +1,303 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.network.ClientComponent;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.world.BlockEntityRegistry;
+import org.terasology.engine.world.WorldProvider;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.minecarts.Constants;
+import org.terasology.minecarts.Util;
+import org.terasology.minecarts.blocks.RailBlockSegmentMapper;
+import org.terasology.minecarts.blocks.RailComponent;
+import org.terasology.minecarts.blocks.RailGraphSystem;
+import org.terasology.minecarts.components.CartHibernationComponent;
+import org.terasology.minecarts.components.CartJointComponent;
+import org.terasology.minecarts.components.CartLogisticsComponent;
+import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.segmentedpaths.SegmentMeta;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+import org.terasology.segmentedpaths.controllers.PathFollowerSystem;
+import org.terasology.segmentedpaths.controllers.SegmentCacheSystem;
+import org.terasology.segmentedpaths.controllers.SegmentSystem;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Takes trains far from every player out of the simulation and puts them back when a player comes near.
+ * <p>
+ * A hibernating cart keeps its place on the track in a {@link CartHibernationComponent}. Moving trains are advanced
+ * along the track once every {@link Constants#CART_HIBERNATION_INTERVAL} by their recorded speed, slowed down by rail
+ * friction only, and stop where the loaded track ends. When a player comes within
+ * {@link Constants#CART_HIBERNATION_RADIUS} of any cart of the train, every cart is put straight back onto its segment,
+ * even after its chunk was unloaded, instead of having to find the track again with a ray-trace.
+ * <p>
+ * Trains moved by the coarse logistics simulation are left alone until it hands them back.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(CartHibernationSystem.class)
+public class CartHibernationSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    @In
+    EntityManager entityManager;
+    @In
+    WorldProvider worldProvider;
+    @In
+    BlockEntityRegistry blockEntityRegistry;
+    @In
+    PathFollowerSystem pathFollowerSystem;
+    @In
+    SegmentSystem segmentSystem;
+    @In
+    SegmentCacheSystem segmentCacheSystem;
+    @In
+    RailGraphSystem railGraphSystem;
+    @In
+    CartMotionSystem cartMotionSystem;
+
+    private RailBlockSegmentMapper segmentMapping;
+    private boolean enabled = true;
+    private float sinceCheck;
+    // positions of the players at the last check, the first playerCount of them; the vectors are reused
+    private final List<Vector3f> players = new ArrayList<>();
+    private int playerCount;
+    private final List<EntityRef> train = new ArrayList<>();
+    private final Set<EntityRef> visited = new HashSet<>();
+
+    private final Vector3f position = new Vector3f();
+    private final Quaternionf rotation = new Quaternionf();
+
+    @Override
+    public void initialise() {
+        segmentMapping = new RailBlockSegmentMapper(blockEntityRegistry, pathFollowerSystem, segmentSystem,
+                segmentCacheSystem, railGraphSystem.getRailGraph());
+    }
+
+    /**
+     * Turns hibernation on or off; while it is off, hibernating trains are restored as if a player was near.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void update(float delta) {
+        sinceCheck += delta;
+        if (sinceCheck < Constants.CART_HIBERNATION_INTERVAL) {
+            return;
+        }
+        float elapsed = sinceCheck;
+        sinceCheck = 0;
+
+        playerCount = 0;
+        for (EntityRef client : entityManager.getEntitiesWith(ClientComponent.class)) {
+            LocationComponent location = client.getComponent(ClientComponent.class).character
+                    .getComponent(LocationComponent.class);
+            if (location != null) {
+                if (playerCount == players.size()) {
+                    players.add(new Vector3f());
+                }
+                location.getWorldPosition(players.get(playerCount++));
+            }
+        }
+
+        visited.clear();
+        for (EntityRef railVehicle : entityManager.getEntitiesWith(RailVehicleComponent.class,
+                PathFollowerComponent.class)) {
+            if (visited.contains(railVehicle) || railVehicle.hasComponent(CartLogisticsComponent.class)) {
+                continue;
+            }
+            collectTrain(railVehicle);
+            if (!enabled || isNearPlayer()) {
+                for (EntityRef cart : train) {
+                    CartHibernationComponent hibernation = cart.getComponent(CartHibernationComponent.class);
+                    if (hibernation != null) {
+                        restore(cart, hibernation);
+                    }
+                }
+            } else {
+                for (EntityRef cart : train) {
+                    CartHibernationComponent hibernation = cart.getComponent(CartHibernationComponent.class);
+                    if (hibernation == null) {
+                        if (cart.hasComponent(PathFollowerComponent.class)) {
+                            hibernate(cart);
+                        }
+                    } else {
+                        advance(cart, hibernation, elapsed);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Hibernates the train of an attached cart right away, wherever the players are.
+     *
+     * @return the carts of the train
+     */
+    public List<EntityRef> hibernateTrain(EntityRef railVehicle) {
+        visited.clear();
+        collectTrain(railVehicle);
+        for (EntityRef cart : train) {
+            if (!cart.hasComponent(CartHibernationComponent.class) && cart.hasComponent(PathFollowerComponent.class)) {
+                hibernate(cart);
+            }
+        }
+        return new ArrayList<>(train);
+    }
+
+    private void collectTrain(EntityRef railVehicle) {
+        train.clear();
+        train.add(railVehicle);
+        visited.add(railVehicle);
+        for (int i = 0; i < train.size(); i++) {
+            CartJointComponent joint = train.get(i).getComponent(CartJointComponent.class);
+            if (joint != null) {
+                addJoined(joint.front);
+                addJoined(joint.back);
+            }
+        }
+    }
+
+    private void addJoined(CartJointComponent.CartJointSocket socket) {
+        if (socket != null && socket.entity != null && socket.entity.exists()
+                && socket.entity.hasComponent(RailVehicleComponent.class) && visited.add(socket.entity)) {
+            train.add(socket.entity);
+        }
+    }
+
+    private boolean isNearPlayer() {
+        float radiusSquared = Constants.CART_HIBERNATION_RADIUS * Constants.CART_HIBERNATION_RADIUS;
+        for (EntityRef cart : train) {
+            LocationComponent location = cart.getComponent(LocationComponent.class);
+            if (location == null) {
+                continue;
+            }
+            location.getWorldPosition(position);
+            for (int i = 0; i < playerCount; i++) {
+                if (players.get(i).distanceSquared(position) <= radiusSquared) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void hibernate(EntityRef cart) {
+        PathFollowerComponent pathFollower = cart.getComponent(PathFollowerComponent.class);
+        if (pathFollower.segmentMeta == null || pathFollower.segmentMeta.association == null) {
+            return;
+        }
+        BlockComponent railBlock = pathFollower.segmentMeta.association.getComponent(BlockComponent.class);
+        if (railBlock == null) {
+            return;
+        }
+        cartMotionSystem.releaseCart(cart);
+        RailVehicleComponent railVehicle = cart.getComponent(RailVehicleComponent.class);
+        CartHibernationComponent hibernation = new CartHibernationComponent();
+        record(hibernation, pathFollower, railBlock);
+        float headingLength = hibernation.heading.length();
+        hibernation.speed = headingLength == 0 ? 0 : railVehicle.velocity.dot(hibernation.heading) / headingLength;
+        cart.addComponent(hibernation);
+    }
+
+    private void advance(EntityRef cart, CartHibernationComponent hibernation, float elapsed) {
+        if (!reattach(cart, hibernation)) {
+            if (worldProvider.isBlockRelevant(hibernation.railBlock)) {
+                // the rail is gone; let the motion system detach the cart
+                restore(cart, hibernation);
+            }
+            return;
+        }
+        if (hibernation.speed == 0) {
+            return;
+        }
+        PathFollowerComponent pathFollower = cart.getComponent(PathFollowerComponent.class);
+        RailComponent rail = pathFollower.segmentMeta.association.getComponent(RailComponent.class);
+        float distance = hibernation.speed * elapsed;
+
+        // the integrator takes the friction coefficient off the speed once per step
+        float friction = rail == null ? 0 : rail.frictionCoefficient * elapsed / Constants.CART_FIXED_TIMESTEP;
+        hibernation.speed = Math.signum(hibernation.speed) * Math.max(0, Math.abs(hibernation.speed) - friction);
+
+        if (!pathFollowerSystem.move(cart, distance, segmentMapping)) {
+            // the loaded track ends here, so does the journey
+            hibernation.speed = 0;
+            cart.saveComponent(hibernation);
+            return;
+        }
+        pathFollower = cart.getComponent(PathFollowerComponent.class);
+        BlockComponent railBlock = pathFollower.segmentMeta.association.getComponent(BlockComponent.class);
+        if (railBlock != null) {
+            record(hibernation, pathFollower, railBlock);
+        }
+        cart.saveComponent(hibernation);
+
+        LocationComponent location = cart.getComponent(LocationComponent.class);
+        location.setWorldPosition(position.set(pathFollowerSystem.vehiclePoint(cart)).add(0, .01f, 0));
+        location.setWorldRotation(Util.rotation(pathFollower.heading, rotation));
+        cart.saveComponent(location);
+    }
+
+    private void restore(EntityRef cart, CartHibernationComponent hibernation) {
+        // a cart whose rail is gone is detached by the motion system as soon as it picks the cart up
+        if (reattach(cart, hibernation)) {
+            RailVehicleComponent railVehicle = cart.getComponent(RailVehicleComponent.class);
+            float headingLength = hibernation.heading.length();
+            if (headingLength == 0) {
+                railVehicle.velocity.set(0);
+            } else {
+                railVehicle.velocity.set(hibernation.heading).mul(hibernation.speed / headingLength);
+            }
+            cart.saveComponent(railVehicle);
+        }
+        cart.removeComponent(CartHibernationComponent.class);
+    }
+
+    /**
+     * Points the path follower of the cart back at the rail block it was recorded on, in case the block entity was
+     * recreated when its chunk was loaded again.
+     *
+     * @return whether the rail block is still there
+     */
+    private boolean reattach(EntityRef cart, CartHibernationComponent hibernation) {
+        PathFollowerComponent pathFollower = cart.getComponent(PathFollowerComponent.class);
+        if (pathFollower.segmentMeta != null && pathFollower.segmentMeta.association.exists()) {
+            return true;
+        }
+        EntityRef railBlock = blockEntityRegistry.getBlockEntityAt(hibernation.railBlock);
+        if (!railBlock.hasComponent(RailComponent.class)) {
+            return false;
+        }
+        pathFollower.segmentMeta = new SegmentMeta(hibernation.segmentPosition, railBlock, hibernation.descriptor);
+        pathFollower.heading = new Vector3f(hibernation.heading);
+        cart.saveComponent(pathFollower);
+        return true;
+    }
+
+    private static void record(CartHibernationComponent hibernation, PathFollowerComponent pathFollower,
+                               BlockComponent railBlock) {
+        hibernation.railBlock.set(railBlock.getPosition());
+        hibernation.descriptor = pathFollower.segmentMeta.prefab;
+        hibernation.segmentPosition = pathFollower.segmentMeta.position;
+        hibernation.heading.set(pathFollower.heading);
+    }
+}
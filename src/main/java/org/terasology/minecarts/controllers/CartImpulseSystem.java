@@ -4,7 +4,6 @@
 package org.terasology.minecarts.controllers;
 
 import org.joml.Vector3f;
-import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.event.EventPriority;
 import org.terasology.engine.entitySystem.event.Priority;
@@ -24,17 +23,36 @@ import org.terasology.minecarts.Constants;
 import org.terasology.minecarts.components.CartJointComponent;
 import org.terasology.minecarts.components.CollisionFilterComponent;
 import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.minecarts.metrics.RailsMetrics;
+import org.terasology.minecarts.metrics.RailsMetricsSystem;
 import org.terasology.segmentedpaths.components.PathFollowerComponent;
 import org.terasology.segmentedpaths.controllers.PathFollowerSystem;
 
 @RegisterSystem(RegisterMode.AUTHORITY)
 public class CartImpulseSystem extends BaseComponentSystem {
 
-    @In
-    Time time;
     @In
     PathFollowerSystem segmentSystem;
-
+    @In
+    CartMotionSystem cartMotionSystem;
+    @In
+    RailsMetricsSystem railsMetricsSystem;
+
+    private RailsMetrics metrics = new RailsMetrics();
+
+    // scratch vectors for the collision handlers; impulses handed to other entities through events are still
+    // allocated, since the events keep a reference to them
+    private final Vector3f df = new Vector3f();
+    private final Vector3f otherPosition = new Vector3f();
+    private final Vector3f r1v = new Vector3f();
+    private final Vector3f r2v = new Vector3f();
+    private final Vector3f v1 = new Vector3f();
+    private final Vector3f v2 = new Vector3f();
+
+    @Override
+    public void initialise() {
+        metrics = railsMetricsSystem.getMetrics();
+    }
 
     public static void addCollisionFilter(EntityRef cart, EntityRef child) {
         CollisionFilterComponent collisionFilterComponent = cart.getComponent(CollisionFilterComponent.class);
@@ -56,7 +74,7 @@ public class CartImpulseSystem extends BaseComponentSystem {
     }
 
 
-    private boolean areJoinedTogether(EntityRef entity, EntityRef otherEntity) {
+    static boolean areJoinedTogether(EntityRef entity, EntityRef otherEntity) {
         if (!entity.hasComponent(CartJointComponent.class) || !otherEntity.hasComponent(CartJointComponent.class)) {
             return false;
         }
@@ -76,6 +94,15 @@ public class CartImpulseSystem extends BaseComponentSystem {
         if (collisionFilterComponent != null && collisionFilterComponent.filter.contains(event.getOtherEntity())) {
             return;
         }
+        EntityRef otherEntity = event.getOtherEntity();
+        if (cartMotionSystem.resolvesContact(entity, otherEntity)) {
+            // resolved by the along-track broadphase of the motion system
+            return;
+        }
+
+        // the handlers below go through the motion system, which keeps the simulated velocities of attached carts
+        cartMotionSystem.wakeCart(entity);
+        cartMotionSystem.wakeCart(event.getOtherEntity());
 
         if (event.getOtherEntity().hasComponent(CharacterComponent.class)) {
             handleCharacterCollision(event, entity);
@@ -90,7 +117,7 @@ public class CartImpulseSystem extends BaseComponentSystem {
     }
 
     private void handleRigidBodyCollision(CollideEvent event, EntityRef entity) {
-        RailVehicleComponent v1 = entity.getComponent(RailVehicleComponent.class);
+        cartMotionSystem.getVelocity(entity, v1);
 
         LocationComponent v1l = entity.getComponent(LocationComponent.class);
         LocationComponent v2l = event.getOtherEntity().getComponent(LocationComponent.class);
@@ -98,28 +125,19 @@ public class CartImpulseSystem extends BaseComponentSystem {
         RigidBodyComponent r1 = entity.getComponent(RigidBodyComponent.class);
         RigidBodyComponent r2 = event.getOtherEntity().getComponent(RigidBodyComponent.class);
 
-        Vector3f df = new Vector3f(v2l.getWorldPosition(new Vector3f())).sub(v1l.getWorldPosition(new Vector3f())).normalize();
-
-        Vector3f normal = new Vector3f(df);
+        v2l.getWorldPosition(df).sub(v1l.getWorldPosition(otherPosition)).normalize();
 
-        float jv = normal.dot(v1.velocity) - normal.dot(r2.velocity);
+        float jv = df.dot(v1) - df.dot(r2.velocity);
         float effectiveMass = (1.0f / r1.mass) + (1.0f / r2.mass);
 
-        float b = -df.dot(event.getNormal()) * (Constants.BAUMGARTE_COFF / time.getGameDelta()) * event.getPenetration();
+        float b = -df.dot(event.getNormal()) * (Constants.BAUMGARTE_COFF / cartMotionSystem.getFrameDelta())
+                * event.getPenetration();
         float lambda = -(jv + b) / effectiveMass;
         if (lambda > 0) {
             return;
         }
-        Vector3f r1v = new Vector3f(
-                event.getNormal().x / r1.mass,
-                event.getNormal().y / r1.mass,
-                event.getNormal().z / r1.mass)
-                .mul(lambda);
-        Vector3f r2v = new Vector3f(
-                event.getNormal().x / r2.mass,
-                event.getNormal().y / r2.mass,
-                event.getNormal().z / r2.mass)
-                .mul(lambda).mul(-1);
+        r1v.set(event.getNormal()).div(r1.mass).mul(lambda);
+        r2v.set(event.getNormal()).div(r2.mass).mul(lambda).mul(-1);
 
         if (!r1v.isFinite()) {
             r1v.set(0);
@@ -129,8 +147,8 @@ public class CartImpulseSystem extends BaseComponentSystem {
         }
 //        LocationComponent lc = event.getOtherEntity().getComponent(LocationComponent.class);
 
-        v1.velocity.add(r1v);
-        entity.saveComponent(v1);
+        cartMotionSystem.setVelocity(entity, v1.add(r1v));
+        metrics.increment(RailsMetrics.Counter.RIGID_BODY_COLLISIONS);
         event.getOtherEntity().send(new ChangeVelocityEvent(new Vector3f(r2.velocity).add(r2v)));
 //        event.getOtherEntity().saveComponent(lc);
 
@@ -139,7 +157,7 @@ public class CartImpulseSystem extends BaseComponentSystem {
 
     private void handleCharacterCollision(CollideEvent event, EntityRef entity) {
 
-        RailVehicleComponent v1 = entity.getComponent(RailVehicleComponent.class);
+        cartMotionSystem.getVelocity(entity, v1);
 
         LocationComponent v1l = entity.getComponent(LocationComponent.class);
         LocationComponent v2l = event.getOtherEntity().getComponent(LocationComponent.class);
@@ -147,14 +165,13 @@ public class CartImpulseSystem extends BaseComponentSystem {
         RigidBodyComponent r1 = entity.getComponent(RigidBodyComponent.class);
         CharacterMovementComponent r2 = event.getOtherEntity().getComponent(CharacterMovementComponent.class);
 
-        float jv = event.getNormal().dot(v1.velocity) - event.getNormal().dot(r2.getVelocity());
+        float jv = event.getNormal().dot(v1) - event.getNormal().dot(r2.getVelocity());
         float effectiveMass = (1.0f / r1.mass) + (1.0f / Constants.PLAYER_MASS);
 
-        Vector3f df =
-                new Vector3f(v2l.getWorldPosition(new Vector3f())).sub(v1l.getWorldPosition(new Vector3f())).normalize();
+        v2l.getWorldPosition(df).sub(v1l.getWorldPosition(otherPosition)).normalize();
 
         float b =
-                -df.dot(event.getNormal()) * (Constants.BAUMGARTE_COFF / time.getGameDelta()) * event.getPenetration();
+                -df.dot(event.getNormal()) * (Constants.BAUMGARTE_COFF / cartMotionSystem.getFrameDelta()) * event.getPenetration();
 
 
         float lambda = -(jv + b) / effectiveMass;
@@ -163,27 +180,18 @@ public class CartImpulseSystem extends BaseComponentSystem {
             return;
         }
 
-        Vector3f r1v = new Vector3f(
-                event.getNormal().x / r1.mass,
-                event.getNormal().y / r1.mass,
-                event.getNormal().z / r1.mass)
-                .mul(lambda);
-        Vector3f r2v = new Vector3f(
-                event.getNormal().x / Constants.PLAYER_MASS,
-                event.getNormal().y / Constants.PLAYER_MASS,
-                event.getNormal().z / Constants.PLAYER_MASS)
-                .mul(lambda).mul(-1);
-
-        v1.velocity.add(r1v);
-        event.getOtherEntity().send(new CharacterImpulseEvent(r2v));
-
-        entity.saveComponent(v1);
+        r1v.set(event.getNormal()).div(r1.mass).mul(lambda);
+        Vector3f impulse = new Vector3f(event.getNormal()).div(Constants.PLAYER_MASS).mul(lambda).mul(-1);
+
+        cartMotionSystem.setVelocity(entity, v1.add(r1v));
+        metrics.increment(RailsMetrics.Counter.CHARACTER_COLLISIONS);
+        event.getOtherEntity().send(new CharacterImpulseEvent(impulse));
     }
 
 
     private void handleCartCollision(CollideEvent event, EntityRef entity) {
-        RailVehicleComponent v1 = entity.getComponent(RailVehicleComponent.class);
-        RailVehicleComponent v2 = event.getOtherEntity().getComponent(RailVehicleComponent.class);
+        cartMotionSystem.getVelocity(entity, v1);
+        cartMotionSystem.getVelocity(event.getOtherEntity(), v2);
 
         RigidBodyComponent r1 = entity.getComponent(RigidBodyComponent.class);
         RigidBodyComponent r2 = event.getOtherEntity().getComponent(RigidBodyComponent.class);
@@ -192,23 +200,24 @@ public class CartImpulseSystem extends BaseComponentSystem {
         LocationComponent v2l = event.getOtherEntity().getComponent(LocationComponent.class);
 
 
-        Vector3f df = new Vector3f(v2l.getWorldPosition(new Vector3f()))
-                .sub(v1l.getWorldPosition(new Vector3f()))
-                .add(new Vector3f(Float.MIN_VALUE, Float.MIN_VALUE, Float.MIN_VALUE)).normalize();
+        v2l.getWorldPosition(df)
+                .sub(v1l.getWorldPosition(otherPosition))
+                .add(Float.MIN_VALUE, Float.MIN_VALUE, Float.MIN_VALUE).normalize();
 
         //calculate the half normal vector
-        Vector3f normal = new Vector3f(df);
+        Vector3f normal = df;
 
-        float jv = normal.dot(v1.velocity) - normal.dot(v2.velocity);
-        float b = -df.dot(normal) * (Constants.BAUMGARTE_COFF / time.getGameDelta()) * event.getPenetration();
+        float jv = normal.dot(v1) - normal.dot(v2);
+        float b = -df.dot(normal) * (Constants.BAUMGARTE_COFF / cartMotionSystem.getFrameDelta())
+                * event.getPenetration();
 
         float effectiveMass = (1.0f / r1.mass) + (1.0f / r2.mass);
         float lambda = -(jv + b) / effectiveMass;
         if (lambda > 0) {
             return;
         }
-        Vector3f r1v = new Vector3f(normal.x / r1.mass, normal.y / r1.mass, normal.z / r1.mass).mul(lambda);
-        Vector3f r2v = new Vector3f(normal.x / r2.mass, normal.y / r2.mass, normal.z / r2.mass).mul(lambda).mul(-1);
+        r1v.set(normal).div(r1.mass).mul(lambda);
+        r2v.set(normal).div(r2.mass).mul(lambda).mul(-1);
 
         if (!r1v.isFinite()) {
             r1v.set(0);
@@ -217,11 +226,9 @@ public class CartImpulseSystem extends BaseComponentSystem {
             r2v.set(0);
         }
 
-        v1.velocity.add(r1v);
-        v2.velocity.add(r2v);
-
-        entity.saveComponent(v1);
-        event.getOtherEntity().saveComponent(v2);
+        cartMotionSystem.setVelocity(entity, v1.add(r1v));
+        cartMotionSystem.setVelocity(event.getOtherEntity(), v2.add(r2v));
+        metrics.increment(RailsMetrics.Counter.CART_COLLISIONS);
     }
 
 }
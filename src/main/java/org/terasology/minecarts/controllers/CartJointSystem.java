@@ -3,6 +3,8 @@
 
 package org.terasology.minecarts.controllers;
 
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 import org.slf4j.Logger;
@@ -12,24 +14,57 @@ import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
-import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.engine.logic.location.LocationComponent;
 import org.terasology.engine.physics.components.RigidBodyComponent;
 import org.terasology.engine.registry.In;
 import org.terasology.engine.registry.Share;
 import org.terasology.minecarts.Constants;
-import org.terasology.minecarts.Util;
+import org.terasology.minecarts.components.CartHibernationComponent;
 import org.terasology.minecarts.components.CartJointComponent;
 import org.terasology.minecarts.components.RailVehicleComponent;
-import org.terasology.segmentedpaths.components.PathFollowerComponent;
+import org.terasology.minecarts.metrics.RailsMetrics;
+import org.terasology.minecarts.metrics.RailsMetricsSystem;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps joined carts together. The joints are solved once per fixed step of {@link CartMotionSystem}, right before the
+ * carts are moved, see {@link #step(float)}.
+ * <p>
+ * This system follows the joints of the cart entities to find the trains; the solve itself runs on the simulated state
+ * of the motion system, one {@link CartTrains train} at a time.
+ */
 @RegisterSystem(RegisterMode.AUTHORITY)
 @Share(CartJointSystem.class)
-public class CartJointSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+public class CartJointSystem extends BaseComponentSystem {
     private static final Logger LOGGER = LoggerFactory.getLogger(CartJointSystem.class);
 
     @In
     EntityManager entityManager;
+    @In
+    CartMotionSystem cartMotionSystem;
+    @In
+    RailsMetricsSystem railsMetricsSystem;
+
+    private RailsMetrics metrics = new RailsMetrics();
+    private final CartTrains trains = new CartTrains();
+    private final List<EntityRef> trainCarts = new ArrayList<>();
+    // the number of each cart of trainCarts in trains, or -1 if it is not simulated on the track
+    private final TIntList trainCartNumbers = new TIntArrayList();
+    private final Set<EntityRef> solvedCarts = new HashSet<>();
+    private int solverIterations = Constants.CART_JOINT_SOLVER_ITERATIONS;
+
+    // scratch vectors for checking the length of every joint on every tick
+    private final Vector3f position = new Vector3f();
+    private final Vector3f otherPosition = new Vector3f();
+
+    @Override
+    public void initialise() {
+        metrics = railsMetricsSystem.getMetrics();
+    }
 
     public boolean joinVehicles(EntityRef entity1, EntityRef entity2) {
         if (entity1.equals(entity2) && !entity1.exists() && !entity2.exists()) {
@@ -89,91 +124,150 @@ public class CartJointSystem extends BaseComponentSystem implements UpdateSubscr
         return false;
     }
 
-    @Override
-    public void update(float delta) {
+    /**
+     * Sets how many passes the train solver makes over the joints of a train each tick. More passes make long
+     * trains stiffer at a linear cost.
+     */
+    public void setSolverIterations(int iterations) {
+        solverIterations = Math.max(1, iterations);
+    }
+
+    public int getSolverIterations() {
+        return solverIterations;
+    }
+
+    /**
+     * Solves the joints of all trains for one step of the rail physics.
+     * <p>
+     * The trains are gathered, and overstretched joints broken, on the main thread; the solve is handed to
+     * {@link CartMotionSystem#solveTrains(CartTrains, float, int)}, which may run the trains in parallel.
+     */
+    public void step(float delta) {
+        long start = metrics.start();
+        solvedCarts.clear();
+        trains.reset();
         for (EntityRef railVehicle : entityManager.getEntitiesWith(RailVehicleComponent.class,
                 RigidBodyComponent.class, CartJointComponent.class)) {
-            CartJointComponent cartJointComponent = railVehicle.getComponent(CartJointComponent.class);
-            if (cartJointComponent.front != null && cartJointComponent.front.isOwning) {
-                CartJointComponent frontCartJoint =
-                        cartJointComponent.front.entity.getComponent(CartJointComponent.class);
-                if (frontCartJoint != null) {
-                    applyImpulseOnSocket(delta, cartJointComponent.front, frontCartJoint.findJoint(railVehicle));
-                }
-            }
-            if (cartJointComponent.back != null && cartJointComponent.back.isOwning) {
-                CartJointComponent backCartJoin = cartJointComponent.back.entity.getComponent(CartJointComponent.class);
-                if (backCartJoin != null) {
-                    applyImpulseOnSocket(delta, cartJointComponent.back, backCartJoin.findJoint(railVehicle));
-                }
+            if (!solvedCarts.contains(railVehicle) && !railVehicle.hasComponent(CartHibernationComponent.class)) {
+                gatherTrain(findTrainEnd(railVehicle));
             }
-
         }
+        cartMotionSystem.solveTrains(trains, delta, solverIterations);
+        metrics.stop(RailsMetrics.Timer.CART_JOINTS, start);
     }
 
-    private void clearJoinSocket(CartJointComponent.CartJointSocket jointSocket) {
-        jointSocket.entity = null;
-        jointSocket.isOwning = false;
+    /**
+     * Follows the joints of a cart to one end of its train, or back to the cart itself if the train is a loop.
+     */
+    private EntityRef findTrainEnd(EntityRef railVehicle) {
+        EntityRef previous = null;
+        EntityRef current = railVehicle;
+        while (true) {
+            EntityRef next = nextCart(current, previous);
+            if (next == null || next.equals(railVehicle)) {
+                return current;
+            }
+            previous = current;
+            current = next;
+        }
     }
 
-    private void applyImpulseOnSocket(float delta, CartJointComponent.CartJointSocket j1,
-                                      CartJointComponent.CartJointSocket j2) {
-        if (j1.entity == null || j2.entity == null) {
-            return;
+    /**
+     * @return the cart joined to the given one that is not {@code previous}, or null at the end of the train
+     */
+    private EntityRef nextCart(EntityRef cart, EntityRef previous) {
+        CartJointComponent cartJointComponent = cart.getComponent(CartJointComponent.class);
+        if (cartJointComponent == null) {
+            return null;
         }
-
-        LocationComponent location = j2.entity.getComponent(LocationComponent.class);
-        LocationComponent otherLocation = j1.entity.getComponent(LocationComponent.class);
-
-        RailVehicleComponent railVehicle = j2.entity.getComponent(RailVehicleComponent.class);
-        RailVehicleComponent otherRailVehicle = j1.entity.getComponent(RailVehicleComponent.class);
-
-        PathFollowerComponent segmentVehicle = j2.entity.getComponent(PathFollowerComponent.class);
-        PathFollowerComponent otherSegmentVehicle = j1.entity.getComponent(PathFollowerComponent.class);
-        if (segmentVehicle == null || otherSegmentVehicle == null) {
-            LOGGER.info("Joint broken between: " + j1.entity + " and " + j2.entity);
-            clearJoinSocket(j1);
-            clearJoinSocket(j2);
-            return;
+        EntityRef next = joinedCart(cart, cartJointComponent.front);
+        if (next == null || next.equals(previous)) {
+            next = joinedCart(cart, cartJointComponent.back);
         }
+        return next == null || next.equals(previous) ? null : next;
+    }
 
+    private EntityRef joinedCart(EntityRef cart, CartJointComponent.CartJointSocket socket) {
+        if (socket == null || socket.entity == null || !socket.entity.exists()) {
+            return null;
+        }
+        CartJointComponent otherJoint = socket.entity.getComponent(CartJointComponent.class);
+        if (otherJoint == null || otherJoint.findJoint(cart) == null
+                || !socket.entity.hasComponent(RailVehicleComponent.class)
+                || !socket.entity.hasComponent(RigidBodyComponent.class)
+                || socket.entity.hasComponent(CartHibernationComponent.class)) {
+            return null;
+        }
+        return socket.entity;
+    }
 
-        RigidBodyComponent rigidBody = j2.entity.getComponent(RigidBodyComponent.class);
-        RigidBodyComponent otherRigidBody = j1.entity.getComponent(RigidBodyComponent.class);
-
-        Vector3f normal =
-                new Vector3f(location.getWorldPosition(new Vector3f())).sub(otherLocation.getWorldPosition(new Vector3f()));
-        float distance = normal.length();
-        if (distance > Constants.CART_JOINT_BREAK_DISTANCE) {
-            clearJoinSocket(j1);
-            clearJoinSocket(j2);
-            LOGGER.info("Joint broken between: " + j1.entity + " and " + j2.entity);
+    private void gatherTrain(EntityRef end) {
+        trainCarts.clear();
+        EntityRef previous = null;
+        EntityRef current = end;
+        do {
+            trainCarts.add(current);
+            solvedCarts.add(current);
+            EntityRef next = nextCart(current, previous);
+            previous = current;
+            current = next;
+        } while (current != null && !solvedCarts.contains(current));
+        boolean loop = current != null && current.equals(end) && trainCarts.size() > 2;
+        if (trainCarts.size() < 2) {
             return;
         }
 
-        Vector3f projectedNormal = Util.project(segmentVehicle.heading, normal, new Vector3f()).normalize();
-        //segmentVehicle.heading.project(normal).normalize();
-        Vector3f otherProjectedNormal = Util.project(otherSegmentVehicle.heading, normal, new Vector3f()).normalize();
+        CartStateStore cartStates = cartMotionSystem.getCartStates();
+        trains.beginTrain();
+        trainCartNumbers.resetQuick();
+        for (EntityRef cart : trainCarts) {
+            int slot = cartStates.indexOf(cart);
+            trainCartNumbers.add(slot == -1 ? -1 : trains.addCart(slot));
+        }
+        for (int cart = 0; cart + 1 < trainCarts.size(); cart++) {
+            addJoint(cart, cart + 1);
+        }
+        if (loop) {
+            addJoint(trainCarts.size() - 1, 0);
+        }
+    }
 
-        float relVelAlongNormal =
-                otherRailVehicle.velocity.dot(otherProjectedNormal) - railVehicle.velocity.dot(projectedNormal);
-        float inverseMassSum = 1 / rigidBody.mass + 1 / otherRigidBody.mass;
-        float bias = (Constants.BAUMGARTE_COFF / delta) * ((j1.range + j2.range) - distance);
-        float j = -(relVelAlongNormal + bias) / inverseMassSum;
+    private void clearJoinSocket(CartJointComponent.CartJointSocket jointSocket) {
+        jointSocket.entity = null;
+        jointSocket.isOwning = false;
+    }
 
+    private void breakJoint(EntityRef cart, CartJointComponent.CartJointSocket socket, EntityRef otherCart,
+                            CartJointComponent.CartJointSocket otherSocket) {
+        LOGGER.info("Joint broken between: " + cart + " and " + otherCart);
+        metrics.increment(RailsMetrics.Counter.JOINT_BREAKS);
+        clearJoinSocket(socket);
+        clearJoinSocket(otherSocket);
+    }
 
-        railVehicle.velocity.sub(projectedNormal.mul(j / rigidBody.mass));
-        otherRailVehicle.velocity.add(otherProjectedNormal.mul(j / otherRigidBody.mass));
+    private void addJoint(int cartIndex, int otherCartIndex) {
+        EntityRef cart = trainCarts.get(cartIndex);
+        EntityRef otherCart = trainCarts.get(otherCartIndex);
+        CartJointComponent.CartJointSocket socket = cart.getComponent(CartJointComponent.class).findJoint(otherCart);
+        CartJointComponent.CartJointSocket otherSocket =
+                otherCart.getComponent(CartJointComponent.class).findJoint(cart);
 
-        if (!railVehicle.velocity.isFinite()) {
-            railVehicle.velocity.set(0);
+        // a cart that is not simulated on the track has left it, e.g. by detaching in an earlier step of this frame
+        int number = trainCartNumbers.get(cartIndex);
+        int otherNumber = trainCartNumbers.get(otherCartIndex);
+        if (number == -1 || otherNumber == -1) {
+            breakJoint(cart, socket, otherCart, otherSocket);
+            return;
         }
 
-        if (!otherRailVehicle.velocity.isFinite()) {
-            otherRailVehicle.velocity.set(0);
+        CartStateStore cartStates = cartMotionSystem.getCartStates();
+        float distance = cartStates.getPosition(trains.getSlot(number), position)
+                .distance(cartStates.getPosition(trains.getSlot(otherNumber), otherPosition));
+        if (distance > Constants.CART_JOINT_BREAK_DISTANCE) {
+            breakJoint(cart, socket, otherCart, otherSocket);
+            return;
         }
 
-        j2.entity.saveComponent(railVehicle);
-        j1.entity.saveComponent(otherRailVehicle);
+        trains.addJoint(number, otherNumber, socket.range + otherSocket.range);
     }
 }
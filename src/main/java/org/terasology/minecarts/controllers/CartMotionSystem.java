@@ -5,28 +5,49 @@ package org.terasology.minecarts.controllers;
 
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.joml.Vector3ic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.core.Time;
-import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.engine.entitySystem.prefab.Prefab;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
 import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
 import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.logic.permission.PermissionManager;
 import org.terasology.engine.physics.HitResult;
 import org.terasology.engine.physics.Physics;
 import org.terasology.engine.physics.StandardCollisionGroup;
 import org.terasology.engine.physics.components.RigidBodyComponent;
 import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
 import org.terasology.engine.world.BlockEntityRegistry;
+import org.terasology.engine.world.OnChangedBlock;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 import org.terasology.minecarts.Constants;
 import org.terasology.minecarts.Util;
 import org.terasology.minecarts.blocks.RailBlockSegmentMapper;
+import org.terasology.minecarts.blocks.RailGraphSystem;
 import org.terasology.minecarts.blocks.RailComponent;
+import org.terasology.minecarts.blocks.RailProfile;
+import org.terasology.minecarts.blocks.RailProfiles;
+import org.terasology.minecarts.blocks.RailSegmentSampler;
+import org.terasology.minecarts.components.CartHibernationComponent;
+import org.terasology.minecarts.components.CartTrackStateComponent;
 import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.minecarts.metrics.RailsMetrics;
+import org.terasology.minecarts.metrics.RailsMetricsSystem;
+import org.terasology.minecarts.replay.RailsReplaySystem;
 import org.terasology.segmentedpaths.SegmentMeta;
 import org.terasology.segmentedpaths.components.PathDescriptorComponent;
 import org.terasology.segmentedpaths.components.PathFollowerComponent;
@@ -35,10 +56,19 @@ import org.terasology.segmentedpaths.controllers.SegmentCacheSystem;
 import org.terasology.segmentedpaths.controllers.SegmentSystem;
 import org.terasology.segmentedpaths.segments.Segment;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
  * Created by michaelpollind on 8/16/16.
+ * <p>
+ * Attached carts are simulated out of a {@link CartStateStore}; their {@link RailVehicleComponent} is only written back
+ * periodically, see {@link #syncCart(EntityRef)}.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
+@Share(CartMotionSystem.class)
 public class CartMotionSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
 
     private static final Logger logger = LoggerFactory.getLogger(CartMotionSystem.class);
@@ -46,8 +76,6 @@ public class CartMotionSystem extends BaseComponentSystem implements UpdateSubsc
     @In
     Time time;
     @In
-    EntityManager entityManager;
-    @In
     Physics physics;
     @In
     BlockEntityRegistry blockEntityRegistry;
@@ -57,151 +85,891 @@ public class CartMotionSystem extends BaseComponentSystem implements UpdateSubsc
     SegmentSystem segmentSystem;
     @In
     SegmentCacheSystem segmentCacheSystem;
+    @In
+    RailGraphSystem railGraphSystem;
+    @In
+    RailsMetricsSystem railsMetricsSystem;
+    @In
+    CartJointSystem cartJointSystem;
+    @In
+    RailsReplaySystem railsReplaySystem;
 
     private RailBlockSegmentMapper segmentMapping;
+    private RailSegmentSampler segmentSampler;
+    private RailProfiles railProfiles;
+    private RailsMetrics metrics = new RailsMetrics();
+    private final CartStateStore cartStates = new CartStateStore();
+    /**
+     * Active carts with a rigid body that are not in the store: detached ones, ones the store has not picked up yet and
+     * hibernating ones. Kept in the order they were activated in, so carts attach in the same order every run.
+     */
+    private final Set<EntityRef> detachedCarts = new LinkedHashSet<>();
+    private final CartBroadphase broadphase = new CartBroadphase();
+    private final CartAttachPoller attachPoller = new CartAttachPoller(Constants.CART_ATTACH_MIN_POLL_INTERVAL,
+            Constants.CART_ATTACH_MAX_POLL_INTERVAL, Constants.CART_ATTACH_REST_DISTANCE);
+    private final FixedTimestep timestep = new FixedTimestep(Constants.CART_FIXED_TIMESTEP,
+            Constants.CART_MAX_STEPS_PER_FRAME);
+    private int substeps = 1;
+    private boolean adaptiveSubsteps;
+    private final CartTrainSolver trainSolver = new CartTrainSolver();
+    private CartParallelIntegrator parallelIntegrator;
+    private boolean parallelIntegration;
+    private int parallelThreshold = Constants.PARALLEL_INTEGRATION_THRESHOLD;
+    private boolean writingBack;
+    private boolean clientPrediction;
+    private boolean autoAttach = true;
+    private float frameDelta = Constants.CART_FIXED_TIMESTEP;
+    private int ticksSinceSync;
+    private int ticksSinceSnapshot;
+
+    // scratch objects reused by every step of the tick, so the loop over the carts does not allocate itself; moving a
+    // cart along its path still goes through PathFollowerSystem.move of SegmentedPaths
+    private final Vector3f tangent = new Vector3f();
+    private final Vector3f direction = new Vector3f();
+    private final Vector3f frontAxisPosition = new Vector3f();
+    private final Vector3f backAxisPosition = new Vector3f();
+    private final Vector3f position = new Vector3f();
+    private final Quaternionf rotation = new Quaternionf();
+    private final Vector3f savedPosition = new Vector3f();
+    private final Quaternionf savedRotation = new Quaternionf();
+    private final Vector3f contactNormal = new Vector3f();
+    private final Vector3f velocity = new Vector3f();
+    private final Vector3f otherVelocity = new Vector3f();
+    private float stepDelta;
+    private float substepDelta;
 
     @Override
     public void initialise() {
         segmentMapping = new RailBlockSegmentMapper(blockEntityRegistry, pathFollowerSystem, segmentSystem,
-                segmentCacheSystem);
+                segmentCacheSystem, railGraphSystem.getRailGraph());
+        metrics = railsMetricsSystem.getMetrics();
+        segmentMapping.setMetrics(metrics);
+        segmentSampler = new RailSegmentSampler(pathFollowerSystem, segmentSystem, segmentCacheSystem, segmentMapping,
+                railGraphSystem.getSegmentSamples());
+        railProfiles = new RailProfiles(segmentSampler);
     }
 
-
     @Override
-    public void update(float delta) {
-        for (EntityRef railVehicle : entityManager.getEntitiesWith(RailVehicleComponent.class,
-                RigidBodyComponent.class)) {
-            updateCart(railVehicle, delta);
+    public void shutdown() {
+        cartStates.clear();
+        detachedCarts.clear();
+        railProfiles.clear();
+        attachPoller.clear();
+        if (parallelIntegrator != null) {
+            parallelIntegrator.shutdown();
+            parallelIntegrator = null;
         }
     }
 
-    private void updateCart(EntityRef railVehicle, float delta) {
+    /**
+     * Enables solving the joints of the trains and integrating the carts on a fork-join pool, for phases with at least
+     * {@link #setParallelThreshold(int) the threshold} of carts to work on.
+     * <p>
+     * Every train is solved as one task and carts are integrated in ranges of slots, see
+     * {@link CartParallelIntegrator}. Everything that touches entities, like finding the trains, gathering the track
+     * geometry, moving carts along their path, resolving contacts and writing components, stays on the main thread and
+     * is applied in slot order, so the result is the same as without parallel integration.
+     */
+    public void setParallelIntegration(boolean enabled) {
+        parallelIntegration = enabled;
+        if (enabled && parallelIntegrator == null) {
+            parallelIntegrator = new CartParallelIntegrator(
+                    Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        } else if (!enabled && parallelIntegrator != null) {
+            parallelIntegrator.shutdown();
+            parallelIntegrator = null;
+        }
+    }
 
-        LocationComponent location = railVehicle.getComponent(LocationComponent.class);
-        RigidBodyComponent rigidBodyComponent = railVehicle.getComponent(RigidBodyComponent.class);
-        RailVehicleComponent railVehicleComponent = railVehicle.getComponent(RailVehicleComponent.class);
-        PathFollowerComponent segmentVehicleComponent = railVehicle.getComponent(PathFollowerComponent.class);
+    public boolean isParallelIntegration() {
+        return parallelIntegration;
+    }
+
+    /**
+     * Sets how many carts a phase of the step needs to have before it is run in parallel, see
+     * {@link Constants#PARALLEL_INTEGRATION_THRESHOLD}.
+     */
+    public void setParallelThreshold(int carts) {
+        parallelThreshold = Math.max(1, carts);
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @Command(shortDescription = "Turns solving and integrating the rail physics on a thread pool on or off",
+            requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String railsParallel(@CommandParam("enabled") boolean enabled) {
+        setParallelIntegration(enabled);
+        return "Parallel rail physics " + (enabled ? "enabled from " + parallelThreshold + " carts" : "disabled");
+    }
+
+    @Command(shortDescription = "Sets from how many carts the rail physics run on a thread pool",
+            requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String railsParallelThreshold(@CommandParam("carts") int carts) {
+        setParallelThreshold(carts);
+        return "Parallel rail physics run from " + parallelThreshold + " carts";
+    }
+
+    /**
+     * Sets the length of a step of the rail physics and how many steps may be taken per frame at most. Each step
+     * solves the joints of all trains once and then moves the carts.
+     */
+    public void setFixedTimestep(float step, int maxStepsPerFrame) {
+        timestep.setStep(step, maxStepsPerFrame);
+    }
+
+    public float getFixedTimestep() {
+        return timestep.getStep();
+    }
 
-        if (segmentVehicleComponent == null) {
-            if (railVehicleComponent.lastDetach + 1.5f > time.getGameTime()) {
-                return;
+    public int getMaxStepsPerFrame() {
+        return timestep.getMaxSteps();
+    }
+
+    /**
+     * The frame time not yet taken as a fixed step, carried over to the next frame.
+     */
+    public float getTimestepRemainder() {
+        return timestep.getAccumulated();
+    }
+
+    public void setTimestepRemainder(float remainder) {
+        timestep.setAccumulated(remainder);
+    }
+
+    /**
+     * Divides every step into the given number of substeps for all moving carts, so fast carts cross fewer segments and
+     * collide less late per substep. Ignored while {@link #setAdaptiveSubsteps(boolean) adaptive substepping} is on.
+     */
+    public void setSubsteps(int substeps) {
+        this.substeps = Math.max(1, Math.min(substeps, Constants.CART_MAX_SUBSTEPS));
+    }
+
+    public int getSubsteps() {
+        return substeps;
+    }
+
+    /**
+     * Only substeps the carts that would travel further than {@link Constants#CART_MAX_STEP_DISTANCE} in one step,
+     * with as many substeps as the fastest of them needs up to {@link Constants#CART_MAX_SUBSTEPS}. All other carts
+     * take a single step, so the cost follows the number of fast carts rather than the number of carts.
+     */
+    public void setAdaptiveSubsteps(boolean enabled) {
+        adaptiveSubsteps = enabled;
+    }
+
+    public boolean isAdaptiveSubsteps() {
+        return adaptiveSubsteps;
+    }
+
+    /**
+     * Enables sending attached carts to clients as {@link CartTrackStateComponent} snapshots every
+     * {@link Constants#CART_SNAPSHOT_INTERVAL} ticks, which {@link CartPredictionSystem} advances along the track in
+     * between.
+     * <p>
+     * While enabled, changes to the {@link LocationComponent} and {@link RailVehicleComponent} of attached carts are
+     * no longer replicated, so the snapshots replace the full state on the network instead of adding to it.
+     */
+    public void setClientPrediction(boolean enabled) {
+        clientPrediction = enabled;
+        for (int slot = 0; slot < cartStates.size(); slot++) {
+            EntityRef railVehicle = cartStates.getEntity(slot);
+            if (!enabled) {
+                removeSnapshot(railVehicle);
             }
+            replicateChanges(railVehicle, !enabled);
+        }
+    }
+
+    public boolean isClientPrediction() {
+        return clientPrediction;
+    }
 
-            //checks to see if the cart hits a rail segment
-            HitResult hit = physics.rayTrace(location.getWorldPosition(new Vector3f()), new Vector3f(0, -1, 0), 1.2f,
-                    StandardCollisionGroup.DEFAULT, StandardCollisionGroup.WORLD);
-            if (hit == null || hit.getBlockPosition() == null) {
-                return;
+    @Command(shortDescription = "Turns sending attached carts as track snapshots for clients to predict on or off",
+            requiredPermission = PermissionManager.SERVER_MANAGEMENT_PERMISSION)
+    public String railsClientPrediction(@CommandParam("enabled") boolean enabled) {
+        setClientPrediction(enabled);
+        return "Client prediction of carts " + (enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * Sets whether detached carts look for track below them to attach to. Turned off while replaying a recording of
+     * {@link RailsReplaySystem}, which attaches the carts where the recording says.
+     */
+    public void setAutoAttach(boolean enabled) {
+        autoAttach = enabled;
+    }
+
+    public boolean isAutoAttach() {
+        return autoAttach;
+    }
+
+    /**
+     * The length of the last frame the rails were updated for, which is what collision impulses are resolved over.
+     */
+    public float getFrameDelta() {
+        return frameDelta;
+    }
+
+    @Override
+    public void update(float delta) {
+        long start = metrics.start();
+        frameDelta = delta;
+        railsReplaySystem.beginTick(delta);
+        Iterator<EntityRef> detached = detachedCarts.iterator();
+        while (detached.hasNext()) {
+            EntityRef railVehicle = detached.next();
+            if (!railVehicle.exists() || !railVehicle.hasComponent(RailVehicleComponent.class)
+                    || !railVehicle.hasComponent(RigidBodyComponent.class) || cartStates.contains(railVehicle)) {
+                detached.remove();
+            } else if (!railVehicle.hasComponent(CartHibernationComponent.class)) {
+                metrics.increment(RailsMetrics.Counter.DETACHED_CARTS);
+                if (updateDetachedCart(railVehicle)) {
+                    detached.remove();
+                }
             }
+        }
 
-            EntityRef ref = blockEntityRegistry.getBlockEntityAt(hit.getBlockPosition());
+        int steps = timestep.advance(delta);
+        for (int i = 0; i < steps; i++) {
+            cartJointSystem.step(timestep.getStep());
+            step(timestep.getStep());
+        }
 
-            //attach cart to rail segment
-            if (ref.hasComponent(RailComponent.class)) {
-                segmentVehicleComponent = new PathFollowerComponent();
+        // write-back stage: every component is saved at most once per tick, after all systems changed the carts
+        boolean syncState = ++ticksSinceSync >= Constants.CART_STATE_SYNC_INTERVAL;
+        if (syncState) {
+            ticksSinceSync = 0;
+        }
+        boolean snapshot = clientPrediction && ++ticksSinceSnapshot >= Constants.CART_SNAPSHOT_INTERVAL;
+        if (snapshot) {
+            ticksSinceSnapshot = 0;
+        }
+        for (int slot = 0; slot < cartStates.size(); slot++) {
+            saveLocation(slot);
+            if (syncState) {
+                writeBack(slot);
+            }
+            if (snapshot) {
+                writeSnapshot(slot);
+            }
+        }
+        railsReplaySystem.endTick();
+        metrics.add(RailsMetrics.Counter.ATTACHED_CARTS, cartStates.size());
+        metrics.stop(RailsMetrics.Timer.CART_MOTION, start);
+    }
 
-                Prefab prefab = ref.getComponent(PathDescriptorComponent.class).descriptors.get(0);
-                Segment segment = segmentCacheSystem.getSegment(prefab);
+    private void step(float delta) {
+        int activeCarts = gatherTrackFrames(false);
+        int substepCount = planSubsteps(delta);
+        stepDelta = delta;
+        substepDelta = delta / substepCount;
 
-                Vector3f position = segmentSystem.segmentPosition(ref);
-                Quaternionf rotation = segmentSystem.segmentRotation(ref);
+        for (int substep = 0; substep < substepCount; substep++) {
+            if (substep > 0) {
+                activeCarts = gatherTrackFrames(true);
+            }
+            if (parallelIntegration && activeCarts >= parallelThreshold) {
+                parallelIntegrator.integrate(cartStates, Constants.VELOCITY_CAP, stepDelta, substepDelta);
+            } else {
+                CartParallelIntegrator.integrateRange(cartStates, Constants.VELOCITY_CAP, stepDelta, substepDelta, 0,
+                        cartStates.size());
+            }
 
-                float segmentPosition = segment.nearestSegmentPosition(location.getWorldPosition(new Vector3f()),
-                        position, rotation);
+            for (int slot = cartStates.size() - 1; slot >= 0; slot--) {
+                if (cartStates.isActive(slot)) {
+                    applyMotion(slot, cartStates.isSubstepping(slot) ? substepDelta : stepDelta);
+                }
+            }
+
+            resolveContacts(substep > 0);
+        }
+    }
 
+    /**
+     * @param substepping only gather the carts taking the remaining substeps of this step
+     * @return the number of active carts
+     */
+    private int gatherTrackFrames(boolean substepping) {
+        // iterate backwards so carts that detach (and are swapped out of the store) are not skipped
+        int activeCarts = 0;
+        for (int slot = cartStates.size() - 1; slot >= 0; slot--) {
+            cartStates.deactivate(slot);
+            if (!cartStates.isSleeping(slot) && (!substepping || cartStates.isSubstepping(slot))
+                    && gatherTrackFrame(slot)) {
+                activeCarts++;
+            }
+        }
+        return activeCarts;
+    }
 
-                segmentVehicleComponent.segmentMeta = new SegmentMeta(segmentPosition, ref, prefab);
-                railVehicle.addComponent(segmentVehicleComponent);
-                segmentVehicleComponent.heading = pathFollowerSystem.vehicleTangent(railVehicle);
-                rigidBodyComponent.collidesWith.remove(StandardCollisionGroup.WORLD);
-                railVehicleComponent.velocity = Util.project(segmentVehicleComponent.heading,
-                        rigidBodyComponent.velocity, new Vector3f());
-                if (!railVehicleComponent.velocity.isFinite()) {
-                    railVehicleComponent.velocity.set(.001f);
+    /**
+     * Marks which active carts take substeps in this step.
+     *
+     * @return the number of substeps
+     */
+    private int planSubsteps(float delta) {
+        int substepCount = adaptiveSubsteps ? 1 : substeps;
+        for (int slot = 0; slot < cartStates.size(); slot++) {
+            boolean substepping = false;
+            if (cartStates.isActive(slot)) {
+                if (adaptiveSubsteps) {
+                    float travel = cartStates.getVelocity(slot, velocity).length() * delta;
+                    if (travel > Constants.CART_MAX_STEP_DISTANCE) {
+                        substepping = true;
+                        substepCount = Math.max(substepCount,
+                                (int) Math.ceil(travel / Constants.CART_MAX_STEP_DISTANCE));
+                    }
+                } else {
+                    substepping = substeps > 1;
                 }
-                railVehicle.addOrSaveComponent(segmentVehicleComponent);
             }
+            cartStates.setSubstepping(slot, substepping);
+        }
+        return Math.min(substepCount, Constants.CART_MAX_SUBSTEPS);
+    }
+
+    /**
+     * Writes the simulated state of a cart back into its {@link RailVehicleComponent}.
+     * <p>
+     * The motion system only saves the component every {@link Constants#CART_STATE_SYNC_INTERVAL} ticks, so any system
+     * that reads the velocity of an attached cart has to call this first.
+     */
+    public void syncCart(EntityRef railVehicle) {
+        int slot = cartStates.indexOf(railVehicle);
+        if (slot != -1) {
+            writeBack(slot);
+        }
+    }
+
+    /**
+     * The velocity of a cart as it is currently simulated, which may be ahead of its {@link RailVehicleComponent}.
+     */
+    public Vector3f getVelocity(EntityRef railVehicle, Vector3f dest) {
+        int slot = cartStates.indexOf(railVehicle);
+        if (slot != -1) {
+            return cartStates.getVelocity(slot, dest);
+        }
+        return dest.set(railVehicle.getComponent(RailVehicleComponent.class).velocity);
+    }
+
+    /**
+     * Changes the velocity of a cart.
+     * <p>
+     * For attached carts the change is only recorded in the simulated state and saved together with everything else
+     * during the write-back stage, instead of saving {@link RailVehicleComponent} once per change. This does not wake
+     * a sleeping cart, see {@link #wakeCart(EntityRef)}.
+     */
+    public void setVelocity(EntityRef railVehicle, Vector3fc velocity) {
+        int slot = cartStates.indexOf(railVehicle);
+        if (slot != -1) {
+            cartStates.setVelocity(slot, velocity);
+            return;
+        }
+        RailVehicleComponent railVehicleComponent = railVehicle.getComponent(RailVehicleComponent.class);
+        if (!Util.bitwiseEquals(railVehicleComponent.velocity, velocity)) {
+            railVehicleComponent.velocity.set(velocity);
+            railVehicle.saveComponent(railVehicleComponent);
+        }
+    }
+
+    /**
+     * Solves the joints of the trains {@link CartJointSystem} gathered for this step on the simulated state, then wakes
+     * the carts the joints pulled on.
+     */
+    void solveTrains(CartTrains trains, float delta, int iterations) {
+        if (parallelIntegration && trains.getCartCount() >= parallelThreshold) {
+            parallelIntegrator.solveTrains(trains, cartStates, delta, iterations);
         } else {
-            if (railVehicleComponent.velocity.length() > Constants.VELOCITY_CAP) {
-                railVehicleComponent.velocity.normalize().mul(Constants.VELOCITY_CAP);
+            CartParallelIntegrator.solveTrainRange(trains, cartStates, trainSolver, delta, iterations, 0,
+                    trains.size());
+        }
+        for (int cart = 0; cart < trains.getCartCount(); cart++) {
+            if (trains.isPulled(cart)) {
+                cartStates.wake(trains.getSlot(cart));
             }
+        }
+    }
 
-            if (pathFollowerSystem.isVehicleValid(railVehicle)) {
-                Vector3f position = pathFollowerSystem.vehiclePoint(railVehicle);
-                position.y = position.y + .01f;
+    /**
+     * The simulated state of the attached carts, for the systems stepped together with this one.
+     */
+    CartStateStore getCartStates() {
+        return cartStates;
+    }
 
-                Vector3f normal = pathFollowerSystem.vehicleNormal(railVehicle);
-                Vector3f tangent = pathFollowerSystem.vehicleTangent(railVehicle);
-                Vector3f gravity = new Vector3f(0, -1, 0).mul(Constants.GRAVITY).mul(delta);
+    /**
+     * Whether the cart is attached to a track and simulated by this system.
+     */
+    public boolean isOnTrack(EntityRef railVehicle) {
+        return cartStates.contains(railVehicle);
+    }
 
-                railVehicleComponent.velocity.add(Util.project(gravity, tangent, new Vector3f()));
+    /**
+     * Adds the attached carts whose block is in the given chunk to {@code dest}, going by the positions in the store
+     * rather than through the entity manager.
+     */
+    public void getCartsInChunk(Vector3ic chunk, Collection<EntityRef> dest) {
+        for (int slot = 0; slot < cartStates.size(); slot++) {
+            cartStates.getPosition(slot, position);
+            if (Math.floorDiv(Math.round(position.x), Chunks.SIZE_X) == chunk.x()
+                    && Math.floorDiv(Math.round(position.y), Chunks.SIZE_Y) == chunk.y()
+                    && Math.floorDiv(Math.round(position.z), Chunks.SIZE_Z) == chunk.z()) {
+                dest.add(cartStates.getEntity(slot));
+            }
+        }
+    }
 
-                //apply some friction based off the gravity vector projected on the normal multiplied against a
-                // friction coff
-                RailComponent rail = segmentVehicleComponent.segmentMeta.association.getComponent(RailComponent.class);
-                Vector3f friction = Util.project(normal, gravity, new Vector3f()).mul(-1).mul(rail.frictionCoefficient);
+    /**
+     * Whether a collision between two carts is resolved along the track by this system rather than through the physics
+     * engine, which is the case if both are attached and head along the same line. Carts meeting at a crossing or
+     * junction at an angle are not.
+     */
+    public boolean resolvesContact(EntityRef railVehicle, EntityRef other) {
+        int slot = cartStates.indexOf(railVehicle);
+        int otherSlot = cartStates.indexOf(other);
+        return slot != -1 && otherSlot != -1
+                && cartStates.areAligned(slot, otherSlot, Constants.CART_CONTACT_ALIGNMENT);
+    }
 
-                float mag = railVehicleComponent.velocity.length() - friction.length();
-                //make sure the magnitude is not less then zero when the friction value is subtracted off of the
-                // velocity
-                if (mag < 0) {
-                    mag = 0;
-                }
+    /**
+     * Takes an attached cart out of the simulation without detaching it, after writing its state back into its
+     * components. The cart is picked up again on the next update unless it is marked as hibernating.
+     *
+     * @return whether the cart was simulated by this system
+     */
+    public boolean releaseCart(EntityRef railVehicle) {
+        int slot = cartStates.indexOf(railVehicle);
+        if (slot == -1) {
+            return false;
+        }
+        saveLocation(slot);
+        writeBack(slot);
+        removeSnapshot(railVehicle);
+        replicateChanges(railVehicle, true);
+        cartStates.remove(railVehicle);
+        detachedCarts.add(railVehicle);
+        railsReplaySystem.released(railVehicle);
+        return true;
+    }
 
-                //apply the new velocity to the rail component
-                railVehicleComponent.velocity = Util.project(railVehicleComponent.velocity,
-                        segmentVehicleComponent.heading, new Vector3f()).normalize().mul(mag);
+    /**
+     * Puts a sleeping cart back into the simulation.
+     * <p>
+     * Carts resting on level track are taken out of the integration loop until something disturbs them; any system
+     * that pushes, pulls or otherwise changes an attached cart is expected to wake it.
+     */
+    public void wakeCart(EntityRef railVehicle) {
+        int slot = cartStates.indexOf(railVehicle);
+        if (slot != -1) {
+            cartStates.wake(slot);
+        }
+    }
 
-                //make sure the value is not nan or infinite
-                //occurs when the cart hits a perpendicular segment.
-                //currently, the vehicle and its axle are the same components
-                if (!railVehicleComponent.velocity.isFinite()) {
-                    railVehicleComponent.velocity.set(0);
-                }
-                if (pathFollowerSystem.move(railVehicle,
-                        Math.signum(segmentVehicleComponent.heading.dot(railVehicleComponent.velocity)) * mag * delta
-                        , segmentMapping)) {
-
-                    if (railVehicleComponent.backAxisOffset == 0.0f && railVehicleComponent.frontAxisOffset == 0.0f) {
-                        location.setWorldRotation(Util.rotation(segmentVehicleComponent.heading));
-                        location.setWorldPosition(position);
-                    } else {
-                        Vector3f frontAxisPosition = pathFollowerSystem.vehiclePoint(railVehicle,
-                                railVehicleComponent.frontAxisOffset, segmentMapping);
-                        Vector3f backAxisPosition = pathFollowerSystem.vehiclePoint(railVehicle,
-                                railVehicleComponent.backAxisOffset, segmentMapping);
-                        if (frontAxisPosition == null || backAxisPosition == null) {
-                            location.setWorldRotation(Util.rotation(segmentVehicleComponent.heading));
-                            location.setWorldPosition(position);
-                        } else {
-                            Vector3f dir = frontAxisPosition.sub(backAxisPosition, new Vector3f()).normalize();
-                            location.setWorldPosition(backAxisPosition.add(new Vector3f(dir).mul(-railVehicleComponent.backAxisOffset)));
-                            location.setWorldRotation(Util.rotation(dir.normalize()));
-                        }
-                    }
+    /**
+     * Picks up changes other systems made to an attached cart, e.g. impulses applied to its velocity.
+     */
+    @ReceiveEvent
+    public void onRailVehicleChanged(OnChangedComponent event, EntityRef railVehicle,
+                                     RailVehicleComponent railVehicleComponent) {
+        if (writingBack) {
+            return;
+        }
+        int slot = cartStates.indexOf(railVehicle);
+        if (slot != -1) {
+            readState(slot, railVehicleComponent);
+            if (railVehicleComponent.velocity.lengthSquared() > Constants.CART_SLEEP_VELOCITY * Constants.CART_SLEEP_VELOCITY) {
+                cartStates.wake(slot);
+            }
+        }
+    }
 
-                    rigidBodyComponent.kinematic = true;
-                } else {
-                    detachFromRail(railVehicle);
+    /**
+     * Wakes sleeping carts resting on or next to a block that changed, e.g. when the rail under them is removed.
+     */
+    @ReceiveEvent(components = {BlockComponent.class})
+    public void onBlockChanged(OnChangedBlock event, EntityRef blockEntity) {
+        railProfiles.invalidate(blockEntity);
+        Vector3ic changed = event.getBlockPosition();
+        cartStates.wakeAround(changed.x(), changed.y(), changed.z());
+    }
+
+    /**
+     * Works out the profiles of a rail when it is placed or its chunk is loaded.
+     */
+    @ReceiveEvent(components = {RailComponent.class, BlockComponent.class})
+    public void onRailActivated(OnActivatedComponent event, EntityRef railBlock) {
+        railProfiles.precompute(railBlock);
+    }
+
+    @ReceiveEvent(components = {RailComponent.class, BlockComponent.class})
+    public void onRailChanged(OnChangedComponent event, EntityRef railBlock) {
+        railProfiles.invalidate(railBlock);
+    }
+
+    @ReceiveEvent(components = {RailComponent.class, BlockComponent.class})
+    public void onRailDeactivated(BeforeDeactivateComponent event, EntityRef railBlock) {
+        railProfiles.invalidate(railBlock);
+    }
+
+    @ReceiveEvent(components = {RailVehicleComponent.class, RigidBodyComponent.class})
+    public void onRailVehicleActivated(OnActivatedComponent event, EntityRef railVehicle) {
+        if (!cartStates.contains(railVehicle)) {
+            detachedCarts.add(railVehicle);
+        }
+    }
+
+    @ReceiveEvent(components = {RailVehicleComponent.class})
+    public void onRailVehicleDeactivated(BeforeDeactivateComponent event, EntityRef railVehicle) {
+        cartStates.remove(railVehicle);
+        detachedCarts.remove(railVehicle);
+        attachPoller.forget(railVehicle);
+    }
+
+    /**
+     * Takes a cart out of the store when it loses its path, e.g. because another system detached it. If the whole
+     * cart is deactivated instead, the next update drops it from the detached carts again.
+     */
+    @ReceiveEvent(components = {PathFollowerComponent.class})
+    public void onPathFollowerDeactivated(BeforeDeactivateComponent event, EntityRef railVehicle) {
+        if (cartStates.remove(railVehicle)) {
+            detachedCarts.add(railVehicle);
+        }
+    }
+
+    /**
+     * @return whether the cart is attached now
+     */
+    private boolean updateDetachedCart(EntityRef railVehicle) {
+        RailVehicleComponent railVehicleComponent = railVehicle.getComponent(RailVehicleComponent.class);
+
+        if (railVehicle.hasComponent(PathFollowerComponent.class)) {
+            // attached before this system saw it, e.g. loaded from a save game
+            attachPoller.forget(railVehicle);
+            int slot = cartStates.add(railVehicle);
+            readState(slot, railVehicleComponent);
+            LocationComponent location = railVehicle.getComponent(LocationComponent.class);
+            cartStates.setPosition(slot, location.getWorldPosition(position));
+            cartStates.setHeading(slot, railVehicle.getComponent(PathFollowerComponent.class).heading);
+            cartStates.setMass(slot, railVehicle.getComponent(RigidBodyComponent.class).mass);
+            replicateChanges(railVehicle, !clientPrediction);
+            railsReplaySystem.attached(railVehicle);
+            return true;
+        }
+
+        if (!autoAttach || railVehicleComponent.lastDetach + 1.5f > time.getGameTime()) {
+            return false;
+        }
+
+        LocationComponent location = railVehicle.getComponent(LocationComponent.class);
+        RigidBodyComponent rigidBodyComponent = railVehicle.getComponent(RigidBodyComponent.class);
+
+        // only carts right above a loaded rail block are worth a ray-trace, and resting carts are checked less often
+        location.getWorldPosition(position);
+        if (!attachPoller.shouldPoll(railVehicle, time.getGameTime(), position)
+                || !railGraphSystem.getRailPositions().hasRailBelow(position, Constants.CART_ATTACH_DISTANCE)) {
+            return false;
+        }
+
+        //checks to see if the cart hits a rail segment
+        metrics.increment(RailsMetrics.Counter.ATTACH_RAY_TRACES);
+        HitResult hit = physics.rayTrace(position, direction.set(0, -1, 0), Constants.CART_ATTACH_DISTANCE,
+                StandardCollisionGroup.DEFAULT, StandardCollisionGroup.WORLD);
+        if (hit == null || hit.getBlockPosition() == null) {
+            return false;
+        }
+
+        EntityRef ref = blockEntityRegistry.getBlockEntityAt(hit.getBlockPosition());
+
+        //attach cart to rail segment
+        if (ref.hasComponent(RailComponent.class)) {
+            PathFollowerComponent segmentVehicleComponent = new PathFollowerComponent();
+
+            Prefab prefab = ref.getComponent(PathDescriptorComponent.class).descriptors.get(0);
+            Segment segment = segmentCacheSystem.getSegment(prefab);
+
+            // the world position of the cart is still in the position scratch vector from the poll above
+            Vector3f segmentOrigin = segmentSystem.segmentPosition(ref);
+            Quaternionf segmentRotation = segmentSystem.segmentRotation(ref);
+
+            float segmentPosition = segment.nearestSegmentPosition(position, segmentOrigin, segmentRotation);
+
+
+            segmentVehicleComponent.segmentMeta = new SegmentMeta(segmentPosition, ref, prefab);
+            railVehicle.addComponent(segmentVehicleComponent);
+            segmentVehicleComponent.heading = pathFollowerSystem.vehicleTangent(railVehicle);
+            rigidBodyComponent.collidesWith.remove(StandardCollisionGroup.WORLD);
+            rigidBodyComponent.kinematic = true;
+            railVehicleComponent.velocity = Util.project(segmentVehicleComponent.heading,
+                    rigidBodyComponent.velocity, new Vector3f());
+            if (!railVehicleComponent.velocity.isFinite()) {
+                railVehicleComponent.velocity.set(.001f);
+            }
+            railVehicle.addOrSaveComponent(segmentVehicleComponent);
+            railVehicle.saveComponent(railVehicleComponent);
+            railVehicle.saveComponent(rigidBodyComponent);
+
+            attachPoller.forget(railVehicle);
+            int slot = cartStates.add(railVehicle);
+            readState(slot, railVehicleComponent);
+            cartStates.setMass(slot, rigidBodyComponent.mass);
+            cartStates.setHeading(slot, segmentVehicleComponent.heading);
+            updateLocation(slot, railVehicle, segmentVehicleComponent.heading);
+            replicateChanges(railVehicle, !clientPrediction);
+            railsReplaySystem.attached(railVehicle);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the track geometry under an attached cart into the store, or detaches the cart if it lost its track.
+     *
+     * @return whether the cart is still attached
+     */
+    private boolean gatherTrackFrame(int slot) {
+        EntityRef railVehicle = cartStates.getEntity(slot);
+        if (!railVehicle.exists() || !pathFollowerSystem.isVehicleValid(railVehicle)) {
+            detachFromRail(railVehicle);
+            return false;
+        }
+
+        PathFollowerComponent segmentVehicleComponent = railVehicle.getComponent(PathFollowerComponent.class);
+        cartStates.setHeading(slot, segmentVehicleComponent.heading);
+
+        segmentSampler.tangent(railVehicle, 0, tangent);
+
+        // gravity along the track and friction are sampled from the profile of the rail, not projected per cart
+        SegmentMeta segmentMeta = segmentVehicleComponent.segmentMeta;
+        RailProfile profile = railProfiles.get(segmentMeta.association, segmentMeta.prefab);
+        cartStates.setTrackFrame(slot, tangent, profile.gravity(segmentMeta.position),
+                profile.friction(segmentMeta.position));
+        return true;
+    }
+
+    /**
+     * Pushes apart attached carts running into each other, using the same impulse as {@link CartImpulseSystem} but
+     * along the track and on the simulated velocities.
+     * <p>
+     * Each pair is resolved with the delta it was just moved by: the substep delta if either cart takes substeps, the
+     * full step otherwise.
+     *
+     * @param substepsOnly only resolve pairs of which at least one cart takes the remaining substeps of this step
+     */
+    private void resolveContacts(boolean substepsOnly) {
+        int contacts = broadphase.findContacts(cartStates, Constants.CART_CONTACT_LENGTH, Constants.CART_CONTACT_WIDTH,
+                Constants.CART_CONTACT_ALIGNMENT);
+        for (int contact = 0; contact < contacts; contact++) {
+            int slot = broadphase.getSlot(contact);
+            int other = broadphase.getOther(contact);
+            boolean substepping = cartStates.isSubstepping(slot) || cartStates.isSubstepping(other);
+            if (substepsOnly && !substepping
+                    || CartImpulseSystem.areJoinedTogether(cartStates.getEntity(slot), cartStates.getEntity(other))) {
+                continue;
+            }
+            float delta = substepping ? substepDelta : stepDelta;
+
+            broadphase.getNormal(contact, contactNormal);
+            cartStates.getVelocity(slot, velocity);
+            cartStates.getVelocity(other, otherVelocity);
+            float slotMass = cartStates.getMass(slot);
+            float otherMass = cartStates.getMass(other);
+
+            float jv = contactNormal.dot(velocity) - contactNormal.dot(otherVelocity);
+            float b = -(Constants.BAUMGARTE_COFF / delta) * broadphase.getPenetration(contact);
+            float effectiveMass = (1.0f / slotMass) + (1.0f / otherMass);
+            float lambda = -(jv + b) / effectiveMass;
+            if (lambda > 0 || !Float.isFinite(lambda)) {
+                continue;
+            }
+
+            velocity.fma(lambda / slotMass, contactNormal);
+            otherVelocity.fma(-lambda / otherMass, contactNormal);
+            if (velocity.isFinite()) {
+                cartStates.setVelocity(slot, velocity);
+            }
+            if (otherVelocity.isFinite()) {
+                cartStates.setVelocity(other, otherVelocity);
+            }
+            cartStates.wake(slot);
+            cartStates.wake(other);
+            metrics.increment(RailsMetrics.Counter.CART_COLLISIONS);
+        }
+    }
+
+    private void applyMotion(int slot, float delta) {
+        EntityRef railVehicle = cartStates.getEntity(slot);
+        PathFollowerComponent segmentVehicleComponent = railVehicle.getComponent(PathFollowerComponent.class);
+        float distance = cartStates.getDistance(slot);
+        cartStates.deactivate(slot);
+
+        if (cartStates.isResting(slot, Constants.CART_SLEEP_VELOCITY * delta, Constants.CART_SLEEP_SLOPE)) {
+            if (cartStates.rest(slot) >= Constants.CART_SLEEP_TICKS) {
+                BlockComponent railBlock = segmentVehicleComponent.segmentMeta.association.getComponent(BlockComponent.class);
+                if (railBlock != null) {
+                    cartStates.sleep(slot, Util.packPosition(railBlock.getPosition()));
+                    writeBack(slot);
+                    return;
                 }
-            } else {
-                detachFromRail(railVehicle);
             }
+        } else {
+            cartStates.wake(slot);
+        }
+
+        if (!pathFollowerSystem.move(railVehicle, distance, segmentMapping)) {
+            detachFromRail(railVehicle);
+            return;
+        }
+        cartStates.setHeading(slot, segmentVehicleComponent.heading);
+        cartStates.setSegmentPosition(slot, segmentVehicleComponent.segmentMeta.position);
+
+        // a cart that did not move keeps the location from the last step
+        if (distance != 0) {
+            updateLocation(slot, railVehicle, segmentVehicleComponent.heading);
+        }
+    }
+
+    private void updateLocation(int slot, EntityRef railVehicle, Vector3fc heading) {
+        LocationComponent location = railVehicle.getComponent(LocationComponent.class);
+        boolean axles = cartStates.hasAxles(slot)
+                && segmentSampler.point(railVehicle, cartStates.getFrontAxisOffset(slot), frontAxisPosition) != null
+                && segmentSampler.point(railVehicle, cartStates.getBackAxisOffset(slot), backAxisPosition) != null;
+
+        if (!axles) {
+            segmentSampler.point(railVehicle, 0, position).add(0, .01f, 0);
+            Util.rotation(heading, rotation);
+        } else {
+            frontAxisPosition.sub(backAxisPosition, direction).normalize();
+            backAxisPosition.fma(-cartStates.getBackAxisOffset(slot), direction, position);
+            Util.rotation(direction, rotation);
+        }
+
+        if (Util.bitwiseEquals(location.getWorldPosition(savedPosition), position)
+                && Util.bitwiseEquals(location.getWorldRotation(savedRotation), rotation)) {
+            cartStates.setPosition(slot, savedPosition);
+            return;
+        }
+        location.setWorldRotation(rotation);
+        location.setWorldPosition(position);
+        cartStates.setPosition(slot, location.getWorldPosition(position));
+        cartStates.markMoved(slot);
+    }
 
-            railVehicle.saveComponent(location);
+    private void saveLocation(int slot) {
+        if (!cartStates.isMoved(slot)) {
+            return;
+        }
+        EntityRef railVehicle = cartStates.getEntity(slot);
+        railVehicle.saveComponent(railVehicle.getComponent(LocationComponent.class));
+        cartStates.clearMoved(slot);
+    }
+
+    private void readState(int slot, RailVehicleComponent railVehicleComponent) {
+        cartStates.setVelocity(slot, railVehicleComponent.velocity);
+        cartStates.setAxisOffsets(slot, railVehicleComponent.frontAxisOffset, railVehicleComponent.backAxisOffset);
+        cartStates.markClean(slot);
+    }
+
+    private void writeBack(int slot) {
+        if (!cartStates.isDirty(slot)) {
+            return;
+        }
+        EntityRef railVehicle = cartStates.getEntity(slot);
+        RailVehicleComponent railVehicleComponent = railVehicle.getComponent(RailVehicleComponent.class);
+        cartStates.getVelocity(slot, railVehicleComponent.velocity);
+        cartStates.markClean(slot);
+
+        writingBack = true;
+        try {
             railVehicle.saveComponent(railVehicleComponent);
-            railVehicle.saveComponent(rigidBodyComponent);
+        } finally {
+            writingBack = false;
+        }
+    }
+
+    private void writeSnapshot(int slot) {
+        EntityRef railVehicle = cartStates.getEntity(slot);
+        SegmentMeta segmentMeta = railVehicle.getComponent(PathFollowerComponent.class).segmentMeta;
+        cartStates.getHeading(slot, direction);
+        float headingLength = direction.length();
+        float speed = headingLength == 0 ? 0 : cartStates.getVelocity(slot, velocity).dot(direction) / headingLength;
+        int encodedPosition = CartTrackEncoding.encodePosition(segmentMeta.position);
+        int encodedSpeed = CartTrackEncoding.encodeSpeed(speed);
+
+        CartTrackStateComponent trackState = railVehicle.getComponent(CartTrackStateComponent.class);
+        if (trackState == null) {
+            trackState = new CartTrackStateComponent();
+        } else if (trackState.association.equals(segmentMeta.association) && trackState.descriptor == segmentMeta.prefab
+                && trackState.segmentPosition == encodedPosition && trackState.speed == encodedSpeed) {
+            // nothing the client could tell apart from the last snapshot, e.g. a sleeping cart
+            return;
+        }
+        trackState.association = segmentMeta.association;
+        trackState.descriptor = segmentMeta.prefab;
+        trackState.segmentPosition = encodedPosition;
+        trackState.reversed = segmentSampler.tangent(railVehicle, 0, tangent) != null && tangent.dot(direction) < 0;
+        trackState.speed = encodedSpeed;
+        railVehicle.addOrSaveComponent(trackState);
+    }
 
+    /**
+     * Sets whether changes to the transform and velocity of a cart are sent to clients. Both components are still
+     * replicated in full when a client first sees the cart. Turning replication back on sends the current state once.
+     */
+    private void replicateChanges(EntityRef railVehicle, boolean replicate) {
+        LocationComponent location = railVehicle.getComponent(LocationComponent.class);
+        RailVehicleComponent railVehicleComponent = railVehicle.getComponent(RailVehicleComponent.class);
+        if (location == null || railVehicleComponent == null
+                || location.replicateChanges == replicate && railVehicleComponent.replicateChanges == replicate) {
+            return;
+        }
+        location.replicateChanges = replicate;
+        railVehicleComponent.replicateChanges = replicate;
+        if (!replicate) {
+            return;
+        }
+        int slot = cartStates.indexOf(railVehicle);
+        if (slot != -1) {
+            cartStates.getVelocity(slot, railVehicleComponent.velocity);
+            cartStates.markClean(slot);
+        }
+        railVehicle.saveComponent(location);
+        writingBack = true;
+        try {
+            railVehicle.saveComponent(railVehicleComponent);
+        } finally {
+            writingBack = false;
+        }
+    }
+
+    private void removeSnapshot(EntityRef railVehicle) {
+        if (railVehicle.hasComponent(CartTrackStateComponent.class)) {
+            railVehicle.removeComponent(CartTrackStateComponent.class);
         }
     }
 
     private void detachFromRail(EntityRef vehicle) {
+        int slot = cartStates.indexOf(vehicle);
+        if (slot != -1 && vehicle.exists()) {
+            saveLocation(slot);
+            writeBack(slot);
+            replicateChanges(vehicle, true);
+        }
+        cartStates.remove(vehicle);
+        metrics.increment(RailsMetrics.Counter.DETACHES);
+        if (!vehicle.exists()) {
+            return;
+        }
+        detachedCarts.add(vehicle);
+
         RigidBodyComponent rigidBodyComponent = vehicle.getComponent(RigidBodyComponent.class);
         RailVehicleComponent railVehicleComponent = vehicle.getComponent(RailVehicleComponent.class);
 
         //change the rigidbody into a non kinematic body and remove the PathFollowerComponent
         rigidBodyComponent.kinematic = false;
         vehicle.removeComponent(PathFollowerComponent.class);
+        removeSnapshot(vehicle);
         rigidBodyComponent.velocity = new Vector3f(railVehicleComponent.velocity);
         rigidBodyComponent.collidesWith.add(StandardCollisionGroup.WORLD);
 
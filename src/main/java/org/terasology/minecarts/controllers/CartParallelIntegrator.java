@@ -0,0 +1,131 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the two numeric phases of a step of the rail physics on a fork-join pool: solving the joints of every train,
+ * and integrating the active carts of a {@link CartStateStore}.
+ * <p>
+ * Each train of {@link CartTrains} is an island whose joint solve only touches the slots of its own carts, and
+ * {@link CartStateStore#integrate(int, float, float)} only touches the arrays of its own slot. Tasks therefore need no
+ * coordination beyond the join at the end of each phase, and the result is the same as running the trains and slots
+ * one after the other on the main thread. Everything that touches entities, and waking the carts the joints pulled
+ * on, happens between the phases on the main thread in a fixed order.
+ * <p>
+ * Tasks are split until they hold at most {@link #SLOTS_PER_TASK} carts, so they only share a cache line at their
+ * borders.
+ */
+public class CartParallelIntegrator {
+    /**
+     * Ranges of slots and of trains are split until they hold at most this many carts.
+     */
+    static final int SLOTS_PER_TASK = 1024;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<CartTrainSolver> trainSolvers = ThreadLocal.withInitial(CartTrainSolver::new);
+
+    public CartParallelIntegrator(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Integrates every active cart, with the substep delta for carts taking substeps and the step delta otherwise.
+     */
+    public void integrate(CartStateStore store, float velocityCap, float stepDelta, float substepDelta) {
+        if (store.size() > 0) {
+            pool.invoke(new RangeTask(store, velocityCap, stepDelta, substepDelta, 0, store.size()));
+        }
+    }
+
+    /**
+     * Solves the joints of every train, each train on a single thread.
+     */
+    public void solveTrains(CartTrains trains, CartStateStore store, float delta, int iterations) {
+        if (trains.size() > 0) {
+            pool.invoke(new TrainTask(trains, store, delta, iterations, 0, trains.size()));
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    static void integrateRange(CartStateStore store, float velocityCap, float stepDelta, float substepDelta,
+                               int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            if (store.isActive(slot)) {
+                store.integrate(slot, velocityCap, store.isSubstepping(slot) ? substepDelta : stepDelta);
+            }
+        }
+    }
+
+    static void solveTrainRange(CartTrains trains, CartStateStore store, CartTrainSolver solver, float delta,
+                                int iterations, int from, int to) {
+        for (int train = from; train < to; train++) {
+            solver.solve(trains, train, store, delta, iterations);
+        }
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final CartStateStore store;
+        private final float velocityCap;
+        private final float stepDelta;
+        private final float substepDelta;
+        private final int from;
+        private final int to;
+
+        RangeTask(CartStateStore store, float velocityCap, float stepDelta, float substepDelta, int from, int to) {
+            this.store = store;
+            this.velocityCap = velocityCap;
+            this.stepDelta = stepDelta;
+            this.substepDelta = substepDelta;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SLOTS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(store, velocityCap, stepDelta, substepDelta, from, middle),
+                        new RangeTask(store, velocityCap, stepDelta, substepDelta, middle, to));
+                return;
+            }
+            integrateRange(store, velocityCap, stepDelta, substepDelta, from, to);
+        }
+    }
+
+    private final class TrainTask extends RecursiveAction {
+        private final CartTrains trains;
+        private final CartStateStore store;
+        private final float delta;
+        private final int iterations;
+        private final int from;
+        private final int to;
+
+        TrainTask(CartTrains trains, CartStateStore store, float delta, int iterations, int from, int to) {
+            this.trains = trains;
+            this.store = store;
+            this.delta = delta;
+            this.iterations = iterations;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int carts = trains.getEndCart(to - 1) - trains.getFirstCart(from);
+            if (to - from > 1 && carts > SLOTS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TrainTask(trains, store, delta, iterations, from, middle),
+                        new TrainTask(trains, store, delta, iterations, middle, to));
+                return;
+            }
+            solveTrainRange(trains, store, trainSolvers.get(), delta, iterations, from, to);
+        }
+    }
+}
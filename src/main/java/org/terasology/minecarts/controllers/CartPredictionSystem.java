@@ -0,0 +1,206 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnAddedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.network.NetworkSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.world.BlockEntityRegistry;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.minecarts.Constants;
+import org.terasology.minecarts.Util;
+import org.terasology.minecarts.blocks.RailBlockSegmentMapper;
+import org.terasology.minecarts.blocks.RailGraphSystem;
+import org.terasology.minecarts.blocks.RailSegmentSampler;
+import org.terasology.minecarts.components.CartTrackStateComponent;
+import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.segmentedpaths.SegmentMeta;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+import org.terasology.segmentedpaths.controllers.PathFollowerSystem;
+import org.terasology.segmentedpaths.controllers.SegmentCacheSystem;
+import org.terasology.segmentedpaths.controllers.SegmentSystem;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves carts along their track on clients in between the {@link CartTrackStateComponent} snapshots of the server.
+ * <p>
+ * Every snapshot restarts the prediction of a cart from the authoritative track position and speed. The cart is then
+ * advanced along its path locally each frame, and the jump between where it was shown and where the snapshot puts it is
+ * blended out over {@link Constants#CART_PREDICTION_CORRECTION_TIME} instead of snapping.
+ */
+@RegisterSystem(RegisterMode.CLIENT)
+public class CartPredictionSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    @In
+    protected NetworkSystem networkSystem;
+    @In
+    protected PathFollowerSystem pathFollowerSystem;
+    @In
+    protected SegmentSystem segmentSystem;
+    @In
+    protected SegmentCacheSystem segmentCacheSystem;
+    @In
+    protected RailGraphSystem railGraphSystem;
+    @In
+    protected BlockEntityRegistry blockEntityRegistry;
+
+    private RailBlockSegmentMapper segmentMapping;
+    private RailSegmentSampler segmentSampler;
+    private final Map<EntityRef, Prediction> predictions = new HashMap<>();
+
+    private final Vector3f position = new Vector3f();
+    private final Vector3f direction = new Vector3f();
+    private final Vector3f frontAxisPosition = new Vector3f();
+    private final Vector3f backAxisPosition = new Vector3f();
+    private final Quaternionf rotation = new Quaternionf();
+
+    @Override
+    public void initialise() {
+        segmentMapping = new RailBlockSegmentMapper(blockEntityRegistry, pathFollowerSystem, segmentSystem,
+                segmentCacheSystem, railGraphSystem.getRailGraph());
+        segmentSampler = new RailSegmentSampler(pathFollowerSystem, segmentSystem, segmentCacheSystem, segmentMapping,
+                railGraphSystem.getSegmentSamples());
+    }
+
+    @Override
+    public void shutdown() {
+        predictions.clear();
+    }
+
+    @ReceiveEvent
+    public void onSnapshotAdded(OnAddedComponent event, EntityRef railVehicle, CartTrackStateComponent trackState) {
+        applySnapshot(railVehicle, trackState);
+    }
+
+    @ReceiveEvent
+    public void onSnapshotChanged(OnChangedComponent event, EntityRef railVehicle, CartTrackStateComponent trackState) {
+        applySnapshot(railVehicle, trackState);
+    }
+
+    @ReceiveEvent(components = {CartTrackStateComponent.class})
+    public void onSnapshotRemoved(BeforeRemoveComponent event, EntityRef railVehicle) {
+        predictions.remove(railVehicle);
+    }
+
+    private void applySnapshot(EntityRef railVehicle, CartTrackStateComponent trackState) {
+        // a listen server simulates the carts itself
+        if (networkSystem.getMode().isAuthority()) {
+            return;
+        }
+        Prediction prediction = predictions.computeIfAbsent(railVehicle, key -> new Prediction());
+        prediction.segmentMeta.position = CartTrackEncoding.decodePosition(trackState.segmentPosition);
+        prediction.segmentMeta.association = trackState.association;
+        prediction.segmentMeta.prefab = trackState.descriptor;
+        prediction.reversed = trackState.reversed;
+        prediction.speed = CartTrackEncoding.decodeSpeed(trackState.speed);
+        prediction.resynced = true;
+    }
+
+    @Override
+    public void update(float delta) {
+        float decay = Math.max(0, 1 - delta / Constants.CART_PREDICTION_CORRECTION_TIME);
+        for (Map.Entry<EntityRef, Prediction> entry : predictions.entrySet()) {
+            EntityRef railVehicle = entry.getKey();
+            Prediction prediction = entry.getValue();
+            PathFollowerComponent pathFollower = railVehicle.getComponent(PathFollowerComponent.class);
+            LocationComponent location = railVehicle.getComponent(LocationComponent.class);
+            if (pathFollower == null || location == null) {
+                continue;
+            }
+
+            // advance from the predicted state, not from whatever transform the server sent last
+            pathFollower.segmentMeta = prediction.segmentMeta;
+            if (prediction.resynced) {
+                // the snapshot only tells which way along the segment the cart heads
+                Vector3f segmentTangent = pathFollowerSystem.vehicleTangent(railVehicle);
+                if (segmentTangent == null) {
+                    continue;
+                }
+                prediction.heading.set(segmentTangent).mul(prediction.reversed ? -1 : 1);
+            }
+            pathFollower.heading = prediction.heading;
+            if (!pathFollowerSystem.move(railVehicle, prediction.speed * delta, segmentMapping)) {
+                // ran past the track known to this client; wait for the next snapshot
+                prediction.speed = 0;
+                continue;
+            }
+            pathFollower = railVehicle.getComponent(PathFollowerComponent.class);
+            prediction.copyFrom(pathFollower);
+
+            predictPose(railVehicle);
+            if (prediction.resynced) {
+                prediction.resynced = false;
+                prediction.offset.set(prediction.shown).sub(position);
+                if (!prediction.hasShown || prediction.offset.lengthSquared()
+                        > Constants.CART_PREDICTION_SNAP_DISTANCE * Constants.CART_PREDICTION_SNAP_DISTANCE) {
+                    prediction.offset.zero();
+                }
+            }
+            prediction.offset.mul(decay);
+            position.add(prediction.offset);
+            prediction.shown.set(position);
+            prediction.hasShown = true;
+
+            location.setWorldPosition(position);
+            location.setWorldRotation(rotation);
+            railVehicle.saveComponent(location);
+        }
+    }
+
+    /**
+     * Places the cart on its path like the motion system of the server does.
+     */
+    private void predictPose(EntityRef railVehicle) {
+        RailVehicleComponent railVehicleComponent = railVehicle.getComponent(RailVehicleComponent.class);
+        boolean axles = railVehicleComponent != null
+                && (railVehicleComponent.frontAxisOffset != 0.0f || railVehicleComponent.backAxisOffset != 0.0f)
+                && segmentSampler.point(railVehicle, railVehicleComponent.frontAxisOffset, frontAxisPosition) != null
+                && segmentSampler.point(railVehicle, railVehicleComponent.backAxisOffset, backAxisPosition) != null;
+
+        if (!axles) {
+            segmentSampler.point(railVehicle, 0, position).add(0, .01f, 0);
+            Util.rotation(railVehicle.getComponent(PathFollowerComponent.class).heading, rotation);
+        } else {
+            frontAxisPosition.sub(backAxisPosition, direction).normalize();
+            backAxisPosition.fma(-railVehicleComponent.backAxisOffset, direction, position);
+            Util.rotation(direction, rotation);
+        }
+    }
+
+    private static final class Prediction {
+        final SegmentMeta segmentMeta = new SegmentMeta(0, EntityRef.NULL, null);
+        final Vector3f heading = new Vector3f();
+        boolean reversed;
+        float speed;
+        /**
+         * Difference between the position shown before the last snapshot and the predicted one, blended out over time.
+         */
+        final Vector3f offset = new Vector3f();
+        final Vector3f shown = new Vector3f();
+        boolean hasShown;
+        boolean resynced;
+
+        void copyFrom(PathFollowerComponent pathFollower) {
+            if (pathFollower.segmentMeta != segmentMeta) {
+                segmentMeta.position = pathFollower.segmentMeta.position;
+                segmentMeta.association = pathFollower.segmentMeta.association;
+                segmentMeta.prefab = pathFollower.segmentMeta.prefab;
+            }
+            if (pathFollower.heading != heading) {
+                heading.set(pathFollower.heading);
+            }
+        }
+    }
+}
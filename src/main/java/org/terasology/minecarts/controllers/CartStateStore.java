@@ -0,0 +1,573 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.minecarts.Util;
+
+import java.util.Arrays;
+
+/**
+ * Dense struct-of-arrays storage for the motion state of every cart that is attached to a rail.
+ * <p>
+ * Slots are packed: removing a cart moves the last slot into the freed one, so iterating {@code 0 .. size()} always
+ * visits live carts only. Slot indices are therefore not stable across {@link #remove(EntityRef)}.
+ * <p>
+ * The velocity is kept as a full vector rather than an along-track scalar because impulses from the joint and
+ * collision systems are applied in world space and only folded onto the track on the next integration step.
+ * <p>
+ * Sleeping carts are indexed by the rail block they rest on, so a block change only has to look at the carts around
+ * it, see {@link #wakeAround(int, int, int)}.
+ */
+public class CartStateStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final TObjectIntMap<EntityRef> slots = new TObjectIntHashMap<>(INITIAL_CAPACITY, 0.5f, -1);
+    // first sleeping slot by packed resting block, the others are linked through sleepingNext and sleepingPrevious
+    private final TLongIntMap sleepingHeads = new TLongIntHashMap(INITIAL_CAPACITY, 0.5f, Long.MIN_VALUE, -1);
+
+    private EntityRef[] entities = new EntityRef[INITIAL_CAPACITY];
+    private float[] segmentPosition = new float[INITIAL_CAPACITY];
+    private float[] velocityX = new float[INITIAL_CAPACITY];
+    private float[] velocityY = new float[INITIAL_CAPACITY];
+    private float[] velocityZ = new float[INITIAL_CAPACITY];
+    private float[] headingX = new float[INITIAL_CAPACITY];
+    private float[] headingY = new float[INITIAL_CAPACITY];
+    private float[] headingZ = new float[INITIAL_CAPACITY];
+    private float[] frontAxisOffset = new float[INITIAL_CAPACITY];
+    private float[] backAxisOffset = new float[INITIAL_CAPACITY];
+    private float[] mass = new float[INITIAL_CAPACITY];
+    private boolean[] dirty = new boolean[INITIAL_CAPACITY];
+    private boolean[] moved = new boolean[INITIAL_CAPACITY];
+    private int[] restTicks = new int[INITIAL_CAPACITY];
+    private boolean[] sleeping = new boolean[INITIAL_CAPACITY];
+    private long[] restingBlock = new long[INITIAL_CAPACITY];
+    private int[] sleepingNext = new int[INITIAL_CAPACITY];
+    private int[] sleepingPrevious = new int[INITIAL_CAPACITY];
+    private float[] positionX = new float[INITIAL_CAPACITY];
+    private float[] positionY = new float[INITIAL_CAPACITY];
+    private float[] positionZ = new float[INITIAL_CAPACITY];
+    private float[] tangentX = new float[INITIAL_CAPACITY];
+    private float[] tangentY = new float[INITIAL_CAPACITY];
+    private float[] tangentZ = new float[INITIAL_CAPACITY];
+    private float[] gravity = new float[INITIAL_CAPACITY];
+    private float[] friction = new float[INITIAL_CAPACITY];
+    private float[] distance = new float[INITIAL_CAPACITY];
+    private boolean[] active = new boolean[INITIAL_CAPACITY];
+    private boolean[] substepping = new boolean[INITIAL_CAPACITY];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(EntityRef entity) {
+        return slots.containsKey(entity);
+    }
+
+    /**
+     * @return the slot of the cart, or -1 if the cart is not stored
+     */
+    public int indexOf(EntityRef entity) {
+        return slots.get(entity);
+    }
+
+    /**
+     * Adds a cart with zeroed state, or returns its existing slot if it is already stored.
+     */
+    public int add(EntityRef entity) {
+        int slot = slots.get(entity);
+        if (slot != -1) {
+            return slot;
+        }
+        if (size == entities.length) {
+            grow(size * 2);
+        }
+        slot = size++;
+        entities[slot] = entity;
+        segmentPosition[slot] = 0;
+        velocityX[slot] = 0;
+        velocityY[slot] = 0;
+        velocityZ[slot] = 0;
+        headingX[slot] = 0;
+        headingY[slot] = 0;
+        headingZ[slot] = 0;
+        frontAxisOffset[slot] = 0;
+        backAxisOffset[slot] = 0;
+        mass[slot] = 0;
+        dirty[slot] = false;
+        moved[slot] = false;
+        restTicks[slot] = 0;
+        sleeping[slot] = false;
+        active[slot] = false;
+        substepping[slot] = false;
+        slots.put(entity, slot);
+        return slot;
+    }
+
+    public boolean remove(EntityRef entity) {
+        int slot = slots.remove(entity);
+        if (slot == -1) {
+            return false;
+        }
+        if (sleeping[slot]) {
+            unlinkSleeping(slot);
+        }
+        int last = --size;
+        if (slot != last) {
+            copySlot(last, slot);
+            slots.put(entities[slot], slot);
+            if (sleeping[slot]) {
+                relinkSleeping(slot);
+            }
+        }
+        entities[last] = null;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(entities, 0, size, null);
+        slots.clear();
+        sleepingHeads.clear();
+        size = 0;
+    }
+
+    public EntityRef getEntity(int slot) {
+        return entities[slot];
+    }
+
+    public float getSegmentPosition(int slot) {
+        return segmentPosition[slot];
+    }
+
+    public void setSegmentPosition(int slot, float position) {
+        segmentPosition[slot] = position;
+    }
+
+    public Vector3f getVelocity(int slot, Vector3f dest) {
+        return dest.set(velocityX[slot], velocityY[slot], velocityZ[slot]);
+    }
+
+    public void setVelocity(int slot, Vector3fc velocity) {
+        setVelocity(slot, velocity.x(), velocity.y(), velocity.z());
+    }
+
+    public void setVelocity(int slot, float x, float y, float z) {
+        if (velocityX[slot] != x || velocityY[slot] != y || velocityZ[slot] != z) {
+            velocityX[slot] = x;
+            velocityY[slot] = y;
+            velocityZ[slot] = z;
+            dirty[slot] = true;
+        }
+    }
+
+    public Vector3f getHeading(int slot, Vector3f dest) {
+        return dest.set(headingX[slot], headingY[slot], headingZ[slot]);
+    }
+
+    public void setHeading(int slot, Vector3fc heading) {
+        headingX[slot] = heading.x();
+        headingY[slot] = heading.y();
+        headingZ[slot] = heading.z();
+    }
+
+    public float getFrontAxisOffset(int slot) {
+        return frontAxisOffset[slot];
+    }
+
+    public float getBackAxisOffset(int slot) {
+        return backAxisOffset[slot];
+    }
+
+    public void setAxisOffsets(int slot, float front, float back) {
+        frontAxisOffset[slot] = front;
+        backAxisOffset[slot] = back;
+    }
+
+    public float getMass(int slot) {
+        return mass[slot];
+    }
+
+    public void setMass(int slot, float cartMass) {
+        mass[slot] = cartMass;
+    }
+
+    public boolean hasAxles(int slot) {
+        return frontAxisOffset[slot] != 0.0f || backAxisOffset[slot] != 0.0f;
+    }
+
+    /**
+     * @return whether the velocity changed since the cart was last written back to its components
+     */
+    public boolean isDirty(int slot) {
+        return dirty[slot];
+    }
+
+    public void markClean(int slot) {
+        dirty[slot] = false;
+    }
+
+    /**
+     * @return whether the location of the cart changed since its {@code LocationComponent} was last saved
+     */
+    public boolean isMoved(int slot) {
+        return moved[slot];
+    }
+
+    public void markMoved(int slot) {
+        moved[slot] = true;
+    }
+
+    public void clearMoved(int slot) {
+        moved[slot] = false;
+    }
+
+    public boolean isSleeping(int slot) {
+        return sleeping[slot];
+    }
+
+    /**
+     * Counts another tick the cart spent at rest.
+     *
+     * @return the number of consecutive ticks the cart has been at rest
+     */
+    public int rest(int slot) {
+        return ++restTicks[slot];
+    }
+
+    /**
+     * Puts the cart to sleep on the rail block at the given packed position, see {@link Util#packPosition}.
+     */
+    public void sleep(int slot, long railBlock) {
+        if (sleeping[slot]) {
+            unlinkSleeping(slot);
+        }
+        sleeping[slot] = true;
+        restingBlock[slot] = railBlock;
+        linkSleeping(slot);
+        setVelocity(slot, 0, 0, 0);
+    }
+
+    /**
+     * Wakes the cart and restarts its count of resting ticks.
+     *
+     * @return whether the cart was asleep
+     */
+    public boolean wake(int slot) {
+        restTicks[slot] = 0;
+        if (sleeping[slot]) {
+            unlinkSleeping(slot);
+            sleeping[slot] = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Wakes all carts sleeping on the given block or one of the 26 blocks around it.
+     *
+     * @return the number of carts woken
+     */
+    public int wakeAround(int x, int y, int z) {
+        int woken = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    int slot = sleepingHeads.get(Util.packPosition(x + dx, y + dy, z + dz));
+                    while (slot != -1) {
+                        int next = sleepingNext[slot];
+                        wake(slot);
+                        woken++;
+                        slot = next;
+                    }
+                }
+            }
+        }
+        return woken;
+    }
+
+    /**
+     * Whether the cart barely moved in its last integration and rests on level track, which is when it may be put to
+     * sleep.
+     *
+     * @param restDistance the distance below which the cart counts as not moving
+     * @param maxSlope the maximum vertical component of the normalized track tangent for the track to count as level
+     */
+    public boolean isResting(int slot, float restDistance, float maxSlope) {
+        float tangentLength = (float) Math.sqrt(tangentX[slot] * tangentX[slot] + tangentY[slot] * tangentY[slot]
+                + tangentZ[slot] * tangentZ[slot]);
+        return Math.abs(distance[slot]) < restDistance && Math.abs(tangentY[slot]) < maxSlope * tangentLength;
+    }
+
+    /**
+     * @return the packed position of the rail block a sleeping cart rests on
+     */
+    public long getRestingBlock(int slot) {
+        return restingBlock[slot];
+    }
+
+    public Vector3f getPosition(int slot, Vector3f dest) {
+        return dest.set(positionX[slot], positionY[slot], positionZ[slot]);
+    }
+
+    public void setPosition(int slot, Vector3fc position) {
+        positionX[slot] = position.x();
+        positionY[slot] = position.y();
+        positionZ[slot] = position.z();
+    }
+
+    /**
+     * Whether two carts head along the same line, in the same or in opposite directions.
+     *
+     * @param minAlignment the minimum absolute cosine of the angle between the headings
+     */
+    public boolean areAligned(int slot, int other, float minAlignment) {
+        float dot = headingX[slot] * headingX[other] + headingY[slot] * headingY[other]
+                + headingZ[slot] * headingZ[other];
+        float lengthsSquared = (headingX[slot] * headingX[slot] + headingY[slot] * headingY[slot]
+                + headingZ[slot] * headingZ[slot])
+                * (headingX[other] * headingX[other] + headingY[other] * headingY[other]
+                + headingZ[other] * headingZ[other]);
+        return lengthsSquared > 0 && dot * dot >= minAlignment * minAlignment * lengthsSquared;
+    }
+
+    public float distanceSquared(int slot, int other) {
+        float dx = positionX[slot] - positionX[other];
+        float dy = positionY[slot] - positionY[other];
+        float dz = positionZ[slot] - positionZ[other];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Records the track under the cart for the next {@link #integrate(int, float, float)} and marks the cart as active
+     * for this tick.
+     *
+     * @param tangent the normalized tangent of the track
+     * @param gravityAcceleration the acceleration by gravity along the tangent, see {@code RailProfile}
+     * @param friction the deceleration by friction, taken off the speed in proportion to the time integrated
+     */
+    public void setTrackFrame(int slot, Vector3fc tangent, float gravityAcceleration, float friction) {
+        tangentX[slot] = tangent.x();
+        tangentY[slot] = tangent.y();
+        tangentZ[slot] = tangent.z();
+        gravity[slot] = gravityAcceleration;
+        this.friction[slot] = friction;
+        active[slot] = true;
+    }
+
+    public Vector3f getTangent(int slot, Vector3f dest) {
+        return dest.set(tangentX[slot], tangentY[slot], tangentZ[slot]);
+    }
+
+    /**
+     * @return whether the cart had its track frame gathered this tick
+     */
+    public boolean isActive(int slot) {
+        return active[slot];
+    }
+
+    public void deactivate(int slot) {
+        active[slot] = false;
+    }
+
+    /**
+     * @return whether the cart takes every substep of the current step, rather than a single step of full length
+     */
+    public boolean isSubstepping(int slot) {
+        return substepping[slot];
+    }
+
+    public void setSubstepping(int slot, boolean substepping) {
+        this.substepping[slot] = substepping;
+    }
+
+    /**
+     * @return the distance computed by the last {@link #integrate(int, float, float)} of the cart
+     */
+    public float getDistance(int slot) {
+        return distance[slot];
+    }
+
+    /**
+     * Integrates gravity and rail friction into the velocity of a cart, folding the result onto the current heading.
+     *
+     * @see #integrate(int, float, float)
+     */
+    public float integrate(int slot, Vector3fc tangent, float gravityAcceleration, float friction, float velocityCap,
+                           float delta) {
+        setTrackFrame(slot, tangent, gravityAcceleration, friction);
+        return integrate(slot, velocityCap, delta);
+    }
+
+    /**
+     * Integrates gravity and rail friction into the velocity of a cart, folding the result onto the current heading.
+     * <p>
+     * This mirrors the original component based integration step for step: gravity along the tangent is added to the
+     * velocity, the friction of the rail times the delta is taken off the speed, and the resulting magnitude is
+     * re-applied along the heading. Since both scale with the delta, a step and the same step split into substeps slow
+     * a cart down by the same amount. Both gravity and friction are scalars sampled from the rail beforehand, see
+     * {@link #setTrackFrame(int, Vector3fc, float, float)}.
+     * <p>
+     * The step only touches the arrays of the given slot, so distinct slots may be integrated concurrently.
+     *
+     * @return the signed distance the cart has to travel along its heading in this step
+     */
+    public float integrate(int slot, float velocityCap, float delta) {
+        float vx = velocityX[slot];
+        float vy = velocityY[slot];
+        float vz = velocityZ[slot];
+
+        float speedSquared = vx * vx + vy * vy + vz * vz;
+        if (speedSquared > velocityCap * velocityCap) {
+            float scale = velocityCap / (float) Math.sqrt(speedSquared);
+            vx *= scale;
+            vy *= scale;
+            vz *= scale;
+        }
+
+        float tx = tangentX[slot];
+        float ty = tangentY[slot];
+        float tz = tangentZ[slot];
+
+        // velocity += project(gravity, tangent)
+        float tangentScale = gravity[slot] * delta;
+        vx += tx * tangentScale;
+        vy += ty * tangentScale;
+        vz += tz * tangentScale;
+
+        float mag = (float) Math.sqrt(vx * vx + vy * vy + vz * vz) - friction[slot] * delta;
+        if (mag < 0) {
+            mag = 0;
+        }
+
+        float hx = headingX[slot];
+        float hy = headingY[slot];
+        float hz = headingZ[slot];
+        float direction = Math.signum(vx * hx + vy * hy + vz * hz);
+        float headingLength = (float) Math.sqrt(hx * hx + hy * hy + hz * hz);
+        float speed = direction * mag / headingLength;
+
+        //make sure the value is not nan or infinite
+        //occurs when the cart hits a perpendicular segment.
+        if (!Float.isFinite(speed)) {
+            setVelocity(slot, 0, 0, 0);
+            distance[slot] = 0;
+            return 0;
+        }
+        setVelocity(slot, hx * speed, hy * speed, hz * speed);
+        distance[slot] = direction * mag * delta;
+        return distance[slot];
+    }
+
+    private void linkSleeping(int slot) {
+        int next = sleepingHeads.get(restingBlock[slot]);
+        sleepingNext[slot] = next;
+        sleepingPrevious[slot] = -1;
+        if (next != -1) {
+            sleepingPrevious[next] = slot;
+        }
+        sleepingHeads.put(restingBlock[slot], slot);
+    }
+
+    private void unlinkSleeping(int slot) {
+        int previous = sleepingPrevious[slot];
+        int next = sleepingNext[slot];
+        if (previous != -1) {
+            sleepingNext[previous] = next;
+        } else if (next != -1) {
+            sleepingHeads.put(restingBlock[slot], next);
+        } else {
+            sleepingHeads.remove(restingBlock[slot]);
+        }
+        if (next != -1) {
+            sleepingPrevious[next] = previous;
+        }
+    }
+
+    /**
+     * Points the neighbours of a sleeping cart that was just copied into the given slot at its new slot.
+     */
+    private void relinkSleeping(int slot) {
+        int previous = sleepingPrevious[slot];
+        int next = sleepingNext[slot];
+        if (previous != -1) {
+            sleepingNext[previous] = slot;
+        } else {
+            sleepingHeads.put(restingBlock[slot], slot);
+        }
+        if (next != -1) {
+            sleepingPrevious[next] = slot;
+        }
+    }
+
+    private void copySlot(int from, int to) {
+        entities[to] = entities[from];
+        segmentPosition[to] = segmentPosition[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        velocityZ[to] = velocityZ[from];
+        headingX[to] = headingX[from];
+        headingY[to] = headingY[from];
+        headingZ[to] = headingZ[from];
+        frontAxisOffset[to] = frontAxisOffset[from];
+        backAxisOffset[to] = backAxisOffset[from];
+        mass[to] = mass[from];
+        dirty[to] = dirty[from];
+        moved[to] = moved[from];
+        restTicks[to] = restTicks[from];
+        sleeping[to] = sleeping[from];
+        restingBlock[to] = restingBlock[from];
+        sleepingNext[to] = sleepingNext[from];
+        sleepingPrevious[to] = sleepingPrevious[from];
+        positionX[to] = positionX[from];
+        positionY[to] = positionY[from];
+        positionZ[to] = positionZ[from];
+        tangentX[to] = tangentX[from];
+        tangentY[to] = tangentY[from];
+        tangentZ[to] = tangentZ[from];
+        gravity[to] = gravity[from];
+        friction[to] = friction[from];
+        distance[to] = distance[from];
+        active[to] = active[from];
+        substepping[to] = substepping[from];
+    }
+
+    private void grow(int capacity) {
+        entities = Arrays.copyOf(entities, capacity);
+        segmentPosition = Arrays.copyOf(segmentPosition, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        velocityZ = Arrays.copyOf(velocityZ, capacity);
+        headingX = Arrays.copyOf(headingX, capacity);
+        headingY = Arrays.copyOf(headingY, capacity);
+        headingZ = Arrays.copyOf(headingZ, capacity);
+        frontAxisOffset = Arrays.copyOf(frontAxisOffset, capacity);
+        backAxisOffset = Arrays.copyOf(backAxisOffset, capacity);
+        mass = Arrays.copyOf(mass, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+        moved = Arrays.copyOf(moved, capacity);
+        restTicks = Arrays.copyOf(restTicks, capacity);
+        sleeping = Arrays.copyOf(sleeping, capacity);
+        restingBlock = Arrays.copyOf(restingBlock, capacity);
+        sleepingNext = Arrays.copyOf(sleepingNext, capacity);
+        sleepingPrevious = Arrays.copyOf(sleepingPrevious, capacity);
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        positionZ = Arrays.copyOf(positionZ, capacity);
+        tangentX = Arrays.copyOf(tangentX, capacity);
+        tangentY = Arrays.copyOf(tangentY, capacity);
+        tangentZ = Arrays.copyOf(tangentZ, capacity);
+        gravity = Arrays.copyOf(gravity, capacity);
+        friction = Arrays.copyOf(friction, capacity);
+        distance = Arrays.copyOf(distance, capacity);
+        active = Arrays.copyOf(active, capacity);
+        substepping = Arrays.copyOf(substepping, capacity);
+    }
+}
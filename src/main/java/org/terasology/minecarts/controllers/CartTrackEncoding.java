@@ -0,0 +1,40 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+/**
+ * Fixed-point encoding of the along-track state in {@link org.terasology.minecarts.components.CartTrackStateComponent}.
+ * <p>
+ * Integers close to zero take a single byte or two on the wire, where a float always takes four, and a cart that
+ * moved less than one step since the last snapshot does not change the encoded value at all, so it is not sent.
+ */
+public final class CartTrackEncoding {
+    /**
+     * Resolution of the position along a segment, in blocks.
+     */
+    public static final float POSITION_STEP = 1f / 1024;
+    /**
+     * Resolution of the speed along the track, in blocks per second.
+     */
+    public static final float SPEED_STEP = 1f / 256;
+
+    private CartTrackEncoding() {
+    }
+
+    public static int encodePosition(float segmentPosition) {
+        return Math.round(segmentPosition / POSITION_STEP);
+    }
+
+    public static float decodePosition(int segmentPosition) {
+        return segmentPosition * POSITION_STEP;
+    }
+
+    public static int encodeSpeed(float speed) {
+        return Math.round(speed / SPEED_STEP);
+    }
+
+    public static float decodeSpeed(int speed) {
+        return speed * SPEED_STEP;
+    }
+}
@@ -0,0 +1,228 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.terasology.minecarts.Constants;
+import org.terasology.minecarts.Util;
+
+import java.util.Arrays;
+
+/**
+ * Solves all joints of a train together with sequential impulses.
+ * <p>
+ * Each joint pulls its two carts along their own headings, like the pairwise impulse {@link CartJointSystem} used to
+ * apply once per joint and tick. Iterating over the whole chain lets an impulse at the head of a long train reach
+ * its tail within the same tick instead of travelling one joint per tick, which is what caused the rubber-banding.
+ * <p>
+ * The solver is reused between trains: call {@link #reset()}, add the carts and joints, {@link #solve(int)} and read
+ * back the velocities, or let {@link #solve(CartTrains, int, CartStateStore, float, int)} do all of it for a train
+ * of a {@link CartStateStore}. A solver holds the state of one train at a time, so every thread needs its own.
+ */
+public class CartTrainSolver {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int cartCount;
+    private float[] velocityX = new float[INITIAL_CAPACITY];
+    private float[] velocityY = new float[INITIAL_CAPACITY];
+    private float[] velocityZ = new float[INITIAL_CAPACITY];
+    private float[] inverseMass = new float[INITIAL_CAPACITY];
+
+    private int jointCount;
+    private int[] cartA = new int[INITIAL_CAPACITY];
+    private int[] cartB = new int[INITIAL_CAPACITY];
+    private float[] normalAX = new float[INITIAL_CAPACITY];
+    private float[] normalAY = new float[INITIAL_CAPACITY];
+    private float[] normalAZ = new float[INITIAL_CAPACITY];
+    private float[] normalBX = new float[INITIAL_CAPACITY];
+    private float[] normalBY = new float[INITIAL_CAPACITY];
+    private float[] normalBZ = new float[INITIAL_CAPACITY];
+    private float[] bias = new float[INITIAL_CAPACITY];
+    private float[] effectiveMass = new float[INITIAL_CAPACITY];
+    private float[] impulse = new float[INITIAL_CAPACITY];
+
+    // scratch vectors for building the joints of a train from the store
+    private final Vector3f normal = new Vector3f();
+    private final Vector3f otherPosition = new Vector3f();
+    private final Vector3f heading = new Vector3f();
+    private final Vector3f projectedNormal = new Vector3f();
+    private final Vector3f otherProjectedNormal = new Vector3f();
+    private final Vector3f velocity = new Vector3f();
+
+    public void reset() {
+        cartCount = 0;
+        jointCount = 0;
+    }
+
+    public int getCartCount() {
+        return cartCount;
+    }
+
+    public int getJointCount() {
+        return jointCount;
+    }
+
+    /**
+     * @return the index of the cart in this train
+     */
+    public int addCart(Vector3fc velocity, float mass) {
+        if (cartCount == velocityX.length) {
+            int capacity = cartCount * 2;
+            velocityX = Arrays.copyOf(velocityX, capacity);
+            velocityY = Arrays.copyOf(velocityY, capacity);
+            velocityZ = Arrays.copyOf(velocityZ, capacity);
+            inverseMass = Arrays.copyOf(inverseMass, capacity);
+        }
+        int cart = cartCount++;
+        velocityX[cart] = velocity.x();
+        velocityY[cart] = velocity.y();
+        velocityZ[cart] = velocity.z();
+        inverseMass[cart] = 1.0f / mass;
+        return cart;
+    }
+
+    /**
+     * Adds a joint between two carts.
+     *
+     * @param normalA the direction from b to a, projected onto the heading of a and normalized
+     * @param normalB the same direction projected onto the heading of b and normalized
+     * @param bias the velocity correction for the current deviation from the rest length of the joint
+     */
+    public void addJoint(int a, int b, Vector3fc normalA, Vector3fc normalB, float bias) {
+        if (jointCount == cartA.length) {
+            int capacity = jointCount * 2;
+            cartA = Arrays.copyOf(cartA, capacity);
+            cartB = Arrays.copyOf(cartB, capacity);
+            normalAX = Arrays.copyOf(normalAX, capacity);
+            normalAY = Arrays.copyOf(normalAY, capacity);
+            normalAZ = Arrays.copyOf(normalAZ, capacity);
+            normalBX = Arrays.copyOf(normalBX, capacity);
+            normalBY = Arrays.copyOf(normalBY, capacity);
+            normalBZ = Arrays.copyOf(normalBZ, capacity);
+            this.bias = Arrays.copyOf(this.bias, capacity);
+            effectiveMass = Arrays.copyOf(effectiveMass, capacity);
+            impulse = Arrays.copyOf(impulse, capacity);
+        }
+        int joint = jointCount++;
+        cartA[joint] = a;
+        cartB[joint] = b;
+        normalAX[joint] = normalA.x();
+        normalAY[joint] = normalA.y();
+        normalAZ[joint] = normalA.z();
+        normalBX[joint] = normalB.x();
+        normalBY[joint] = normalB.y();
+        normalBZ[joint] = normalB.z();
+        this.bias[joint] = bias;
+        effectiveMass[joint] = 1.0f / (inverseMass[a] + inverseMass[b]);
+        impulse[joint] = 0;
+    }
+
+    /**
+     * Runs the given number of Gauss-Seidel passes over all joints, alternating the direction of each pass so the
+     * head and the tail of the train converge equally fast.
+     */
+    public void solve(int iterations) {
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            if ((iteration & 1) == 0) {
+                for (int joint = 0; joint < jointCount; joint++) {
+                    solveJoint(joint);
+                }
+            } else {
+                for (int joint = jointCount - 1; joint >= 0; joint--) {
+                    solveJoint(joint);
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves the joints of one train with the velocities, positions and headings of its carts in the store, writes
+     * the new velocities back and marks the carts that joints pulled on, see {@link CartTrains#isPulled(int)}.
+     * <p>
+     * Only the slots of the carts of the train are read and written.
+     */
+    public void solve(CartTrains trains, int train, CartStateStore store, float delta, int iterations) {
+        int firstCart = trains.getFirstCart(train);
+        int endCart = trains.getEndCart(train);
+        int endJoint = trains.getEndJoint(train);
+        reset();
+        for (int cart = firstCart; cart < endCart; cart++) {
+            int slot = trains.getSlot(cart);
+            addCart(store.getVelocity(slot, velocity), store.getMass(slot));
+        }
+        for (int joint = trains.getFirstJoint(train); joint < endJoint; joint++) {
+            int slot = trains.getSlot(trains.getCartA(joint));
+            int otherSlot = trains.getSlot(trains.getCartB(joint));
+            store.getPosition(slot, normal).sub(store.getPosition(otherSlot, otherPosition));
+            float distance = normal.length();
+            Util.project(store.getHeading(slot, heading), normal, projectedNormal).normalize();
+            Util.project(store.getHeading(otherSlot, heading), normal, otherProjectedNormal).normalize();
+            float bias = (Constants.BAUMGARTE_COFF / delta) * (trains.getRestLength(joint) - distance);
+            addJoint(trains.getCartA(joint) - firstCart, trains.getCartB(joint) - firstCart, projectedNormal,
+                    otherProjectedNormal, bias);
+        }
+        if (jointCount == 0) {
+            return;
+        }
+
+        solve(iterations);
+
+        // a joint that is being pulled has to wake both carts, one that is at rest must let them sleep
+        for (int joint = 0; joint < jointCount; joint++) {
+            if (getVelocityChange(joint) > Constants.CART_SLEEP_VELOCITY) {
+                trains.markPulled(firstCart + cartA[joint]);
+                trains.markPulled(firstCart + cartB[joint]);
+            }
+        }
+        for (int cart = 0; cart < cartCount; cart++) {
+            getVelocity(cart, velocity);
+            if (!velocity.isFinite()) {
+                velocity.set(0);
+            }
+            store.setVelocity(trains.getSlot(firstCart + cart), velocity);
+        }
+    }
+
+    private void solveJoint(int joint) {
+        int a = cartA[joint];
+        int b = cartB[joint];
+        float relativeVelocity = velocityX[b] * normalBX[joint] + velocityY[b] * normalBY[joint]
+                + velocityZ[b] * normalBZ[joint]
+                - velocityX[a] * normalAX[joint] - velocityY[a] * normalAY[joint] - velocityZ[a] * normalAZ[joint];
+        float lambda = -(relativeVelocity + bias[joint]) * effectiveMass[joint];
+        if (!Float.isFinite(lambda)) {
+            return;
+        }
+        impulse[joint] += lambda;
+
+        float impulseA = lambda * inverseMass[a];
+        velocityX[a] -= normalAX[joint] * impulseA;
+        velocityY[a] -= normalAY[joint] * impulseA;
+        velocityZ[a] -= normalAZ[joint] * impulseA;
+        float impulseB = lambda * inverseMass[b];
+        velocityX[b] += normalBX[joint] * impulseB;
+        velocityY[b] += normalBY[joint] * impulseB;
+        velocityZ[b] += normalBZ[joint] * impulseB;
+    }
+
+    public Vector3f getVelocity(int cart, Vector3f dest) {
+        return dest.set(velocityX[cart], velocityY[cart], velocityZ[cart]);
+    }
+
+    /**
+     * @return the largest change of velocity the joint applied to either of its carts during the last solve
+     */
+    public float getVelocityChange(int joint) {
+        return Math.abs(impulse[joint]) * Math.max(inverseMass[cartA[joint]], inverseMass[cartB[joint]]);
+    }
+
+    public int getCartA(int joint) {
+        return cartA[joint];
+    }
+
+    public int getCartB(int joint) {
+        return cartB[joint];
+    }
+}
@@ -0,0 +1,137 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import java.util.Arrays;
+
+/**
+ * The trains of joined carts for one step of the rail physics, by their slots in a {@link CartStateStore}.
+ * <p>
+ * Every train is an island: solving its joints only reads and writes the slots of its own carts, so trains can be
+ * solved in any order or at the same time with the same result, see {@link CartTrainSolver#solve(CartTrains, int,
+ * CartStateStore, float, int)}. Waking carts changes state shared by all slots, so the solve only marks the carts a
+ * joint pulled on and the caller wakes them afterwards.
+ * <p>
+ * Carts and joints are numbered across all trains; the carts and joints of a train are a contiguous range of them.
+ */
+public class CartTrains {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int trainCount;
+    private int[] firstCart = new int[INITIAL_CAPACITY];
+    private int[] firstJoint = new int[INITIAL_CAPACITY];
+
+    private int cartCount;
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private boolean[] pulled = new boolean[INITIAL_CAPACITY];
+
+    private int jointCount;
+    private int[] cartA = new int[INITIAL_CAPACITY];
+    private int[] cartB = new int[INITIAL_CAPACITY];
+    private float[] restLength = new float[INITIAL_CAPACITY];
+
+    public void reset() {
+        trainCount = 0;
+        cartCount = 0;
+        jointCount = 0;
+    }
+
+    public int size() {
+        return trainCount;
+    }
+
+    public int getCartCount() {
+        return cartCount;
+    }
+
+    /**
+     * Starts a new train; the carts and joints added next belong to it.
+     */
+    public void beginTrain() {
+        if (trainCount == firstCart.length) {
+            int capacity = trainCount * 2;
+            firstCart = Arrays.copyOf(firstCart, capacity);
+            firstJoint = Arrays.copyOf(firstJoint, capacity);
+        }
+        firstCart[trainCount] = cartCount;
+        firstJoint[trainCount] = jointCount;
+        trainCount++;
+    }
+
+    /**
+     * @return the number of the cart across all trains
+     */
+    public int addCart(int slot) {
+        if (cartCount == slots.length) {
+            int capacity = cartCount * 2;
+            slots = Arrays.copyOf(slots, capacity);
+            pulled = Arrays.copyOf(pulled, capacity);
+        }
+        int cart = cartCount++;
+        slots[cart] = slot;
+        pulled[cart] = false;
+        return cart;
+    }
+
+    /**
+     * Adds a joint between two carts of the current train.
+     *
+     * @param restLength the distance the joint keeps the carts at
+     */
+    public void addJoint(int a, int b, float restLength) {
+        if (jointCount == cartA.length) {
+            int capacity = jointCount * 2;
+            cartA = Arrays.copyOf(cartA, capacity);
+            cartB = Arrays.copyOf(cartB, capacity);
+            this.restLength = Arrays.copyOf(this.restLength, capacity);
+        }
+        int joint = jointCount++;
+        cartA[joint] = a;
+        cartB[joint] = b;
+        this.restLength[joint] = restLength;
+    }
+
+    public int getFirstCart(int train) {
+        return firstCart[train];
+    }
+
+    public int getEndCart(int train) {
+        return train + 1 < trainCount ? firstCart[train + 1] : cartCount;
+    }
+
+    public int getFirstJoint(int train) {
+        return firstJoint[train];
+    }
+
+    public int getEndJoint(int train) {
+        return train + 1 < trainCount ? firstJoint[train + 1] : jointCount;
+    }
+
+    public int getSlot(int cart) {
+        return slots[cart];
+    }
+
+    public int getCartA(int joint) {
+        return cartA[joint];
+    }
+
+    public int getCartB(int joint) {
+        return cartB[joint];
+    }
+
+    public float getRestLength(int joint) {
+        return restLength[joint];
+    }
+
+    /**
+     * Whether a joint pulled on the cart hard enough in the last solve that it has to be woken.
+     */
+    public boolean isPulled(int cart) {
+        return pulled[cart];
+    }
+
+    public void markPulled(int cart) {
+        pulled[cart] = true;
+    }
+}
@@ -9,6 +9,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
 import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnAddedComponent;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
@@ -16,20 +17,39 @@ import org.terasology.engine.entitySystem.systems.RegisterSystem;
 import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.engine.logic.location.Location;
 import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.logic.players.LocalPlayer;
 import org.terasology.engine.registry.In;
 import org.terasology.engine.rendering.logic.MeshComponent;
 import org.terasology.engine.world.BlockEntityRegistry;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.minecarts.Constants;
 import org.terasology.minecarts.Util;
 import org.terasology.minecarts.blocks.RailBlockSegmentMapper;
+import org.terasology.minecarts.blocks.RailGraphSystem;
+import org.terasology.minecarts.blocks.RailSegmentSampler;
 import org.terasology.minecarts.components.CartWheelComponent;
 import org.terasology.minecarts.components.RailVehicleComponent;
 import org.terasology.minecarts.components.WheelDefinition;
+import org.terasology.minecarts.metrics.RailsMetrics;
+import org.terasology.minecarts.metrics.RailsMetricsSystem;
 import org.terasology.segmentedpaths.components.PathFollowerComponent;
 import org.terasology.segmentedpaths.controllers.PathFollowerSystem;
 import org.terasology.segmentedpaths.controllers.SegmentCacheSystem;
 import org.terasology.segmentedpaths.controllers.SegmentSystem;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aligns the wheels of carts with the track under them.
+ * <p>
+ * Only carts near the camera get every wheel aligned with the track; further away the wheels keep the rotation of the
+ * cart body, and beyond {@link Constants#CART_WHEEL_CULL_DISTANCE} or behind the camera they are left alone. A cart is
+ * only updated again once it moved or changed its level of detail, and at most
+ * {@link Constants#CART_WHEEL_UPDATE_BUDGET} wheels are updated per frame.
+ */
 @RegisterSystem(RegisterMode.CLIENT)
 public class CartWheelSystem  extends BaseComponentSystem implements UpdateSubscriberSystem {
     private static final Logger logger = LoggerFactory.getLogger(CartWheelSystem.class);
@@ -43,14 +63,42 @@ public class CartWheelSystem  extends BaseComponentSystem implements UpdateSubsc
     @In
     protected SegmentCacheSystem segmentCacheSystem;
     @In
+    protected RailGraphSystem railGraphSystem;
+    @In
     protected BlockEntityRegistry blockEntityRegistry;
+    @In
+    protected RailsMetricsSystem railsMetricsSystem;
+    @In
+    protected LocalPlayer localPlayer;
 
     private RailBlockSegmentMapper segmentMapping;
+    private RailSegmentSampler segmentSampler;
+    private RailsMetrics metrics = new RailsMetrics();
+    private final Map<EntityRef, WheelState> wheelStates = new HashMap<>();
+    private final List<EntityRef> carts = new ArrayList<>();
+    private int nextCart;
+
+    private final Vector3f direction = new Vector3f();
+    private final Vector3f tangent = new Vector3f();
+    private final Quaternionf rotation = new Quaternionf();
+    private final Vector3f cameraPosition = new Vector3f();
+    private final Vector3f cameraDirection = new Vector3f();
+    private final Vector3f cartPosition = new Vector3f();
 
     @Override
     public void initialise() {
         segmentMapping = new RailBlockSegmentMapper(blockEntityRegistry, pathFollowerSystem, segmentSystem,
-                segmentCacheSystem);
+                segmentCacheSystem, railGraphSystem.getRailGraph());
+        metrics = railsMetricsSystem.getMetrics();
+        segmentMapping.setMetrics(metrics);
+        segmentSampler = new RailSegmentSampler(pathFollowerSystem, segmentSystem, segmentCacheSystem, segmentMapping,
+                railGraphSystem.getSegmentSamples());
+    }
+
+    @Override
+    public void shutdown() {
+        wheelStates.clear();
+        carts.clear();
     }
 
     @ReceiveEvent
@@ -66,41 +114,100 @@ public class CartWheelSystem  extends BaseComponentSystem implements UpdateSubsc
             cartWheelComponent.targets.add(wheel);
         }
         entity.saveComponent(cartWheelComponent);
+        wheelStates.remove(entity);
+    }
 
+    /**
+     * Drops the animation state of a cart when its wheels are removed, the cart is destroyed or its chunk unloads.
+     */
+    @ReceiveEvent(components = {CartWheelComponent.class})
+    public void onWheelsDeactivated(BeforeDeactivateComponent event, EntityRef entity) {
+        wheelStates.remove(entity);
     }
 
     @Override
     public void update(float delta) {
+        long start = metrics.start();
+        localPlayer.getViewPosition(cameraPosition);
+        localPlayer.getViewDirection(cameraDirection);
+
+        carts.clear();
         for (EntityRef railVehicle : entityManager.getEntitiesWith(RailVehicleComponent.class,
                 CartWheelComponent.class)) {
-            PathFollowerComponent segmentVehicleComponent = railVehicle.getComponent(PathFollowerComponent.class);
-            CartWheelComponent wheelComponent = railVehicle.getComponent(CartWheelComponent.class);
-            MeshComponent meshComponent = railVehicle.getComponent(MeshComponent.class);
-            LocationComponent locationComponent = railVehicle.getComponent(LocationComponent.class);
+            carts.add(railVehicle);
+        }
+        // continue where the budget ran out in the last frame, so every cart gets its turn
+        int budget = Constants.CART_WHEEL_UPDATE_BUDGET;
+        int cartCount = carts.size();
+        for (int visited = 0; visited < cartCount && budget > 0; visited++) {
+            nextCart = nextCart >= cartCount - 1 ? 0 : nextCart + 1;
+            budget -= updateWheels(carts.get(nextCart));
+        }
+        metrics.add(RailsMetrics.Counter.WHEEL_UPDATES, Constants.CART_WHEEL_UPDATE_BUDGET - budget);
+        metrics.stop(RailsMetrics.Timer.CART_WHEELS, start);
+    }
+
+    /**
+     * @return the number of wheels updated
+     */
+    private int updateWheels(EntityRef railVehicle) {
+        PathFollowerComponent segmentVehicleComponent = railVehicle.getComponent(PathFollowerComponent.class);
+        CartWheelComponent wheelComponent = railVehicle.getComponent(CartWheelComponent.class);
+        MeshComponent meshComponent = railVehicle.getComponent(MeshComponent.class);
+        LocationComponent locationComponent = railVehicle.getComponent(LocationComponent.class);
+
+        if (wheelComponent.wheels.size() != wheelComponent.targets.size() || segmentVehicleComponent == null
+                || meshComponent == null || locationComponent == null) {
+            return 0;
+        }
+
+        locationComponent.getWorldPosition(cartPosition).sub(cameraPosition, direction);
+        float distanceSquared = direction.lengthSquared();
+        float cullDistance = Constants.CART_WHEEL_CULL_DISTANCE;
+        float detailDistance = Constants.CART_WHEEL_DETAIL_DISTANCE;
+        if (distanceSquared > cullDistance * cullDistance
+                || (distanceSquared > detailDistance * detailDistance && direction.dot(cameraDirection) < 0)) {
+            return 0;
+        }
+        boolean detailed = distanceSquared <= detailDistance * detailDistance;
 
-            if (wheelComponent.wheels.size() != wheelComponent.targets.size() || segmentVehicleComponent == null || meshComponent == null) {
-                continue;
+        // a stationary cart keeps its wheels until it moves or comes closer
+        locationComponent.getWorldRotation(rotation);
+        WheelState state = wheelStates.computeIfAbsent(railVehicle, key -> new WheelState());
+        if (state.updated && state.detailed == detailed && Util.bitwiseEquals(state.position, cartPosition)
+                && Util.bitwiseEquals(state.rotation, rotation)) {
+            return 0;
+        }
+        state.updated = true;
+        state.detailed = detailed;
+        state.position.set(cartPosition);
+        state.rotation.set(rotation);
+
+        for (int index = 0; index < wheelComponent.targets.size(); index++) {
+            EntityRef wheel = wheelComponent.targets.get(index);
+            if (!wheel.exists()) {
+                break;
             }
-            for (int index = 0; index < wheelComponent.targets.size(); index++) {
-                EntityRef wheel = wheelComponent.targets.get(index);
-                if (!wheel.exists()) {
-                    break;
-                }
-                LocationComponent wheelLocation = wheel.getComponent(LocationComponent.class);
-                WheelDefinition wheelDefinition = wheelComponent.wheels.get(index);
-
-                wheelLocation.setLocalPosition(0, wheelDefinition.voffset, wheelDefinition.offset);
-                Vector3f tangent = pathFollowerSystem.vehicleTangent(railVehicle, wheelDefinition.offset, segmentMapping);
-                if (tangent == null) {
-                    wheelLocation.setLocalRotation(new Quaternionf());
-                } else {
-                    float sign = Math.signum(locationComponent.getWorldDirection(new Vector3f()).dot(tangent));
-                    wheelLocation.setWorldRotation(Util.rotation(tangent.mul(sign)));
-                }
-
-                wheel.saveComponent(wheelLocation);
+            LocationComponent wheelLocation = wheel.getComponent(LocationComponent.class);
+            WheelDefinition wheelDefinition = wheelComponent.wheels.get(index);
 
+            wheelLocation.setLocalPosition(0, wheelDefinition.voffset, wheelDefinition.offset);
+            if (!detailed || segmentSampler.tangent(railVehicle, wheelDefinition.offset, tangent) == null) {
+                wheelLocation.setLocalRotation(rotation.identity());
+            } else {
+                float sign = Math.signum(locationComponent.getWorldDirection(direction).dot(tangent));
+                wheelLocation.setWorldRotation(Util.rotation(tangent.mul(sign), rotation));
             }
+
+            wheel.saveComponent(wheelLocation);
         }
+        return wheelComponent.targets.size();
+    }
+
+    private static final class WheelState {
+        final Vector3f position = new Vector3f();
+        final Quaternionf rotation = new Quaternionf();
+        boolean detailed;
+        boolean updated;
     }
 }
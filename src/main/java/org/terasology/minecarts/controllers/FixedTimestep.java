@@ -0,0 +1,62 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+/**
+ * Turns variable frame times into a whole number of fixed steps, carrying the remainder over to the next frame.
+ * <p>
+ * At most a given number of steps is taken per frame. Time beyond that is dropped, so a long frame slows the rails down
+ * for a moment instead of making the following frames longer still.
+ */
+public class FixedTimestep {
+    private float step;
+    private int maxSteps;
+    private float accumulated;
+
+    public FixedTimestep(float step, int maxSteps) {
+        setStep(step, maxSteps);
+    }
+
+    public void setStep(float step, int maxSteps) {
+        if (step <= 0 || maxSteps < 1) {
+            throw new IllegalArgumentException("Invalid timestep " + step + " with " + maxSteps + " steps per frame");
+        }
+        this.step = step;
+        this.maxSteps = maxSteps;
+        accumulated = 0;
+    }
+
+    public float getStep() {
+        return step;
+    }
+
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * The time carried over to the next frame, less than one step.
+     */
+    public float getAccumulated() {
+        return accumulated;
+    }
+
+    public void setAccumulated(float accumulated) {
+        this.accumulated = accumulated;
+    }
+
+    /**
+     * @return the number of steps to take for a frame of the given length
+     */
+    public int advance(float delta) {
+        accumulated += delta;
+        int steps = (int) (accumulated / step);
+        if (steps > maxSteps) {
+            accumulated = 0;
+            return maxSteps;
+        }
+        accumulated -= steps * step;
+        return steps;
+    }
+}
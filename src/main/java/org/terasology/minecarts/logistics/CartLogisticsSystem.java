@@ -0,0 +1,405 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.logistics;
+
+import gnu.trove.iterator.TLongByteIterator;
+import gnu.trove.map.TLongByteMap;
+import gnu.trove.map.TLongFloatMap;
+import gnu.trove.map.hash.TLongByteHashMap;
+import gnu.trove.map.hash.TLongFloatHashMap;
+import org.joml.Vector3f;
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.world.BlockEntityRegistry;
+import org.terasology.engine.world.OnChangedBlock;
+import org.terasology.engine.world.WorldComponent;
+import org.terasology.engine.world.WorldProvider;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.minecarts.Constants;
+import org.terasology.minecarts.Util;
+import org.terasology.minecarts.analysis.RailNetwork;
+import org.terasology.minecarts.blocks.RailBlockFamily;
+import org.terasology.minecarts.blocks.RailComponent;
+import org.terasology.minecarts.blocks.RailGraphSystem;
+import org.terasology.minecarts.components.CartHibernationComponent;
+import org.terasology.minecarts.components.CartLogisticsComponent;
+import org.terasology.minecarts.controllers.CartHibernationSystem;
+import org.terasology.minecarts.controllers.CartMotionSystem;
+import org.terasology.segmentedpaths.SegmentMeta;
+import org.terasology.segmentedpaths.components.PathDescriptorComponent;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+import org.terasology.segmentedpaths.controllers.PathFollowerSystem;
+import org.terasology.segmentedpaths.controllers.SegmentCacheSystem;
+import org.terasology.segmentedpaths.controllers.SegmentSystem;
+import org.terasology.segmentedpaths.segments.Segment;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps moving trains going after the chunks they run through are unloaded.
+ * <p>
+ * When the chunk of a moving attached cart unloads, its train is hibernated and handed over to this system. The carts
+ * are kept out of chunk storage as always relevant entities, and the train is reduced to a {@link LogisticsTrain}: a
+ * distance along a {@link LogisticsRoute} traced through the rail atlas, advanced under slope gravity and rail
+ * friction every {@link Constants#CART_LOGISTICS_INTERVAL} on a background thread. As soon as the rail blocks under
+ * all of its carts are loaded again, the train is put back onto the actual segments there and returned to the
+ * {@link CartHibernationSystem}.
+ * <p>
+ * The rail atlas is the connections and friction of every rail block seen in a loaded chunk, taken from the chunk
+ * scan of the {@link RailGraphSystem} and from block changes. Unlike the rest of the track data it is kept when chunks
+ * unload, so it only knows track that was loaded at some point since the game started; a train stops where the known
+ * track ends.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+public class CartLogisticsSystem extends BaseComponentSystem implements UpdateSubscriberSystem,
+        RailGraphSystem.RailScanListener {
+    private static final Logger logger = LoggerFactory.getLogger(CartLogisticsSystem.class);
+
+    @In
+    private WorldProvider worldProvider;
+    @In
+    private BlockEntityRegistry blockEntityRegistry;
+    @In
+    private PathFollowerSystem pathFollowerSystem;
+    @In
+    private SegmentSystem segmentSystem;
+    @In
+    private SegmentCacheSystem segmentCacheSystem;
+    @In
+    private CartHibernationSystem cartHibernationSystem;
+    @In
+    private CartMotionSystem cartMotionSystem;
+    @In
+    private RailGraphSystem railGraphSystem;
+
+    private ExecutorService executor;
+    private final TLongByteMap connections = new TLongByteHashMap();
+    private final TLongFloatMap friction = new TLongFloatHashMap();
+    private CompletableFuture<Atlas> atlas;
+    private final List<LogisticsTrain> trains = new ArrayList<>();
+    private final Set<EntityRef> tracked = new HashSet<>();
+    private final Queue<Runnable> results = new ConcurrentLinkedQueue<>();
+    private boolean ticking;
+    private float sinceTick;
+
+    private final Vector3f position = new Vector3f();
+    private final Vector3f direction = new Vector3f();
+
+    @Override
+    public void initialise() {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Rail logistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        railGraphSystem.addScanListener(this);
+    }
+
+    @Override
+    public void shutdown() {
+        railGraphSystem.removeScanListener(this);
+        executor.shutdownNow();
+        atlas = null;
+        connections.clear();
+        friction.clear();
+        trains.clear();
+        tracked.clear();
+        results.clear();
+        ticking = false;
+    }
+
+    @Override
+    public void update(float delta) {
+        Runnable result;
+        while ((result = results.poll()) != null) {
+            result.run();
+        }
+
+        sinceTick += delta;
+        if (ticking || sinceTick < Constants.CART_LOGISTICS_INTERVAL) {
+            return;
+        }
+        float elapsed = sinceTick;
+        sinceTick = 0;
+        if (trains.isEmpty()) {
+            return;
+        }
+
+        // the trains are only touched by the background thread until the tick is applied
+        List<LogisticsTrain> batch = new ArrayList<>(trains);
+        ticking = true;
+        snapshot().thenApplyAsync(snapshot -> {
+            for (LogisticsTrain train : batch) {
+                tick(train, snapshot, elapsed);
+            }
+            return batch;
+        }, executor).whenComplete((moved, error) -> results.add(() -> {
+            ticking = false;
+            if (error != null) {
+                logger.error("Rail logistics tick failed", error);
+            } else {
+                apply(moved);
+                rematerialiseLoaded();
+            }
+        }));
+    }
+
+    @ReceiveEvent(components = {BlockComponent.class})
+    public void onBlockChanged(OnChangedBlock event, EntityRef blockEntity) {
+        Vector3ic position = event.getBlockPosition();
+        record(Util.packPosition(position), event.getNewType());
+    }
+
+    @Override
+    public void onRailLoaded(long position, Block block) {
+        record(position, block);
+    }
+
+    @Override
+    public void onChunkScanned(Vector3ic chunkPos) {
+        if (!ticking) {
+            rematerialiseLoaded();
+        }
+    }
+
+    @ReceiveEvent(components = {WorldComponent.class})
+    public void onChunkUnload(BeforeChunkUnload event, EntityRef worldEntity) {
+        List<EntityRef> leaving = new ArrayList<>();
+        cartMotionSystem.getCartsInChunk(event.getChunkPos(), leaving);
+        for (EntityRef railVehicle : leaving) {
+            if (!tracked.contains(railVehicle)) {
+                adopt(cartHibernationSystem.hibernateTrain(railVehicle));
+            }
+        }
+    }
+
+    /**
+     * Picks up trains that were in the logistics simulation when the game was saved.
+     */
+    @ReceiveEvent(components = {CartLogisticsComponent.class})
+    public void onLogisticsActivated(OnActivatedComponent event, EntityRef railVehicle) {
+        if (!tracked.contains(railVehicle)) {
+            adopt(cartHibernationSystem.hibernateTrain(railVehicle));
+        }
+    }
+
+    private void record(long position, Block block) {
+        if (block.getBlockFamily() instanceof RailBlockFamily) {
+            connections.put(position, RailBlockFamily.getConnections(block));
+            RailComponent rail = block.getPrefab().map(prefab -> prefab.getComponent(RailComponent.class)).orElse(null);
+            friction.put(position, rail == null ? 0 : rail.frictionCoefficient);
+            atlas = null;
+        } else if (connections.containsKey(position)) {
+            connections.remove(position);
+            friction.remove(position);
+            atlas = null;
+        }
+    }
+
+    private void adopt(List<EntityRef> carts) {
+        boolean moving = false;
+        boolean adopted = false;
+        long[] blocks = new long[carts.size()];
+        for (int i = 0; i < carts.size(); i++) {
+            CartHibernationComponent hibernation = carts.get(i).getComponent(CartHibernationComponent.class);
+            if (hibernation == null) {
+                return;
+            }
+            moving |= hibernation.speed != 0;
+            adopted |= carts.get(i).hasComponent(CartLogisticsComponent.class);
+            blocks[i] = Util.packPosition(hibernation.railBlock);
+        }
+        // a train at rest is simply stored with its chunk
+        if (!moving && !adopted) {
+            return;
+        }
+
+        CartHibernationComponent first = carts.get(0).getComponent(CartHibernationComponent.class);
+        trains.add(new LogisticsTrain(carts.toArray(new EntityRef[0]), blocks, first.heading, first.speed));
+        for (EntityRef cart : carts) {
+            tracked.add(cart);
+            if (!cart.hasComponent(CartLogisticsComponent.class)) {
+                cart.addComponent(new CartLogisticsComponent());
+            }
+            cart.setAlwaysRelevant(true);
+        }
+    }
+
+    /**
+     * Runs on the background thread.
+     */
+    private static void tick(LogisticsTrain train, Atlas snapshot, float elapsed) {
+        if (train.needsRoute()) {
+            trace(train, snapshot);
+        }
+        train.advance(elapsed, Constants.CART_LOGISTICS_STEP);
+        if (train.needsRoute()) {
+            trace(train, snapshot);
+        }
+    }
+
+    private static void trace(LogisticsTrain train, Atlas snapshot) {
+        LogisticsRoute route = LogisticsRoute.trace(snapshot.network, snapshot.friction, train.getBlock(0),
+                train.getHeading().x(), train.getHeading().z(), Constants.CART_LOGISTICS_ROUTE_LENGTH);
+        if (route != null) {
+            train.follow(route);
+        }
+    }
+
+    /**
+     * Copies the rail atlas for a new network if it changed since the last one; the graph itself is built on the
+     * background thread.
+     */
+    private CompletableFuture<Atlas> snapshot() {
+        if (atlas == null) {
+            long[] positions = new long[connections.size()];
+            byte[] railConnections = new byte[connections.size()];
+            int index = 0;
+            for (TLongByteIterator iterator = connections.iterator(); iterator.hasNext(); index++) {
+                iterator.advance();
+                positions[index] = iterator.key();
+                railConnections[index] = iterator.value();
+            }
+            TLongFloatMap railFriction = new TLongFloatHashMap(friction);
+            atlas = CompletableFuture.supplyAsync(() ->
+                    new Atlas(new RailNetwork(positions, railConnections), railFriction), executor);
+        }
+        return atlas;
+    }
+
+    private void apply(List<LogisticsTrain> moved) {
+        for (LogisticsTrain train : moved) {
+            if (!trains.contains(train) || train.needsRoute()) {
+                continue;
+            }
+            boolean present = false;
+            for (int i = 0; i < train.size(); i++) {
+                EntityRef cart = train.getCart(i);
+                if (!cart.exists()) {
+                    continue;
+                }
+                present = true;
+                CartHibernationComponent hibernation = cart.getComponent(CartHibernationComponent.class);
+                Util.unpackPosition(train.getBlock(i), hibernation.railBlock);
+                train.getDirection(i, hibernation.heading);
+                hibernation.speed = train.getSpeed();
+                cart.saveComponent(hibernation);
+
+                LocationComponent location = cart.getComponent(LocationComponent.class);
+                location.setWorldPosition(train.getPoint(i, position));
+                cart.saveComponent(location);
+            }
+            if (!present) {
+                trains.remove(train);
+            }
+        }
+    }
+
+    private void rematerialiseLoaded() {
+        for (LogisticsTrain train : new ArrayList<>(trains)) {
+            if (isLoaded(train)) {
+                rematerialise(train);
+            }
+        }
+    }
+
+    private boolean isLoaded(LogisticsTrain train) {
+        for (int i = 0; i < train.size(); i++) {
+            CartHibernationComponent hibernation = train.getCart(i).getComponent(CartHibernationComponent.class);
+            if (hibernation != null && !worldProvider.isBlockRelevant(hibernation.railBlock)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Puts the carts of a train onto the segments of the rail blocks under them and hands the train back to the
+     * {@link CartHibernationSystem}.
+     * <p>
+     * A train without a route, e.g. because the rail under its first cart was removed, is put back where it was last
+     * moved to, so it leaves the logistics simulation as soon as its track is loaded again.
+     */
+    private void rematerialise(LogisticsTrain train) {
+        boolean routed = !train.needsRoute();
+        trains.remove(train);
+        for (int i = 0; i < train.size(); i++) {
+            EntityRef cart = train.getCart(i);
+            tracked.remove(cart);
+            CartHibernationComponent hibernation = cart.getComponent(CartHibernationComponent.class);
+            PathFollowerComponent pathFollower = cart.getComponent(PathFollowerComponent.class);
+            if (hibernation == null || pathFollower == null) {
+                continue;
+            }
+            if (routed) {
+                train.getPoint(i, position);
+                train.getDirection(i, direction);
+            } else {
+                cart.getComponent(LocationComponent.class).getWorldPosition(position);
+                direction.set(hibernation.heading);
+            }
+
+            EntityRef railBlock = blockEntityRegistry.getBlockEntityAt(hibernation.railBlock);
+            PathDescriptorComponent pathDescriptor = railBlock.getComponent(PathDescriptorComponent.class);
+            if (railBlock.hasComponent(RailComponent.class) && pathDescriptor != null) {
+                Prefab descriptor = pathDescriptor.descriptors.get(0);
+                Segment segment = segmentCacheSystem.getSegment(descriptor);
+                float segmentPosition = segment.nearestSegmentPosition(position,
+                        segmentSystem.segmentPosition(railBlock), segmentSystem.segmentRotation(railBlock));
+                pathFollower.segmentMeta = new SegmentMeta(segmentPosition, railBlock, descriptor);
+                cart.saveComponent(pathFollower);
+                Vector3f tangent = pathFollowerSystem.vehicleTangent(cart);
+                if (tangent != null) {
+                    pathFollower.heading = tangent.dot(direction) < 0 ? tangent.negate() : tangent;
+                    cart.saveComponent(pathFollower);
+                    hibernation.heading.set(pathFollower.heading);
+                }
+                hibernation.descriptor = descriptor;
+                hibernation.segmentPosition = segmentPosition;
+
+                LocationComponent location = cart.getComponent(LocationComponent.class);
+                location.setWorldPosition(position.set(pathFollowerSystem.vehiclePoint(cart)).add(0, .01f, 0));
+                cart.saveComponent(location);
+            } else {
+                // the track changed while it was unloaded; the hibernation system lets the cart be detached
+                pathFollower.segmentMeta = new SegmentMeta(0, EntityRef.NULL, null);
+                cart.saveComponent(pathFollower);
+            }
+            cart.saveComponent(hibernation);
+            cart.removeComponent(CartLogisticsComponent.class);
+            cart.setAlwaysRelevant(false);
+        }
+    }
+
+    private static final class Atlas {
+        final RailNetwork network;
+        final TLongFloatMap friction;
+
+        Atlas(RailNetwork network, TLongFloatMap friction) {
+            this.network = network;
+            this.friction = friction;
+        }
+    }
+}
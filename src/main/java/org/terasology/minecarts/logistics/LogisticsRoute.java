@@ -0,0 +1,178 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.logistics;
+
+import gnu.trove.map.TLongFloatMap;
+import org.joml.Vector3f;
+import org.terasology.minecarts.Util;
+import org.terasology.minecarts.analysis.RailNetwork;
+
+import java.util.Arrays;
+
+/**
+ * A stretch of track as a line through the centres of its rail blocks, along which a {@link LogisticsTrain} is moved
+ * by distance alone.
+ * <p>
+ * Each step between two neighbouring blocks has a length of one block, or the diagonal of one for a slope, and the rise
+ * of the step gives the pull of gravity along it. A route that leads back to its first block is a loop, and distances
+ * along it wrap around.
+ */
+public final class LogisticsRoute {
+    private final long[] blocks;
+    private final float[] distances;
+    private final float[] friction;
+    private final float origin;
+    private final boolean cyclic;
+    private final boolean truncated;
+
+    /**
+     * @param blocks the packed positions of the rail blocks along the route, see {@link Util#packPosition(int, int,
+     *         int)}
+     * @param friction the friction coefficient of the rail block at the same index
+     * @param origin the index of the block the route was traced from
+     * @param truncated whether the track goes on past either end
+     */
+    public LogisticsRoute(long[] blocks, float[] friction, int origin, boolean truncated) {
+        this.blocks = blocks;
+        this.friction = friction;
+        this.cyclic = blocks.length > 2 && blocks[0] == blocks[blocks.length - 1];
+        this.truncated = truncated;
+        distances = new float[blocks.length];
+        for (int i = 1; i < blocks.length; i++) {
+            int rise = Util.unpackY(blocks[i]) - Util.unpackY(blocks[i - 1]);
+            distances[i] = distances[i - 1] + (float) Math.sqrt(1 + rise * rise);
+        }
+        this.origin = distances[origin];
+    }
+
+    /**
+     * Traces the track through a rail block both ways, following the given direction first.
+     *
+     * @return the route, or null if there is no rail at the given position
+     */
+    public static LogisticsRoute trace(RailNetwork network, TLongFloatMap friction, long from, float directionX,
+                                       float directionZ, int maxLength) {
+        long[] ahead = network.trace(from, directionX, directionZ, maxLength);
+        if (ahead.length == 0) {
+            return null;
+        }
+        boolean cyclic = ahead.length > 2 && ahead[0] == ahead[ahead.length - 1];
+        long[] behind = cyclic ? new long[]{from} : network.trace(from, -directionX, -directionZ, maxLength);
+
+        long[] blocks = new long[behind.length + ahead.length - 1];
+        for (int i = 0; i < behind.length; i++) {
+            blocks[i] = behind[behind.length - 1 - i];
+        }
+        System.arraycopy(ahead, 1, blocks, behind.length, ahead.length - 1);
+        float[] blockFriction = new float[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            blockFriction[i] = friction.get(blocks[i]);
+        }
+        return new LogisticsRoute(blocks, blockFriction, behind.length - 1,
+                ahead.length == maxLength || behind.length == maxLength);
+    }
+
+    public float getLength() {
+        return distances[distances.length - 1];
+    }
+
+    /**
+     * The distance along the route of the block it was traced from.
+     */
+    public float getOrigin() {
+        return origin;
+    }
+
+    public boolean isCyclic() {
+        return cyclic;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Maps a distance onto the route, wrapping it around a loop.
+     */
+    public float wrap(float distance) {
+        if (!cyclic) {
+            return distance;
+        }
+        float wrapped = distance % getLength();
+        return wrapped < 0 ? wrapped + getLength() : wrapped;
+    }
+
+    /**
+     * The distance along the route of the occurrence of a rail block closest to the given distance.
+     *
+     * @return the distance, or NaN if the block is not on the route
+     */
+    public float distanceOf(long block, float near) {
+        float found = Float.NaN;
+        for (int i = 0; i < blocks.length; i++) {
+            if (blocks[i] == block && (Float.isNaN(found) || Math.abs(distances[i] - near) < Math.abs(found - near))) {
+                found = distances[i];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The rail block whose centre is closest to the given distance.
+     */
+    public long blockAt(float distance) {
+        int step = stepAt(distance);
+        if (step + 1 < blocks.length && distances[step + 1] - distance < distance - distances[step]) {
+            return blocks[step + 1];
+        }
+        return blocks[step];
+    }
+
+    /**
+     * The rise over the length of the step at the given distance, i.e. the sine of its incline.
+     */
+    public float slopeAt(float distance) {
+        int step = stepAt(distance);
+        if (step + 1 == blocks.length) {
+            return 0;
+        }
+        return (Util.unpackY(blocks[step + 1]) - Util.unpackY(blocks[step])) / (distances[step + 1] - distances[step]);
+    }
+
+    public float frictionAt(float distance) {
+        return friction[stepAt(distance)];
+    }
+
+    public Vector3f pointAt(float distance, Vector3f dest) {
+        int step = stepAt(distance);
+        dest.set(Util.unpackX(blocks[step]), Util.unpackY(blocks[step]), Util.unpackZ(blocks[step]));
+        if (step + 1 == blocks.length) {
+            return dest;
+        }
+        float t = (distance - distances[step]) / (distances[step + 1] - distances[step]);
+        return dest.lerp(new Vector3f(Util.unpackX(blocks[step + 1]), Util.unpackY(blocks[step + 1]),
+                Util.unpackZ(blocks[step + 1])), Math.max(0, Math.min(1, t)));
+    }
+
+    /**
+     * The unit direction of the route at the given distance.
+     */
+    public Vector3f directionAt(float distance, Vector3f dest) {
+        int step = Math.min(stepAt(distance), blocks.length - 2);
+        if (step < 0) {
+            return dest.zero();
+        }
+        return dest.set(Util.unpackX(blocks[step + 1]) - Util.unpackX(blocks[step]),
+                Util.unpackY(blocks[step + 1]) - Util.unpackY(blocks[step]),
+                Util.unpackZ(blocks[step + 1]) - Util.unpackZ(blocks[step])).normalize();
+    }
+
+    private int stepAt(float distance) {
+        int index = Arrays.binarySearch(distances, wrap(distance));
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return Math.max(0, Math.min(blocks.length - 1, index));
+    }
+}
@@ -0,0 +1,150 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.logistics;
+
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.minecarts.Constants;
+
+/**
+ * A train in the coarse logistics simulation: a single distance along a {@link LogisticsRoute} and a speed for the
+ * whole train, with every cart at a fixed offset from that distance.
+ * <p>
+ * The first cart is the one the route is traced through. Speeds are along the direction the route was traced in.
+ */
+public final class LogisticsTrain {
+    private final EntityRef[] carts;
+    private final long[] blocks;
+    private final float[] offsets;
+    private final Vector3f heading = new Vector3f();
+    private LogisticsRoute route;
+    private boolean placed;
+    private float distance;
+    private float speed;
+
+    /**
+     * @param blocks the packed position of the rail block under each cart
+     * @param heading the direction the first cart is heading in
+     * @param speed the speed along the heading, negative when the train rolls backwards
+     */
+    public LogisticsTrain(EntityRef[] carts, long[] blocks, Vector3fc heading, float speed) {
+        this.carts = carts;
+        this.blocks = blocks;
+        this.offsets = new float[carts.length];
+        this.heading.set(heading);
+        this.speed = speed;
+    }
+
+    /**
+     * @return whether the train waits for a route to be traced from its first cart along {@link #getHeading()}
+     */
+    public boolean needsRoute() {
+        return route == null;
+    }
+
+    /**
+     * Puts the train onto a route traced from the rail block of its first cart. The offsets of the carts are taken
+     * from where their rail blocks are on the first route and kept when the train moves on to a later one.
+     */
+    public void follow(LogisticsRoute newRoute) {
+        route = newRoute;
+        distance = newRoute.getOrigin();
+        if (placed) {
+            return;
+        }
+        placed = true;
+        for (int i = 1; i < carts.length; i++) {
+            float cartDistance = newRoute.distanceOf(blocks[i], distance);
+            offsets[i] = Float.isNaN(cartDistance) ? 0 : cartDistance - distance;
+        }
+    }
+
+    /**
+     * Moves the train along its route under gravity and rail friction in steps of at most the given length.
+     * <p>
+     * A train running off the end of its route stops there, unless the track goes on, in which case it keeps its speed
+     * and waits for a new route to be traced from where it is.
+     */
+    public void advance(float elapsed, float step) {
+        if (route == null) {
+            return;
+        }
+        float lowest = 0;
+        float highest = 0;
+        for (float offset : offsets) {
+            lowest = Math.min(lowest, offset);
+            highest = Math.max(highest, offset);
+        }
+        float start = -lowest;
+        float end = route.getLength() - highest;
+
+        boolean ranOff = false;
+        for (float remaining = elapsed; remaining > 0 && !ranOff; remaining -= step) {
+            float delta = Math.min(step, remaining);
+            speed -= Constants.GRAVITY * route.slopeAt(distance) * delta;
+            // the integrator takes the friction coefficient off the speed once per fixed step
+            float friction = route.frictionAt(distance) * delta / Constants.CART_FIXED_TIMESTEP;
+            speed = Math.abs(speed) <= friction ? 0 : speed - Math.signum(speed) * friction;
+            speed = Math.max(-Constants.VELOCITY_CAP, Math.min(Constants.VELOCITY_CAP, speed));
+            distance += speed * delta;
+            if (route.isCyclic()) {
+                distance = route.wrap(distance);
+            } else if (distance > end || distance < start) {
+                distance = Math.max(start, Math.min(end, distance));
+                ranOff = true;
+            }
+        }
+
+        for (int i = 0; i < carts.length; i++) {
+            blocks[i] = route.blockAt(route.wrap(distance + offsets[i]));
+        }
+        if (ranOff) {
+            if (route.isTruncated() && start <= end) {
+                route.directionAt(distance, heading);
+                route = null;
+            } else {
+                speed = 0;
+            }
+        }
+    }
+
+    public int size() {
+        return carts.length;
+    }
+
+    public EntityRef getCart(int index) {
+        return carts[index];
+    }
+
+    /**
+     * @return the packed position of the rail block under the cart
+     */
+    public long getBlock(int index) {
+        return blocks[index];
+    }
+
+    public Vector3f getPoint(int index, Vector3f dest) {
+        return route.pointAt(route.wrap(distance + offsets[index]), dest);
+    }
+
+    /**
+     * @return the unit direction the route runs in at the cart
+     */
+    public Vector3f getDirection(int index, Vector3f dest) {
+        return route.directionAt(route.wrap(distance + offsets[index]), dest);
+    }
+
+    public Vector3fc getHeading() {
+        return heading;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public float getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,137 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.metrics;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Counters and timers for the rails systems, accumulated over a window of ticks.
+ * <p>
+ * Recording is a single branch while the metrics are disabled, so the calls can stay in the hot paths. Everything is
+ * reported as an average per tick of the window, see {@link #summary()}.
+ */
+public class RailsMetrics {
+    public enum Timer {
+        /**
+         * Includes {@link #CART_JOINTS}, which the motion system runs once per fixed step.
+         */
+        CART_MOTION("cart motion"),
+        CART_JOINTS("cart joints"),
+        CART_WHEELS("cart wheels"),
+        RAIL_UPDATES("rail updates");
+
+        private final String displayName;
+
+        Timer(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    public enum Counter {
+        ATTACHED_CARTS("attached carts"),
+        DETACHED_CARTS("detached carts"),
+        ATTACH_RAY_TRACES("attach ray-traces"),
+        NEXT_SEGMENT_CALLS("next segment lookups"),
+        NEXT_SEGMENT_CACHE_HITS("next segment cache hits"),
+        DETACHES("detaches"),
+        JOINT_BREAKS("joint breaks"),
+        CHARACTER_COLLISIONS("character collisions"),
+        CART_COLLISIONS("cart collisions"),
+        RIGID_BODY_COLLISIONS("rigid body collisions"),
+        WHEEL_UPDATES("wheel updates");
+
+        private final String displayName;
+
+        Counter(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    private final long[] counts = new long[Counter.values().length];
+    private final long[] timerNanos = new long[Timer.values().length];
+    private boolean enabled;
+    private long ticks;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off; turning it on starts a new window.
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            reset();
+        }
+        this.enabled = enabled;
+    }
+
+    public void increment(Counter counter) {
+        if (enabled) {
+            counts[counter.ordinal()]++;
+        }
+    }
+
+    public void add(Counter counter, long amount) {
+        if (enabled) {
+            counts[counter.ordinal()] += amount;
+        }
+    }
+
+    /**
+     * @return a start time to hand to {@link #stop(Timer, long)}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void stop(Timer timer, long start) {
+        if (enabled) {
+            timerNanos[timer.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Ends a tick of the current window.
+     */
+    public void tick() {
+        if (enabled) {
+            ticks++;
+        }
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getCount(Counter counter) {
+        return counts[counter.ordinal()];
+    }
+
+    public long getNanos(Timer timer) {
+        return timerNanos[timer.ordinal()];
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(timerNanos, 0);
+        ticks = 0;
+    }
+
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Rails metrics over ").append(ticks).append(" ticks");
+        float perTick = ticks == 0 ? 0 : 1.0f / ticks;
+        for (Timer timer : Timer.values()) {
+            builder.append(String.format(Locale.ROOT, "%n  %s: %.3f ms/tick", timer.displayName,
+                    getNanos(timer) * perTick / 1e6f));
+        }
+        for (Counter counter : Counter.values()) {
+            builder.append(String.format(Locale.ROOT, "%n  %s: %.2f/tick", counter.displayName,
+                    getCount(counter) * perTick));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,88 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.registry.Share;
+import org.terasology.minecarts.Constants;
+
+/**
+ * Owns the {@link RailsMetrics} of this process and makes them available through console commands and a periodic
+ * log summary.
+ * <p>
+ * Registered everywhere, since the wheel animation runs on clients and the cart simulation on the authority. Each
+ * side only sees its own metrics.
+ */
+@RegisterSystem
+@Share(RailsMetricsSystem.class)
+public class RailsMetricsSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    private static final Logger logger = LoggerFactory.getLogger(RailsMetricsSystem.class);
+
+    private final RailsMetrics metrics = new RailsMetrics();
+    private float logInterval = Constants.RAILS_METRICS_LOG_INTERVAL;
+    private float sinceLog;
+
+    public RailsMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets how often a summary is logged and the metrics restarted, 0 to never do so.
+     */
+    public void setLogInterval(float seconds) {
+        logInterval = Math.max(0, seconds);
+        sinceLog = 0;
+    }
+
+    public float getLogInterval() {
+        return logInterval;
+    }
+
+    @Override
+    public void update(float delta) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        metrics.tick();
+        if (logInterval > 0) {
+            sinceLog += delta;
+            if (sinceLog >= logInterval) {
+                logger.info("{}", metrics.summary());
+                metrics.reset();
+                sinceLog = 0;
+            }
+        }
+    }
+
+    @Command(shortDescription = "Shows what the rails systems cost per tick",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String railsMetrics() {
+        if (!metrics.isEnabled()) {
+            return "Rails metrics are disabled, use railsMetricsEnable to turn them on";
+        }
+        return metrics.summary();
+    }
+
+    @Command(shortDescription = "Turns recording of rails metrics on or off",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String railsMetricsEnable(@CommandParam("enabled") boolean enabled) {
+        metrics.setEnabled(enabled);
+        sinceLog = 0;
+        return "Rails metrics " + (enabled ? "enabled" : "disabled");
+    }
+
+    @Command(shortDescription = "Sets how often rails metrics are logged, 0 to stop logging",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String railsMetricsLogInterval(@CommandParam("seconds") float seconds) {
+        setLogInterval(seconds);
+        return logInterval > 0 ? "Logging rails metrics every " + logInterval + " seconds" : "Stopped logging rails metrics";
+    }
+}
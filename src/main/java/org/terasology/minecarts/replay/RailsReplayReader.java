@@ -0,0 +1,185 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.replay;
+
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a rails replay written by {@link RailsReplayWriter} one record at a time.
+ * <p>
+ * The vectors handed to the {@link Handler} are reused for the next record, so a handler has to copy what it keeps.
+ */
+public class RailsReplayReader implements Closeable {
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<>();
+
+    private final Vector3i block = new Vector3i();
+    private final Vector3f first = new Vector3f();
+    private final Vector3f second = new Vector3f();
+    private final Vector3f third = new Vector3f();
+    private final Vector3f fourth = new Vector3f();
+    private final Quaternionf rotation = new Quaternionf();
+
+    public RailsReplayReader(InputStream stream) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)));
+        if (in.readInt() != RailsReplayWriter.MAGIC) {
+            throw new IOException("Not a rails replay");
+        }
+        int version = in.readInt();
+        if (version != RailsReplayWriter.VERSION) {
+            throw new IOException("Unsupported rails replay version " + version);
+        }
+    }
+
+    /**
+     * Reads the next record and passes it to the handler.
+     *
+     * @return false at the end of the replay
+     */
+    public boolean next(Handler handler) throws IOException {
+        int tag = in.read();
+        switch (tag) {
+            case -1:
+                return false;
+            case RailsReplayWriter.STRING:
+                strings.add(in.readUTF());
+                break;
+            case RailsReplayWriter.CONFIG:
+                handler.config(in.readFloat(), in.readInt(), in.readInt(), in.readBoolean(), in.readInt(),
+                        in.readFloat());
+                break;
+            case RailsReplayWriter.TICK:
+                handler.tick(in.readFloat());
+                break;
+            case RailsReplayWriter.HASH:
+                handler.hash(in.readLong());
+                break;
+            case RailsReplayWriter.BLOCK:
+                readVector(block);
+                handler.block(block, string());
+                break;
+            case RailsReplayWriter.SPAWN: {
+                long id = in.readLong();
+                String prefab = string();
+                handler.spawn(id, prefab, readVector(first), readRotation());
+                break;
+            }
+            case RailsReplayWriter.DESTROY:
+                handler.destroy(in.readLong());
+                break;
+            case RailsReplayWriter.ATTACH: {
+                long id = in.readLong();
+                readVector(block);
+                String descriptor = string();
+                float segmentPosition = in.readFloat();
+                handler.attach(id, block, descriptor, segmentPosition, readVector(first), readVector(second),
+                        readVector(third), readRotation());
+                break;
+            }
+            case RailsReplayWriter.DETACH:
+                handler.detach(in.readLong());
+                break;
+            case RailsReplayWriter.JOINT:
+                handler.joint(in.readLong(), in.readLong(), in.readBoolean(), in.readLong(), in.readBoolean());
+                break;
+            case RailsReplayWriter.POSE: {
+                long id = in.readLong();
+                handler.pose(id, readVector(first), readRotation(), readVector(second));
+                break;
+            }
+            case RailsReplayWriter.COLLIDE: {
+                long id = in.readLong();
+                long other = in.readLong();
+                readVector(first);
+                readVector(second);
+                float penetration = in.readFloat();
+                handler.collide(id, other, first, second, penetration, readVector(fourth));
+                break;
+            }
+            default:
+                throw new IOException("Unknown rails replay record " + tag);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String string() throws IOException {
+        int index = in.readInt();
+        if (index < 0 || index >= strings.size()) {
+            throw new IOException("Undefined string " + index + " in rails replay");
+        }
+        return strings.get(index);
+    }
+
+    private Vector3f readVector(Vector3f dest) throws IOException {
+        return dest.set(in.readFloat(), in.readFloat(), in.readFloat());
+    }
+
+    private Vector3i readVector(Vector3i dest) throws IOException {
+        return dest.set(in.readInt(), in.readInt(), in.readInt());
+    }
+
+    private Quaternionf readRotation() throws IOException {
+        return rotation.set(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+    }
+
+    /**
+     * Receives the records of a replay in the order they were written; see {@link RailsReplayWriter} for their meaning.
+     */
+    public interface Handler {
+        default void config(float step, int maxStepsPerFrame, int substeps, boolean adaptiveSubsteps,
+                            int solverIterations, float remainder) {
+        }
+
+        default void tick(float delta) {
+        }
+
+        default void hash(long hash) {
+        }
+
+        default void block(Vector3ic position, String uri) {
+        }
+
+        default void spawn(long id, String prefab, Vector3fc position, Quaternionfc rotation) {
+        }
+
+        default void destroy(long id) {
+        }
+
+        default void attach(long id, Vector3ic railBlock, String descriptor, float segmentPosition,
+                            Vector3fc heading, Vector3fc velocity, Vector3fc position, Quaternionfc rotation) {
+        }
+
+        default void detach(long id) {
+        }
+
+        default void joint(long id, long front, boolean frontOwning, long back, boolean backOwning) {
+        }
+
+        default void pose(long id, Vector3fc position, Quaternionfc rotation, Vector3fc velocity) {
+        }
+
+        default void collide(long id, long other, Vector3fc contactPoint, Vector3fc otherContactPoint,
+                             float penetration, Vector3fc normal) {
+        }
+    }
+}
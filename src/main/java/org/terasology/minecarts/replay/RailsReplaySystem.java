@@ -0,0 +1,360 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.replay;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.core.PathManager;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.engine.entitySystem.event.EventPriority;
+import org.terasology.engine.entitySystem.event.Priority;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.logic.console.commandSystem.annotations.Command;
+import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.logic.permission.PermissionManager;
+import org.terasology.engine.physics.components.RigidBodyComponent;
+import org.terasology.engine.physics.events.CollideEvent;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.world.OnChangedBlock;
+import org.terasology.engine.world.WorldProvider;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.minecarts.Util;
+import org.terasology.minecarts.blocks.RailBlockFamily;
+import org.terasology.minecarts.blocks.RailGraphSystem;
+import org.terasology.minecarts.components.CartJointComponent;
+import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.minecarts.controllers.CartJointSystem;
+import org.terasology.minecarts.controllers.CartMotionSystem;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Records what goes into the rail physics tick by tick, so a session can be re-run by a {@link RailsReplayer}.
+ * <p>
+ * A recording starts with the settings of the rail physics, the loaded rail blocks and all carts. After that it holds
+ * everything the rail systems do not decide themselves: frame times, rail blocks placed or removed, carts spawned or
+ * destroyed, joints made, attaches, the transforms of detached carts moved by the physics engine and the collisions it
+ * reports. Every tick ends with a hash of the state of all attached carts, which the replay is checked against.
+ * <p>
+ * Changes the rail systems make during their own tick, like joints breaking or carts detaching from removed track, are
+ * left out since replaying the tick makes them again. Attaches are recorded either way, as detached carts only find
+ * their track through the physics engine.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(RailsReplaySystem.class)
+public class RailsReplaySystem extends BaseComponentSystem {
+    private static final Logger logger = LoggerFactory.getLogger(RailsReplaySystem.class);
+
+    @In
+    private EntityManager entityManager;
+    @In
+    private WorldProvider worldProvider;
+    @In
+    private RailGraphSystem railGraphSystem;
+    @In
+    private CartMotionSystem cartMotionSystem;
+    @In
+    private CartJointSystem cartJointSystem;
+
+    private RailsReplayWriter writer;
+    private boolean inTick;
+
+    private final Vector3f position = new Vector3f();
+    private final Vector3f velocity = new Vector3f();
+    private final Quaternionf rotation = new Quaternionf();
+    private final Vector3i blockPosition = new Vector3i();
+
+    @Override
+    public void shutdown() {
+        stopRecording();
+    }
+
+    public boolean isRecording() {
+        return writer != null;
+    }
+
+    /**
+     * Starts recording to the given stream, which is closed when the recording stops.
+     */
+    public void startRecording(OutputStream stream) throws IOException {
+        stopRecording();
+        writer = new RailsReplayWriter(stream);
+        try {
+            writer.config(cartMotionSystem.getFixedTimestep(), cartMotionSystem.getMaxStepsPerFrame(),
+                    cartMotionSystem.getSubsteps(), cartMotionSystem.isAdaptiveSubsteps(),
+                    cartJointSystem.getSolverIterations(), cartMotionSystem.getTimestepRemainder());
+            for (long rail : railGraphSystem.getRailPositions().toArray()) {
+                Util.unpackPosition(rail, blockPosition);
+                writer.block(blockPosition, worldProvider.getBlock(blockPosition).getURI().toString());
+            }
+            List<EntityRef> carts = new ArrayList<>();
+            for (EntityRef cart : entityManager.getEntitiesWith(RailVehicleComponent.class, LocationComponent.class)) {
+                carts.add(cart);
+                spawned(cart);
+            }
+            for (EntityRef cart : carts) {
+                joined(cart);
+                if (cartMotionSystem.isOnTrack(cart)) {
+                    attached(cart);
+                }
+            }
+        } catch (IOException e) {
+            stopRecording();
+            throw e;
+        }
+    }
+
+    public void stopRecording() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("Failed to finish rails replay", e);
+        }
+        writer = null;
+        inTick = false;
+    }
+
+    @Command(shortDescription = "Records the rail physics to a replay file in the replays folder",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String railsReplayRecord(@CommandParam("file") String file) {
+        Path path = replayPath(PathManager.getInstance().getHomePath().resolve("replays"), file);
+        if (path == null) {
+            return "The replay file has to be inside the replays folder";
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            startRecording(Files.newOutputStream(path));
+            return "Recording rails replay to " + path;
+        } catch (IOException e) {
+            logger.error("Failed to start rails replay", e);
+            return "Failed to start recording: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Resolves a file name given on the console against the replays folder.
+     *
+     * @return the path, or null if it does not name a file inside the folder, e.g. because it is absolute or climbs
+     *         out with {@code ..}
+     */
+    static Path replayPath(Path replays, String file) {
+        Path folder = replays.toAbsolutePath().normalize();
+        Path path;
+        try {
+            path = folder.resolve(file).normalize();
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        return path.startsWith(folder) && !path.equals(folder) ? path : null;
+    }
+
+    @Command(shortDescription = "Stops recording the rail physics",
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String railsReplayStop() {
+        if (!isRecording()) {
+            return "Not recording a rails replay";
+        }
+        stopRecording();
+        return "Stopped recording rails replay";
+    }
+
+    /**
+     * Called by the motion system before it moves the carts.
+     */
+    public void beginTick(float delta) {
+        if (writer == null) {
+            return;
+        }
+        inTick = true;
+        record(() -> {
+            writer.tick(delta);
+            for (EntityRef cart : entityManager.getEntitiesWith(RailVehicleComponent.class, LocationComponent.class,
+                    RigidBodyComponent.class)) {
+                if (!cart.hasComponent(PathFollowerComponent.class)) {
+                    LocationComponent location = cart.getComponent(LocationComponent.class);
+                    writer.pose(cart.getId(), location.getWorldPosition(position),
+                            location.getWorldRotation(rotation), cart.getComponent(RigidBodyComponent.class).velocity);
+                }
+            }
+        });
+    }
+
+    /**
+     * Called by the motion system once the tick is written back.
+     */
+    public void endTick() {
+        if (writer == null) {
+            return;
+        }
+        record(() -> writer.hash(stateHash(EntityRef::getId)));
+        inTick = false;
+    }
+
+    /**
+     * Called by the motion system when it starts simulating a cart on its track.
+     */
+    public void attached(EntityRef cart) {
+        if (writer == null) {
+            return;
+        }
+        PathFollowerComponent pathFollower = cart.getComponent(PathFollowerComponent.class);
+        BlockComponent railBlock = pathFollower.segmentMeta.association.getComponent(BlockComponent.class);
+        LocationComponent location = cart.getComponent(LocationComponent.class);
+        if (railBlock == null || location == null) {
+            return;
+        }
+        Prefab descriptor = pathFollower.segmentMeta.prefab;
+        record(() -> writer.attach(cart.getId(), railBlock.getPosition(),
+                descriptor == null ? "" : descriptor.getUrn().toString(), pathFollower.segmentMeta.position,
+                pathFollower.heading, cartMotionSystem.getVelocity(cart, velocity),
+                location.getWorldPosition(position), location.getWorldRotation(rotation)));
+    }
+
+    /**
+     * Called by the motion system when it stops simulating a cart without detaching it.
+     */
+    public void released(EntityRef cart) {
+        if (writer != null) {
+            record(() -> writer.detach(cart.getId()));
+        }
+    }
+
+    /**
+     * A hash over the position and velocity of every attached cart, in the order of the given ids.
+     */
+    public long stateHash(ToLongFunction<EntityRef> ids) {
+        List<EntityRef> carts = new ArrayList<>();
+        for (EntityRef cart : entityManager.getEntitiesWith(RailVehicleComponent.class, LocationComponent.class)) {
+            if (cartMotionSystem.isOnTrack(cart)) {
+                carts.add(cart);
+            }
+        }
+        carts.sort(Comparator.comparingLong(ids));
+        long hash = 17;
+        for (EntityRef cart : carts) {
+            cart.getComponent(LocationComponent.class).getWorldPosition(position);
+            cartMotionSystem.getVelocity(cart, velocity);
+            hash = 31 * hash + ids.applyAsLong(cart);
+            hash = 31 * hash + Float.floatToIntBits(position.x);
+            hash = 31 * hash + Float.floatToIntBits(position.y);
+            hash = 31 * hash + Float.floatToIntBits(position.z);
+            hash = 31 * hash + Float.floatToIntBits(velocity.x);
+            hash = 31 * hash + Float.floatToIntBits(velocity.y);
+            hash = 31 * hash + Float.floatToIntBits(velocity.z);
+        }
+        return hash;
+    }
+
+    @ReceiveEvent(components = {BlockComponent.class})
+    public void onBlockChanged(OnChangedBlock event, EntityRef blockEntity) {
+        if (writer != null && (isRail(event.getOldType()) || isRail(event.getNewType()))) {
+            record(() -> writer.block(event.getBlockPosition(), event.getNewType().getURI().toString()));
+        }
+    }
+
+    @ReceiveEvent(components = {RailVehicleComponent.class, LocationComponent.class})
+    public void onCartActivated(OnActivatedComponent event, EntityRef cart) {
+        if (writer != null) {
+            spawned(cart);
+        }
+    }
+
+    @ReceiveEvent(components = {RailVehicleComponent.class})
+    public void onCartDeactivated(BeforeDeactivateComponent event, EntityRef cart) {
+        if (writer != null) {
+            record(() -> writer.destroy(cart.getId()));
+        }
+    }
+
+    @ReceiveEvent(components = {RailVehicleComponent.class, PathFollowerComponent.class})
+    public void onCartDetached(BeforeRemoveComponent event, EntityRef cart) {
+        if (writer != null && !inTick) {
+            released(cart);
+        }
+    }
+
+    @ReceiveEvent(components = {RailVehicleComponent.class, CartJointComponent.class})
+    public void onJointChanged(OnChangedComponent event, EntityRef cart) {
+        if (writer != null && !inTick) {
+            joined(cart);
+        }
+    }
+
+    @Priority(EventPriority.PRIORITY_CRITICAL)
+    @ReceiveEvent(components = {RailVehicleComponent.class})
+    public void onCollide(CollideEvent event, EntityRef cart) {
+        if (writer != null) {
+            record(() -> writer.collide(cart.getId(), event.getOtherEntity().getId(), event.getEntityContactPoint(),
+                    event.getOtherEntityContactPoint(), event.getPenetration(), event.getNormal()));
+        }
+    }
+
+    private void spawned(EntityRef cart) {
+        Prefab prefab = cart.getParentPrefab();
+        LocationComponent location = cart.getComponent(LocationComponent.class);
+        record(() -> writer.spawn(cart.getId(), prefab == null ? "" : prefab.getUrn().toString(),
+                location.getWorldPosition(position), location.getWorldRotation(rotation)));
+    }
+
+    private void joined(EntityRef cart) {
+        CartJointComponent joint = cart.getComponent(CartJointComponent.class);
+        if (joint == null) {
+            return;
+        }
+        record(() -> writer.joint(cart.getId(), socketId(joint.front), joint.front != null && joint.front.isOwning,
+                socketId(joint.back), joint.back != null && joint.back.isOwning));
+    }
+
+    private static long socketId(CartJointComponent.CartJointSocket socket) {
+        return socket == null || socket.entity == null ? 0 : socket.entity.getId();
+    }
+
+    /**
+     * Writes to the recording, stopping it if the file cannot be written.
+     */
+    private void record(Recording recording) {
+        try {
+            recording.write();
+        } catch (IOException e) {
+            logger.error("Failed to write rails replay, stopping the recording", e);
+            stopRecording();
+        }
+    }
+
+    private static boolean isRail(Block block) {
+        return block.getBlockFamily() instanceof RailBlockFamily;
+    }
+
+    @FunctionalInterface
+    private interface Recording {
+        void write() throws IOException;
+    }
+}
@@ -0,0 +1,188 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.replay;
+
+import org.joml.Quaternionfc;
+import org.joml.Vector3fc;
+import org.joml.Vector3ic;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a rails replay: a gzip compressed stream of tagged records, read back by {@link RailsReplayReader}.
+ * <p>
+ * Entities are referred to by their id in the recorded game, 0 meaning none. Strings such as prefab and block URIs are
+ * written once and referred to by index after that.
+ */
+public class RailsReplayWriter implements Closeable {
+    static final int MAGIC = 0x5241494c;
+    static final int VERSION = 1;
+
+    static final int STRING = 0;
+    static final int CONFIG = 1;
+    static final int TICK = 2;
+    static final int HASH = 3;
+    static final int BLOCK = 4;
+    static final int SPAWN = 5;
+    static final int DESTROY = 6;
+    static final int ATTACH = 7;
+    static final int DETACH = 8;
+    static final int JOINT = 9;
+    static final int POSE = 10;
+    static final int COLLIDE = 11;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    public RailsReplayWriter(OutputStream stream) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(stream)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * The settings of the rail physics the recording starts with.
+     *
+     * @param remainder the frame time carried over to the first recorded tick
+     */
+    public void config(float step, int maxStepsPerFrame, int substeps, boolean adaptiveSubsteps, int solverIterations,
+                       float remainder) throws IOException {
+        out.writeByte(CONFIG);
+        out.writeFloat(step);
+        out.writeInt(maxStepsPerFrame);
+        out.writeInt(substeps);
+        out.writeBoolean(adaptiveSubsteps);
+        out.writeInt(solverIterations);
+        out.writeFloat(remainder);
+    }
+
+    /**
+     * Starts a tick of the rail physics; the records up to the next {@link #hash(long)} are applied before it.
+     */
+    public void tick(float delta) throws IOException {
+        out.writeByte(TICK);
+        out.writeFloat(delta);
+    }
+
+    /**
+     * Ends a tick with the hash of the state of all attached carts.
+     */
+    public void hash(long hash) throws IOException {
+        out.writeByte(HASH);
+        out.writeLong(hash);
+    }
+
+    public void block(Vector3ic position, String uri) throws IOException {
+        int index = string(uri);
+        out.writeByte(BLOCK);
+        writeVector(position);
+        out.writeInt(index);
+    }
+
+    public void spawn(long id, String prefab, Vector3fc position, Quaternionfc rotation) throws IOException {
+        int index = string(prefab);
+        out.writeByte(SPAWN);
+        out.writeLong(id);
+        out.writeInt(index);
+        writeVector(position);
+        writeRotation(rotation);
+    }
+
+    public void destroy(long id) throws IOException {
+        out.writeByte(DESTROY);
+        out.writeLong(id);
+    }
+
+    public void attach(long id, Vector3ic railBlock, String descriptor, float segmentPosition, Vector3fc heading,
+                       Vector3fc velocity, Vector3fc position, Quaternionfc rotation) throws IOException {
+        int index = string(descriptor);
+        out.writeByte(ATTACH);
+        out.writeLong(id);
+        writeVector(railBlock);
+        out.writeInt(index);
+        out.writeFloat(segmentPosition);
+        writeVector(heading);
+        writeVector(velocity);
+        writeVector(position);
+        writeRotation(rotation);
+    }
+
+    public void detach(long id) throws IOException {
+        out.writeByte(DETACH);
+        out.writeLong(id);
+    }
+
+    public void joint(long id, long front, boolean frontOwning, long back, boolean backOwning) throws IOException {
+        out.writeByte(JOINT);
+        out.writeLong(id);
+        out.writeLong(front);
+        out.writeBoolean(frontOwning);
+        out.writeLong(back);
+        out.writeBoolean(backOwning);
+    }
+
+    /**
+     * The transform and velocity of a detached cart, which the physics engine moves rather than the rail systems.
+     */
+    public void pose(long id, Vector3fc position, Quaternionfc rotation, Vector3fc velocity) throws IOException {
+        out.writeByte(POSE);
+        out.writeLong(id);
+        writeVector(position);
+        writeRotation(rotation);
+        writeVector(velocity);
+    }
+
+    public void collide(long id, long other, Vector3fc contactPoint, Vector3fc otherContactPoint, float penetration,
+                        Vector3fc normal) throws IOException {
+        out.writeByte(COLLIDE);
+        out.writeLong(id);
+        out.writeLong(other);
+        writeVector(contactPoint);
+        writeVector(otherContactPoint);
+        out.writeFloat(penetration);
+        writeVector(normal);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private int string(String value) throws IOException {
+        Integer index = strings.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.put(value, index);
+            out.writeByte(STRING);
+            out.writeUTF(value);
+        }
+        return index;
+    }
+
+    private void writeVector(Vector3fc vector) throws IOException {
+        out.writeFloat(vector.x());
+        out.writeFloat(vector.y());
+        out.writeFloat(vector.z());
+    }
+
+    private void writeVector(Vector3ic vector) throws IOException {
+        out.writeInt(vector.x());
+        out.writeInt(vector.y());
+        out.writeInt(vector.z());
+    }
+
+    private void writeRotation(Quaternionfc rotation) throws IOException {
+        out.writeFloat(rotation.x());
+        out.writeFloat(rotation.y());
+        out.writeFloat(rotation.z());
+        out.writeFloat(rotation.w());
+    }
+}
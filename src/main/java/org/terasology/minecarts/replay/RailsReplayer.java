@@ -0,0 +1,289 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.replay;
+
+import gnu.trove.list.array.TLongArrayList;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.joml.Vector3ic;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.physics.components.RigidBodyComponent;
+import org.terasology.engine.physics.events.CollideEvent;
+import org.terasology.engine.utilities.Assets;
+import org.terasology.engine.world.BlockEntityRegistry;
+import org.terasology.engine.world.WorldProvider;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.minecarts.components.CartJointComponent;
+import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.minecarts.controllers.CartJointSystem;
+import org.terasology.minecarts.controllers.CartMotionSystem;
+import org.terasology.segmentedpaths.SegmentMeta;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Re-runs a recording of the {@link RailsReplaySystem} against the rail systems of a game that is not running, e.g.
+ * in the integration environment between ticks, and checks every tick against the recorded hash.
+ * <p>
+ * The replayer drives {@link CartMotionSystem#update(float)} itself with the recorded frame times, so the physics
+ * engine does not step and everything it did in the recorded session comes from the recording. The chunks covering
+ * {@link #region(InputStream)} have to be loaded before replaying.
+ */
+public class RailsReplayer implements RailsReplayReader.Handler {
+    private final EntityManager entityManager;
+    private final WorldProvider worldProvider;
+    private final BlockManager blockManager;
+    private final BlockEntityRegistry blockEntityRegistry;
+    private final CartMotionSystem cartMotionSystem;
+    private final CartJointSystem cartJointSystem;
+    private final RailsReplaySystem railsReplaySystem;
+
+    private final Map<Long, EntityRef> entities = new HashMap<>();
+    private final Map<EntityRef, Long> ids = new HashMap<>();
+    private final TLongArrayList tickTimes = new TLongArrayList();
+    private float delta;
+    private int divergedAt = -1;
+
+    public RailsReplayer(Context context) {
+        entityManager = context.get(EntityManager.class);
+        worldProvider = context.get(WorldProvider.class);
+        blockManager = context.get(BlockManager.class);
+        blockEntityRegistry = context.get(BlockEntityRegistry.class);
+        cartMotionSystem = context.get(CartMotionSystem.class);
+        cartJointSystem = context.get(CartJointSystem.class);
+        railsReplaySystem = context.get(RailsReplaySystem.class);
+    }
+
+    /**
+     * The rail blocks a recording starts with and places later on.
+     */
+    public static BlockRegion region(InputStream stream) throws IOException {
+        BlockRegion region = new BlockRegion(BlockRegion.INVALID);
+        try (RailsReplayReader reader = new RailsReplayReader(stream)) {
+            RailsReplayReader.Handler handler = new RailsReplayReader.Handler() {
+                @Override
+                public void block(Vector3ic position, String uri) {
+                    region.union(position);
+                }
+            };
+            while (reader.next(handler)) {
+                // only the blocks are of interest
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Replays a recording from start to end. The carts it spawned are left in the world.
+     */
+    public Result replay(InputStream stream) throws IOException {
+        railsReplaySystem.stopRecording();
+        boolean autoAttach = cartMotionSystem.isAutoAttach();
+        cartMotionSystem.setAutoAttach(false);
+        try (RailsReplayReader reader = new RailsReplayReader(stream)) {
+            while (reader.next(this)) {
+                // every record is applied by the handler methods
+            }
+        } finally {
+            cartMotionSystem.setAutoAttach(autoAttach);
+        }
+        return new Result(tickTimes.toArray(), divergedAt);
+    }
+
+    @Override
+    public void config(float step, int maxStepsPerFrame, int substeps, boolean adaptiveSubsteps, int solverIterations,
+                       float remainder) {
+        cartMotionSystem.setFixedTimestep(step, maxStepsPerFrame);
+        cartMotionSystem.setSubsteps(substeps);
+        cartMotionSystem.setAdaptiveSubsteps(adaptiveSubsteps);
+        cartMotionSystem.setTimestepRemainder(remainder);
+        cartJointSystem.setSolverIterations(solverIterations);
+    }
+
+    @Override
+    public void tick(float tickDelta) {
+        delta = tickDelta;
+    }
+
+    @Override
+    public void hash(long hash) {
+        long start = System.nanoTime();
+        cartMotionSystem.update(delta);
+        tickTimes.add(System.nanoTime() - start);
+        if (divergedAt == -1 && railsReplaySystem.stateHash(this::recordedId) != hash) {
+            divergedAt = tickTimes.size() - 1;
+        }
+    }
+
+    @Override
+    public void block(Vector3ic position, String uri) {
+        worldProvider.setBlock(position, blockManager.getBlock(uri));
+    }
+
+    @Override
+    public void spawn(long id, String prefab, Vector3fc position, Quaternionfc rotation) {
+        if (prefab.isEmpty()) {
+            return;
+        }
+        EntityRef cart = entityManager.create(prefab, position);
+        LocationComponent location = cart.getComponent(LocationComponent.class);
+        location.setWorldRotation(rotation);
+        cart.saveComponent(location);
+        entities.put(id, cart);
+        ids.put(cart, id);
+    }
+
+    @Override
+    public void destroy(long id) {
+        EntityRef cart = entities.remove(id);
+        if (cart != null) {
+            ids.remove(cart);
+            cart.destroy();
+        }
+    }
+
+    @Override
+    public void attach(long id, Vector3ic railBlock, String descriptor, float segmentPosition, Vector3fc heading,
+                       Vector3fc velocity, Vector3fc position, Quaternionfc rotation) {
+        EntityRef cart = entity(id);
+        if (!cart.exists()) {
+            return;
+        }
+        // the motion system picks the cart up on its next update, as with any cart attached by another system
+        PathFollowerComponent pathFollower = cart.getComponent(PathFollowerComponent.class);
+        if (pathFollower == null) {
+            pathFollower = new PathFollowerComponent();
+        }
+        Prefab prefab = Assets.getPrefab(descriptor).orElse(null);
+        pathFollower.segmentMeta = new SegmentMeta(segmentPosition, blockEntityRegistry.getBlockEntityAt(railBlock),
+                prefab);
+        pathFollower.heading = new Vector3f(heading);
+        cart.addOrSaveComponent(pathFollower);
+
+        RailVehicleComponent railVehicle = cart.getComponent(RailVehicleComponent.class);
+        railVehicle.velocity.set(velocity);
+        cart.saveComponent(railVehicle);
+        RigidBodyComponent rigidBody = cart.getComponent(RigidBodyComponent.class);
+        rigidBody.kinematic = true;
+        cart.saveComponent(rigidBody);
+        LocationComponent location = cart.getComponent(LocationComponent.class);
+        location.setWorldPosition(position);
+        location.setWorldRotation(rotation);
+        cart.saveComponent(location);
+    }
+
+    @Override
+    public void detach(long id) {
+        EntityRef cart = entity(id);
+        if (cart.hasComponent(PathFollowerComponent.class)) {
+            cart.removeComponent(PathFollowerComponent.class);
+        }
+    }
+
+    @Override
+    public void joint(long id, long front, boolean frontOwning, long back, boolean backOwning) {
+        EntityRef cart = entity(id);
+        CartJointComponent joint = cart.getComponent(CartJointComponent.class);
+        if (joint == null) {
+            return;
+        }
+        setSocket(joint.front, front, frontOwning);
+        setSocket(joint.back, back, backOwning);
+        cart.saveComponent(joint);
+    }
+
+    @Override
+    public void pose(long id, Vector3fc position, Quaternionfc rotation, Vector3fc velocity) {
+        EntityRef cart = entity(id);
+        LocationComponent location = cart.getComponent(LocationComponent.class);
+        RigidBodyComponent rigidBody = cart.getComponent(RigidBodyComponent.class);
+        if (location == null || rigidBody == null) {
+            return;
+        }
+        location.setWorldPosition(position);
+        location.setWorldRotation(rotation);
+        cart.saveComponent(location);
+        rigidBody.velocity.set(velocity);
+        cart.saveComponent(rigidBody);
+    }
+
+    @Override
+    public void collide(long id, long other, Vector3fc contactPoint, Vector3fc otherContactPoint, float penetration,
+                        Vector3fc normal) {
+        EntityRef cart = entity(id);
+        EntityRef otherEntity = entity(other);
+        // collisions with anything but recorded carts, e.g. players, cannot be replayed
+        if (cart.exists() && otherEntity.exists()) {
+            cart.send(new CollideEvent(otherEntity, new Vector3f(contactPoint), new Vector3f(otherContactPoint),
+                    penetration, new Vector3f(normal)));
+        }
+    }
+
+    private void setSocket(CartJointComponent.CartJointSocket socket, long id, boolean owning) {
+        if (socket != null) {
+            socket.entity = id == 0 ? null : entity(id);
+            socket.isOwning = owning;
+        }
+    }
+
+    private EntityRef entity(long id) {
+        return entities.getOrDefault(id, EntityRef.NULL);
+    }
+
+    private long recordedId(EntityRef entity) {
+        return ids.getOrDefault(entity, entity.getId());
+    }
+
+    /**
+     * Outcome of a replay: the time each tick took and the first tick whose state differs from the recording.
+     */
+    public static final class Result {
+        private final long[] tickNanos;
+        private final int divergedAt;
+
+        Result(long[] tickNanos, int divergedAt) {
+            this.tickNanos = tickNanos;
+            this.divergedAt = divergedAt;
+        }
+
+        public int getTicks() {
+            return tickNanos.length;
+        }
+
+        public boolean isDiverged() {
+            return divergedAt != -1;
+        }
+
+        /**
+         * Index of the first tick that ended in a different state than recorded, or -1.
+         */
+        public int getDivergedAt() {
+            return divergedAt;
+        }
+
+        /**
+         * The given percentile, between 0 and 100, of the time the ticks took in nanoseconds.
+         */
+        public long percentile(double percentile) {
+            if (tickNanos.length == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(tickNanos, tickNanos.length);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.integrationenvironment.ModuleTestingHelper;
 import org.terasology.engine.math.Side;
 import org.terasology.engine.math.SideBitFlag;
@@ -17,15 +18,31 @@ import org.terasology.engine.world.block.Block;
 import org.terasology.engine.world.block.BlockManager;
 import org.terasology.engine.world.block.BlockRegion;
 import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.entity.neighbourUpdate.LargeBlockUpdateFinished;
+import org.terasology.engine.world.block.entity.neighbourUpdate.LargeBlockUpdateStarting;
 import org.terasology.engine.world.block.family.BlockFamily;
 import org.terasology.engine.world.block.family.BlockPlacementData;
+import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.integrationenvironment.jupiter.IntegrationEnvironment;
+import org.terasology.minecarts.blocks.RailBlockFamily;
+import org.terasology.minecarts.blocks.RailsBlockFamilyUpdateSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 @IntegrationEnvironment(dependencies = {"Rails", "CoreAssets"})
 public class RailsTest {
 
     private static final String RAIL_BLOCKFAMILY_URI = "rails:rails";
+    // a corner leading away from the end of a rail already in the world, and past the middle of a straight one
+    private static final Vector3i EXISTING_RAIL = new Vector3i(0, 0, -2);
+    private static final Vector3i EXISTING_STRAIGHT_RAIL = new Vector3i(3, 0, 1);
+    private static final List<Vector3i> EXISTING_RAILS = Arrays.asList(EXISTING_RAIL, new Vector3i(3, 0, 0),
+            EXISTING_STRAIGHT_RAIL, new Vector3i(3, 0, 2));
+    private static final List<Vector3i> TRACK = Arrays.asList(new Vector3i(0, 0, -1), new Vector3i(0, 0, 0),
+            new Vector3i(0, 0, 1), new Vector3i(1, 0, 1), new Vector3i(2, 0, 1));
 
     @In
     BlockManager blockManager;
@@ -33,6 +50,8 @@ public class RailsTest {
     ModuleTestingHelper helper;
     @In
     WorldProvider worldProvider;
+    @In
+    RailsBlockFamilyUpdateSystem railsBlockFamilyUpdateSystem;
 
     private Block dirtBlock;
     private BlockFamily railBlockFamily;
@@ -131,6 +150,124 @@ public class RailsTest {
         assertRailBlockAtConnectsTo(new Vector3i(0, 0, -1), SideBitFlag.getSides(Side.TOP, Side.FRONT));
     }
 
+    @Test
+    public void placeTrackMatchesSingleRails() {
+        List<BlockUri> expected = placeSingleRails();
+
+        placeExistingRails();
+        railsBlockFamilyUpdateSystem.placeTrack(TRACK, (RailBlockFamily) railBlockFamily);
+
+        Assertions.assertEquals(expected, getTrackBlocks());
+        assertRailBlockAtConnectsTo(EXISTING_RAIL, SideBitFlag.getSides(Side.BACK));
+        assertRailBlockAtConnectsTo(EXISTING_STRAIGHT_RAIL, SideBitFlag.getSides(Side.FRONT, Side.BACK));
+        assertRailBlockAtConnectsTo(TRACK.get(TRACK.size() - 1), SideBitFlag.getSides(Side.LEFT));
+    }
+
+    @Test
+    public void placeTrackAlongMatchesSingleRails() {
+        List<BlockUri> expected = placeSingleRails();
+
+        placeExistingRails();
+        railsBlockFamilyUpdateSystem.placeTrackAlong(Arrays.asList(new Vector3i(0, 0, -1), new Vector3i(0, 0, 1),
+                new Vector3i(2, 0, 1)), (RailBlockFamily) railBlockFamily);
+
+        Assertions.assertEquals(expected, getTrackBlocks());
+        assertRailBlockAtConnectsTo(EXISTING_RAIL, SideBitFlag.getSides(Side.BACK));
+        assertRailBlockAtConnectsTo(EXISTING_STRAIGHT_RAIL, SideBitFlag.getSides(Side.FRONT, Side.BACK));
+        assertRailBlockAtConnectsTo(TRACK.get(TRACK.size() - 1), SideBitFlag.getSides(Side.LEFT));
+    }
+
+    @Test
+    public void largeUpdatesReconnectOverSeveralTicks() {
+        int length = 64;
+        // enough rails that their neighbour updates exceed a tick's budget by more than one line
+        int lines = Constants.RAIL_UPDATE_BUDGET / length + 2;
+        BlockRegion region = new BlockRegion(0, -1, 0).union(length - 1, 1, 2 * (lines - 1));
+        for (Vector3ic chunk : Chunks.toChunkRegion(region, new BlockRegion(BlockRegion.INVALID))) {
+            helper.forceAndWaitForGeneration(new Vector3i(chunk).mul(Chunks.CHUNK_SIZE));
+        }
+        Block airBlock = blockManager.getBlock("engine:air");
+        dirtBlock = blockManager.getBlock("CoreAssets:Dirt");
+        railBlockFamily = blockManager.getBlockFamily(RAIL_BLOCKFAMILY_URI);
+        for (Vector3ic position : region) {
+            worldProvider.setBlock(position, position.y() < 0 ? dirtBlock : airBlock);
+        }
+
+        // every rail is placed next to the one before it, which only turns towards it once its neighbours update
+        EntityRef worldEntity = worldProvider.getWorldEntity();
+        worldEntity.send(new LargeBlockUpdateStarting());
+        for (int line = 0; line < lines; line++) {
+            for (int x = 0; x < length; x++) {
+                setRail(new Vector3i(x, 0, 2 * line));
+            }
+        }
+        worldEntity.send(new LargeBlockUpdateFinished());
+
+        Assertions.assertFalse(isLineConnected(lines - 1, length));
+        int[] ticks = {0};
+        helper.runWhile(() -> ticks[0]++ < 10 && !areLinesConnected(lines, length));
+
+        for (int line = 0; line < lines; line++) {
+            assertRailBlockAtConnectsTo(new Vector3i(0, 0, 2 * line), SideBitFlag.getSides(Side.RIGHT));
+            for (int x = 1; x < length - 1; x++) {
+                assertRailBlockAtConnectsTo(new Vector3i(x, 0, 2 * line), SideBitFlag.getSides(Side.LEFT, Side.RIGHT));
+            }
+            assertRailBlockAtConnectsTo(new Vector3i(length - 1, 0, 2 * line), SideBitFlag.getSides(Side.LEFT));
+        }
+    }
+
+    private boolean areLinesConnected(int lines, int length) {
+        for (int line = 0; line < lines; line++) {
+            if (!isLineConnected(line, length)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether all inner rails of a line have turned towards both of their neighbours.
+     */
+    private boolean isLineConnected(int line, int length) {
+        String expectedIdentifier = String.valueOf(SideBitFlag.getSides(Side.LEFT, Side.RIGHT));
+        for (int x = 1; x < length - 1; x++) {
+            BlockUri uri = worldProvider.getBlock(new Vector3i(x, 0, 2 * line)).getURI();
+            if (!expectedIdentifier.equals(uri.getIdentifier().toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lays {@link #TRACK} one rail at a time next to {@link #EXISTING_RAILS}.
+     */
+    private List<BlockUri> placeSingleRails() {
+        placeExistingRails();
+        for (Vector3i position : TRACK) {
+            setRail(position);
+        }
+        return getTrackBlocks();
+    }
+
+    private void placeExistingRails() {
+        this.initialize();
+        for (Vector3i position : EXISTING_RAILS) {
+            setRail(position);
+        }
+    }
+
+    private List<BlockUri> getTrackBlocks() {
+        List<BlockUri> blocks = new ArrayList<>();
+        for (Vector3i position : EXISTING_RAILS) {
+            blocks.add(worldProvider.getBlock(position).getURI());
+        }
+        for (Vector3i position : TRACK) {
+            blocks.add(worldProvider.getBlock(position).getURI());
+        }
+        return blocks;
+    }
+
     private void assertRailBlockAtConnectsTo(Vector3ic position, byte expectedConnectionSides) {
         BlockUri railsBlockUri = worldProvider.getBlock(position).getURI();
         String expectedIdentifier = String.valueOf(expectedConnectionSides);
@@ -0,0 +1,85 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.analysis;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.math.SideBitFlag;
+import org.terasology.minecarts.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RailNetworkTest {
+    private static final Vector3ic EAST = Side.RIGHT.direction();
+
+    private static long east(int steps, int y) {
+        return Util.packPosition(EAST.x() * steps, y, EAST.z() * steps);
+    }
+
+    @Test
+    public void followsStraightTrackAndSlopes() {
+        byte line = SideBitFlag.getSides(Side.RIGHT, Side.LEFT);
+        byte end = SideBitFlag.getSide(Side.RIGHT);
+        // a slope rising towards the east: low side west plus the top flag
+        byte slope = SideBitFlag.getSides(Side.LEFT, Side.TOP);
+        byte upperEnd = SideBitFlag.getSide(Side.LEFT);
+        long[] positions = {east(0, 0), east(1, 0), east(2, 0), east(3, 1), east(10, 0)};
+        byte[] connections = {end, line, slope, upperEnd, 0};
+
+        RailNetwork network = new RailNetwork(positions, connections);
+
+        Assertions.assertArrayEquals(new long[]{east(0, 0), east(1, 0), east(2, 0), east(3, 1)},
+                network.route(east(0, 0), east(3, 1)));
+        Assertions.assertArrayEquals(new long[0], network.route(east(0, 0), east(10, 0)));
+        Assertions.assertEquals(4, network.reachable(east(3, 1)).length);
+        Assertions.assertEquals(2, network.connectedComponents().size());
+        Assertions.assertArrayEquals(new long[]{east(0, 0), east(3, 1), east(10, 0)}, network.deadEnds());
+    }
+
+    @Test
+    public void tracesAlongTheTrackUntilItEndsOrLoops() {
+        byte line = SideBitFlag.getSides(Side.RIGHT, Side.LEFT);
+        long[] positions = {east(0, 0), east(1, 0), east(2, 0), east(3, 0)};
+        byte[] connections = {line, line, line, line};
+        RailNetwork network = new RailNetwork(positions, connections);
+
+        Assertions.assertArrayEquals(positions, network.trace(east(0, 0), EAST.x(), EAST.z(), 10));
+        Assertions.assertArrayEquals(new long[]{east(0, 0), east(1, 0)},
+                network.trace(east(0, 0), EAST.x(), EAST.z(), 2));
+        Assertions.assertArrayEquals(new long[]{east(0, 0)}, network.trace(east(0, 0), -EAST.x(), -EAST.z(), 10));
+
+        // a ring of eight blocks around the origin
+        List<Vector3ic> ring = new ArrayList<>();
+        for (int x = -1; x <= 1; x++) {
+            for (int z = -1; z <= 1; z++) {
+                if (x != 0 || z != 0) {
+                    ring.add(new Vector3i(x, 0, z));
+                }
+            }
+        }
+        long[] ringPositions = new long[ring.size()];
+        byte[] ringConnections = new byte[ring.size()];
+        for (int i = 0; i < ring.size(); i++) {
+            Vector3ic block = ring.get(i);
+            ringPositions[i] = Util.packPosition(block);
+            List<Side> sides = new ArrayList<>();
+            for (Side side : Side.values()) {
+                Vector3i neighbour = block.add(side.direction(), new Vector3i());
+                if (side.isHorizontal() && ring.contains(neighbour)) {
+                    sides.add(side);
+                }
+            }
+            ringConnections[i] = SideBitFlag.getSides(sides.toArray(new Side[0]));
+        }
+        RailNetwork loop = new RailNetwork(ringPositions, ringConnections);
+
+        long[] trace = loop.trace(Util.packPosition(-1, 0, -1), 1, 0, 100);
+        Assertions.assertEquals(9, trace.length);
+        Assertions.assertEquals(trace[0], trace[8]);
+    }
+}
@@ -0,0 +1,36 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.segmentedpaths.controllers.SegmentMapping;
+
+public class RailGraphTest {
+
+    @Test
+    public void removeChunkDropsTheChunkAndTheBlocksAroundIt() {
+        RailGraph graph = new RailGraph();
+        Prefab descriptor = Mockito.mock(Prefab.class);
+        SegmentMapping.MappingResult edge = Mockito.mock(SegmentMapping.MappingResult.class);
+        Vector3i inside = new Vector3i(Chunks.SIZE_X - 1, 0, 0);
+        Vector3i border = new Vector3i(Chunks.SIZE_X, 0, 0);
+        Vector3i belowBorder = new Vector3i(-1, -1, 0);
+        Vector3i further = new Vector3i(Chunks.SIZE_X + 1, 0, 0);
+        for (Vector3i position : new Vector3i[]{inside, border, belowBorder, further}) {
+            graph.putEdge(position, descriptor, SegmentMapping.SegmentEnd.END, edge);
+        }
+
+        graph.removeChunk(new Vector3i());
+
+        Assertions.assertNull(graph.getEdge(inside, descriptor, SegmentMapping.SegmentEnd.END));
+        Assertions.assertNull(graph.getEdge(border, descriptor, SegmentMapping.SegmentEnd.END));
+        Assertions.assertNull(graph.getEdge(belowBorder, descriptor, SegmentMapping.SegmentEnd.END));
+        Assertions.assertSame(edge, graph.getEdge(further, descriptor, SegmentMapping.SegmentEnd.END));
+    }
+}
@@ -0,0 +1,44 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.terasology.minecarts.Constants;
+
+public class RailProfileTest {
+
+    /**
+     * A straight segment of length 1 climbing along z with the given tangent.
+     */
+    private static SegmentSamples straight(Vector3f tangent, Vector3f normal) {
+        return SegmentSamples.sample(TestSegments.straight(tangent, normal), .1f);
+    }
+
+    @Test
+    public void matchesProjectingGravityOntoTheTrack() {
+        SegmentSamples samples = straight(new Vector3f(0, .6f, .8f), new Vector3f(0, .8f, -.6f));
+        for (Quaternionf rotation : new Quaternionf[]{new Quaternionf(), new Quaternionf().rotateY(1.3f)}) {
+            RailProfile profile = RailProfile.of(null, samples, rotation, .5f);
+
+            Vector3f worldTangent = rotation.transform(new Vector3f(0, .6f, .8f));
+            Vector3f worldNormal = rotation.transform(new Vector3f(0, .8f, -.6f));
+            Vector3f gravity = new Vector3f(0, -Constants.GRAVITY, 0);
+            Assertions.assertEquals(worldTangent.dot(gravity), profile.gravity(.5f), 1e-4f);
+            Assertions.assertEquals(Math.abs(worldNormal.dot(gravity)) / gravity.length() * .5f
+                    / Constants.CART_FIXED_TIMESTEP, profile.friction(.5f), 1e-3f);
+        }
+    }
+
+    @Test
+    public void levelTrackOnlyHasFriction() {
+        SegmentSamples samples = straight(new Vector3f(0, 0, 1), new Vector3f(0, 1, 0));
+        RailProfile profile = RailProfile.of(null, samples, new Quaternionf().rotateY((float) Math.PI / 2), .01f);
+
+        Assertions.assertEquals(0, profile.gravity(.25f), 1e-6f);
+        Assertions.assertEquals(.01f / Constants.CART_FIXED_TIMESTEP, profile.friction(.25f), 1e-5f);
+    }
+}
@@ -0,0 +1,27 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SegmentSamplesTest {
+
+    @Test
+    public void interpolatesAQuarterCircle() {
+        float length = (float) (Math.PI / 2);
+        SegmentSamples samples = SegmentSamples.sample(TestSegments.quarterCircle(), .05f);
+        Assertions.assertEquals(length, samples.getLength(), 1e-6f);
+        for (float position = 0; position <= length; position += .0123f) {
+            Vector3f point = samples.point(position, new Vector3f());
+            Assertions.assertEquals(Math.sin(position), point.x, 1e-3);
+            Assertions.assertEquals(1 - Math.cos(position), point.z, 1e-3);
+            Vector3f tangent = samples.tangent(position, new Vector3f());
+            Assertions.assertEquals(1, tangent.length(), 1e-5);
+            Assertions.assertEquals(Math.cos(position), tangent.x, 1e-3);
+        }
+        Assertions.assertFalse(samples.contains(length + .01f));
+    }
+}
@@ -0,0 +1,58 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.blocks;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.terasology.segmentedpaths.segments.Segment;
+
+import java.util.function.Function;
+
+/**
+ * Mocked segments of a single curve, parameterized by arc length, to be sampled into {@link SegmentSamples}.
+ */
+final class TestSegments {
+    private TestSegments() {
+    }
+
+    /**
+     * A straight segment of length 1 from the origin along the given tangent.
+     */
+    static Segment straight(Vector3fc tangent, Vector3fc normal) {
+        return segment(1, position -> new Vector3f(tangent).mul(position), position -> new Vector3f(tangent),
+                position -> new Vector3f(normal));
+    }
+
+    /**
+     * A level quarter circle of radius 1 in the xz plane, starting at the origin heading along x.
+     */
+    static Segment quarterCircle() {
+        return segment((float) (Math.PI / 2),
+                position -> new Vector3f((float) Math.sin(position), 0, 1 - (float) Math.cos(position)),
+                position -> new Vector3f((float) Math.cos(position), 0, (float) Math.sin(position)),
+                position -> new Vector3f(0, 1, 0));
+    }
+
+    private static Segment segment(float length, Function<Float, Vector3f> point, Function<Float, Vector3f> tangent,
+                                   Function<Float, Vector3f> normal) {
+        Segment segment = Mockito.mock(Segment.class);
+        Mockito.when(segment.maxDistance()).thenReturn(length);
+        Mockito.when(segment.index(ArgumentMatchers.anyFloat())).thenReturn(0);
+        Mockito.when(segment.t(ArgumentMatchers.anyInt(), ArgumentMatchers.anyFloat()))
+                .thenAnswer(invocation -> (float) invocation.getArgument(1) / length);
+        Mockito.when(segment.point(ArgumentMatchers.anyInt(), ArgumentMatchers.anyFloat(), ArgumentMatchers.any(),
+                ArgumentMatchers.any()))
+                .thenAnswer(invocation -> point.apply((float) invocation.getArgument(1) * length));
+        Mockito.when(segment.tangent(ArgumentMatchers.anyInt(), ArgumentMatchers.anyFloat(),
+                ArgumentMatchers.any(Quaternionf.class)))
+                .thenAnswer(invocation -> tangent.apply((float) invocation.getArgument(1) * length));
+        Mockito.when(segment.normal(ArgumentMatchers.anyInt(), ArgumentMatchers.anyFloat(),
+                ArgumentMatchers.any(Quaternionf.class)))
+                .thenAnswer(invocation -> normal.apply((float) invocation.getArgument(1) * length));
+        return segment;
+    }
+}
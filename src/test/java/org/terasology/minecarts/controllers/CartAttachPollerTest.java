@@ -0,0 +1,41 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+public class CartAttachPollerTest {
+
+    @Test
+    public void restingCartBacksOff() {
+        CartAttachPoller poller = new CartAttachPoller(1, 4, .1f);
+        EntityRef cart = Mockito.mock(EntityRef.class);
+        Vector3f position = new Vector3f(3, 4, 5);
+
+        Assertions.assertTrue(poller.shouldPoll(cart, 0, position));
+        Assertions.assertTrue(poller.shouldPoll(cart, 0, position));
+        Assertions.assertFalse(poller.shouldPoll(cart, .5f, position));
+        Assertions.assertTrue(poller.shouldPoll(cart, 1, position));
+        Assertions.assertFalse(poller.shouldPoll(cart, 2.5f, position));
+        Assertions.assertTrue(poller.shouldPoll(cart, 3, position));
+        Assertions.assertTrue(poller.shouldPoll(cart, 7, position));
+        Assertions.assertFalse(poller.shouldPoll(cart, 10, position));
+    }
+
+    @Test
+    public void movingCartIsPolledEveryTick() {
+        CartAttachPoller poller = new CartAttachPoller(1, 4, .1f);
+        EntityRef cart = Mockito.mock(EntityRef.class);
+        Vector3f position = new Vector3f();
+
+        Assertions.assertTrue(poller.shouldPoll(cart, 0, position));
+        Assertions.assertTrue(poller.shouldPoll(cart, 0, position));
+        Assertions.assertFalse(poller.shouldPoll(cart, .1f, position));
+        Assertions.assertTrue(poller.shouldPoll(cart, .2f, position.add(1, 0, 0)));
+    }
+}
@@ -0,0 +1,104 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+public class CartParallelIntegratorTest {
+
+    @Test
+    public void parallelIntegrationMatchesIntegratingInSlotOrder() {
+        int carts = 3 * CartParallelIntegrator.SLOTS_PER_TASK + 7;
+        CartStateStore serial = slopedCarts(carts);
+        CartStateStore parallel = slopedCarts(carts);
+
+        CartParallelIntegrator.integrateRange(serial, 15f, 0.1f, 0.025f, 0, serial.size());
+        CartParallelIntegrator integrator = new CartParallelIntegrator(4);
+        try {
+            integrator.integrate(parallel, 15f, 0.1f, 0.025f);
+        } finally {
+            integrator.shutdown();
+        }
+
+        Vector3f expected = new Vector3f();
+        Vector3f actual = new Vector3f();
+        for (int slot = 0; slot < carts; slot++) {
+            Assertions.assertEquals(serial.getVelocity(slot, expected), parallel.getVelocity(slot, actual));
+        }
+        // inactive carts keep their velocity, substepping carts move by the substep delta
+        Assertions.assertEquals(new Vector3f(0, 0, 1), parallel.getVelocity(5, actual));
+        Assertions.assertNotEquals(parallel.getVelocity(1, expected), parallel.getVelocity(2, actual));
+    }
+
+    @Test
+    public void parallelTrainSolveMatchesSolvingInTrainOrder() {
+        int trainCount = 2 * CartParallelIntegrator.SLOTS_PER_TASK / 8 + 3;
+        CartStateStore serial = new CartStateStore();
+        CartStateStore parallel = new CartStateStore();
+        CartTrains serialTrains = pulledTrains(serial, trainCount);
+        CartTrains parallelTrains = pulledTrains(parallel, trainCount);
+
+        CartParallelIntegrator.solveTrainRange(serialTrains, serial, new CartTrainSolver(), 0.1f, 4, 0,
+                serialTrains.size());
+        CartParallelIntegrator integrator = new CartParallelIntegrator(4);
+        try {
+            integrator.solveTrains(parallelTrains, parallel, 0.1f, 4);
+        } finally {
+            integrator.shutdown();
+        }
+
+        Vector3f expected = new Vector3f();
+        Vector3f actual = new Vector3f();
+        for (int slot = 0; slot < serial.size(); slot++) {
+            Assertions.assertEquals(serial.getVelocity(slot, expected), parallel.getVelocity(slot, actual));
+        }
+        for (int cart = 0; cart < serialTrains.getCartCount(); cart++) {
+            Assertions.assertEquals(serialTrains.isPulled(cart), parallelTrains.isPulled(cart));
+        }
+        // the tail of every train is pulled along by its head
+        Assertions.assertTrue(parallel.getVelocity(parallelTrains.getEndCart(0) - 1, actual).z > 0);
+    }
+
+    /**
+     * Trains of 8 carts along z with every joint at its rest length, each pulled at its head by a different speed.
+     */
+    private static CartTrains pulledTrains(CartStateStore store, int trainCount) {
+        CartTrains trains = new CartTrains();
+        Vector3f heading = new Vector3f(0, 0, 1);
+        for (int train = 0; train < trainCount; train++) {
+            trains.beginTrain();
+            for (int cart = 0; cart < 8; cart++) {
+                int slot = store.add(Mockito.mock(EntityRef.class, Mockito.withSettings().stubOnly()));
+                store.setHeading(slot, heading);
+                store.setPosition(slot, new Vector3f(2 * train, 0, -1.5f * cart));
+                store.setMass(slot, 100);
+                store.setVelocity(slot, 0, 0, cart == 0 ? 1 + train % 7 : 0);
+                int number = trains.addCart(slot);
+                if (cart > 0) {
+                    trains.addJoint(number - 1, number, 1.5f);
+                }
+            }
+        }
+        return trains;
+    }
+
+    private static CartStateStore slopedCarts(int carts) {
+        CartStateStore store = new CartStateStore();
+        Vector3f tangent = new Vector3f(0, -1, 1).normalize();
+        for (int i = 0; i < carts; i++) {
+            int slot = store.add(Mockito.mock(EntityRef.class, Mockito.withSettings().stubOnly()));
+            store.setHeading(slot, tangent);
+            store.setVelocity(slot, 0, 0, 1);
+            if (i % 5 != 0) {
+                store.setTrackFrame(slot, tangent, 9.81f * 0.7f, 0.5f);
+                store.setSubstepping(slot, i % 2 == 0);
+            }
+        }
+        return store;
+    }
+}
@@ -0,0 +1,210 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.minecarts.Util;
+
+public class CartStateStoreTest {
+
+    @Test
+    public void removeKeepsSlotsPacked() {
+        CartStateStore store = new CartStateStore();
+        EntityRef first = Mockito.mock(EntityRef.class);
+        EntityRef second = Mockito.mock(EntityRef.class);
+        EntityRef third = Mockito.mock(EntityRef.class);
+
+        store.add(first);
+        store.add(second);
+        int slot = store.add(third);
+        store.setVelocity(slot, 1, 2, 3);
+
+        Assertions.assertTrue(store.remove(first));
+        Assertions.assertEquals(2, store.size());
+        Assertions.assertEquals(-1, store.indexOf(first));
+
+        int moved = store.indexOf(third);
+        Assertions.assertEquals(0, moved);
+        Assertions.assertEquals(new Vector3f(1, 2, 3), store.getVelocity(moved, new Vector3f()));
+        Assertions.assertTrue(store.isDirty(moved));
+    }
+
+    @Test
+    public void integrateOnFlatTrackOnlyAppliesFriction() {
+        CartStateStore store = new CartStateStore();
+        int slot = store.add(Mockito.mock(EntityRef.class));
+        store.setHeading(slot, new Vector3f(0, 0, 1));
+        store.setVelocity(slot, 0, 0, 2);
+
+        float distance = store.integrate(slot, new Vector3f(0, 0, 1), 0, 5f, 15f, 0.1f);
+
+        Assertions.assertEquals(0.15f, distance, 1e-6f);
+        Assertions.assertEquals(1.5f, store.getVelocity(slot, new Vector3f()).z, 1e-6f);
+    }
+
+    @Test
+    public void integrateClampsToVelocityCap() {
+        CartStateStore store = new CartStateStore();
+        int slot = store.add(Mockito.mock(EntityRef.class));
+        store.setHeading(slot, new Vector3f(1, 0, 0));
+        store.setVelocity(slot, -30, 0, 0);
+
+        float distance = store.integrate(slot, new Vector3f(1, 0, 0), 0, 0, 15f, 1f);
+
+        Assertions.assertEquals(-15f, distance, 1e-6f);
+    }
+
+    @Test
+    public void integrateAcceleratesAlongTheTangent() {
+        CartStateStore store = new CartStateStore();
+        int slot = store.add(Mockito.mock(EntityRef.class));
+        Vector3f tangent = new Vector3f(0, .6f, .8f);
+        store.setHeading(slot, tangent);
+
+        // rolling back down a slope from rest
+        float distance = store.integrate(slot, tangent, -9.8f * .6f, 0, 15f, .1f);
+
+        Assertions.assertEquals(-.0588f, distance, 1e-6f);
+        Assertions.assertEquals(-.588f * .8f, store.getVelocity(slot, new Vector3f()).z, 1e-6f);
+    }
+
+    @Test
+    public void substepsSlowDownLikeASingleStep() {
+        Vector3f tangent = new Vector3f(0, .6f, .8f);
+        float gravity = -9.8f * .6f;
+        float friction = .01f * 60;
+        float step = 1f / 60;
+        int substeps = 4;
+
+        CartStateStore store = new CartStateStore();
+        int single = store.add(Mockito.mock(EntityRef.class));
+        int split = store.add(Mockito.mock(EntityRef.class));
+        for (int slot : new int[]{single, split}) {
+            store.setHeading(slot, tangent);
+            store.setVelocity(slot, new Vector3f(tangent).mul(5));
+        }
+
+        float distance = store.integrate(single, tangent, gravity, friction, 15f, step);
+        float splitDistance = 0;
+        for (int substep = 0; substep < substeps; substep++) {
+            splitDistance += store.integrate(split, tangent, gravity, friction, 15f, step / substeps);
+        }
+
+        Assertions.assertEquals(store.getVelocity(single, new Vector3f()).length(),
+                store.getVelocity(split, new Vector3f()).length(), 1e-5f);
+        Assertions.assertTrue(Math.abs(distance - splitDistance) < 1e-3f);
+    }
+
+    @Test
+    public void cartsAtACrossingAreNotAligned() {
+        CartStateStore store = new CartStateStore();
+        int cart = store.add(Mockito.mock(EntityRef.class));
+        int oncoming = store.add(Mockito.mock(EntityRef.class));
+        int crossing = store.add(Mockito.mock(EntityRef.class));
+        int resting = store.add(Mockito.mock(EntityRef.class));
+        store.setHeading(cart, new Vector3f(0, 0, 2));
+        store.setHeading(oncoming, new Vector3f(0, .1f, -1));
+        store.setHeading(crossing, new Vector3f(1, 0, 0));
+
+        Assertions.assertTrue(store.areAligned(cart, oncoming, .9f));
+        Assertions.assertFalse(store.areAligned(cart, crossing, .9f));
+        Assertions.assertFalse(store.areAligned(cart, resting, .9f));
+    }
+
+    @Test
+    public void sleepStopsTheCartOnItsBlock() {
+        CartStateStore store = new CartStateStore();
+        int slot = store.add(Mockito.mock(EntityRef.class));
+        store.setVelocity(slot, 0, 0, .01f);
+
+        store.sleep(slot, Util.packPosition(3, 4, 5));
+
+        Assertions.assertTrue(store.isSleeping(slot));
+        Assertions.assertEquals(Util.packPosition(3, 4, 5), store.getRestingBlock(slot));
+        Assertions.assertEquals(new Vector3f(), store.getVelocity(slot, new Vector3f()));
+    }
+
+    @Test
+    public void blockChangesOnlyWakeCartsAroundThem() {
+        CartStateStore store = new CartStateStore();
+        int near = store.add(Mockito.mock(EntityRef.class));
+        int diagonal = store.add(Mockito.mock(EntityRef.class));
+        int far = store.add(Mockito.mock(EntityRef.class));
+        store.sleep(near, Util.packPosition(0, 0, 0));
+        store.sleep(diagonal, Util.packPosition(1, 1, -1));
+        store.sleep(far, Util.packPosition(2, 0, 0));
+
+        Assertions.assertEquals(2, store.wakeAround(0, 0, 0));
+
+        Assertions.assertFalse(store.isSleeping(near));
+        Assertions.assertFalse(store.isSleeping(diagonal));
+        Assertions.assertTrue(store.isSleeping(far));
+        Assertions.assertEquals(0, store.wakeAround(0, 0, 0));
+    }
+
+    @Test
+    public void wakeTakesTheCartOffItsBlock() {
+        CartStateStore store = new CartStateStore();
+        int first = store.add(Mockito.mock(EntityRef.class));
+        int second = store.add(Mockito.mock(EntityRef.class));
+        store.sleep(first, Util.packPosition(0, 0, 0));
+        store.sleep(second, Util.packPosition(0, 0, 0));
+
+        Assertions.assertTrue(store.wake(first));
+        Assertions.assertFalse(store.wake(first));
+        Assertions.assertEquals(1, store.wakeAround(0, 0, 0));
+        Assertions.assertFalse(store.isSleeping(second));
+
+        // sleeping again on another block moves the cart there
+        store.sleep(first, Util.packPosition(0, 0, 0));
+        store.sleep(first, Util.packPosition(10, 0, 0));
+        Assertions.assertEquals(0, store.wakeAround(0, 0, 0));
+        Assertions.assertEquals(1, store.wakeAround(10, 0, 0));
+    }
+
+    @Test
+    public void sleepingCartsStayIndexedWhenSlotsMove() {
+        CartStateStore store = new CartStateStore();
+        EntityRef removed = Mockito.mock(EntityRef.class);
+        EntityRef sleeping = Mockito.mock(EntityRef.class);
+        EntityRef other = Mockito.mock(EntityRef.class);
+        store.add(removed);
+        store.add(other);
+        store.add(sleeping);
+        store.sleep(store.indexOf(removed), Util.packPosition(0, 0, 0));
+        store.sleep(store.indexOf(other), Util.packPosition(0, 0, 0));
+        store.sleep(store.indexOf(sleeping), Util.packPosition(0, 0, 0));
+
+        store.remove(removed);
+
+        Assertions.assertEquals(0, store.indexOf(sleeping));
+        Assertions.assertEquals(2, store.wakeAround(0, 0, 0));
+        Assertions.assertFalse(store.isSleeping(store.indexOf(sleeping)));
+        Assertions.assertFalse(store.isSleeping(store.indexOf(other)));
+    }
+
+    @Test
+    public void onlyCartsStoppedOnLevelTrackAreResting() {
+        CartStateStore store = new CartStateStore();
+        int level = store.add(Mockito.mock(EntityRef.class));
+        int sloped = store.add(Mockito.mock(EntityRef.class));
+        int moving = store.add(Mockito.mock(EntityRef.class));
+        store.setHeading(level, new Vector3f(2, 0, 0));
+        store.setHeading(sloped, new Vector3f(0, .6f, .8f));
+        store.setHeading(moving, new Vector3f(1, 0, 0));
+        store.setVelocity(moving, 1, 0, 0);
+
+        store.integrate(level, new Vector3f(2, .01f, 0), 0, 5f, 15f, .1f);
+        store.integrate(sloped, new Vector3f(0, .6f, .8f), 0, 5f, 15f, .1f);
+        store.integrate(moving, new Vector3f(1, 0, 0), 0, 5f, 15f, .1f);
+
+        Assertions.assertTrue(store.isResting(level, .01f, .05f));
+        Assertions.assertFalse(store.isResting(sloped, .01f, .05f));
+        Assertions.assertFalse(store.isResting(moving, .01f, .05f));
+    }
+}
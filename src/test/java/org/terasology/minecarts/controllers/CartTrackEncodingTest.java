@@ -0,0 +1,21 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.terasology.minecarts.Constants;
+
+public class CartTrackEncodingTest {
+
+    @Test
+    public void roundTripStaysWithinHalfAStep() {
+        for (float value = -Constants.VELOCITY_CAP; value <= Constants.VELOCITY_CAP; value += .0137f) {
+            Assertions.assertEquals(value, CartTrackEncoding.decodeSpeed(CartTrackEncoding.encodeSpeed(value)),
+                    CartTrackEncoding.SPEED_STEP / 2 + 1e-5f);
+            Assertions.assertEquals(value, CartTrackEncoding.decodePosition(CartTrackEncoding.encodePosition(value)),
+                    CartTrackEncoding.POSITION_STEP / 2 + 1e-5f);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+public class CartTrainSolverTest {
+
+    /**
+     * A train pulled at its head along the z axis, with every joint at its rest length.
+     */
+    private static CartTrainSolver pulledTrain(int length) {
+        CartTrainSolver solver = new CartTrainSolver();
+        solver.addCart(new Vector3f(0, 0, 2), 100);
+        for (int cart = 1; cart < length; cart++) {
+            solver.addCart(new Vector3f(), 100);
+        }
+        Vector3f normal = new Vector3f(0, 0, 1);
+        for (int cart = 0; cart + 1 < length; cart++) {
+            solver.addJoint(cart, cart + 1, normal, normal, 0);
+        }
+        return solver;
+    }
+
+    @Test
+    public void singleJointSharesMomentum() {
+        CartTrainSolver solver = pulledTrain(2);
+        solver.solve(1);
+
+        Assertions.assertEquals(1f, solver.getVelocity(0, new Vector3f()).z, 1e-6f);
+        Assertions.assertEquals(1f, solver.getVelocity(1, new Vector3f()).z, 1e-6f);
+    }
+
+    @Test
+    public void iterationsPropagateAlongTheTrain() {
+        CartTrainSolver solver = pulledTrain(10);
+        solver.solve(1);
+        Assertions.assertTrue(solver.getVelocity(9, new Vector3f()).z < .01f);
+
+        solver = pulledTrain(10);
+        solver.solve(200);
+        Vector3f velocity = new Vector3f();
+        for (int cart = 0; cart < 10; cart++) {
+            Assertions.assertEquals(.2f, solver.getVelocity(cart, velocity).z, 1e-3f);
+        }
+    }
+
+    @Test
+    public void solvesATrainOfTheStore() {
+        CartStateStore store = new CartStateStore();
+        CartTrains trains = new CartTrains();
+        // an unrelated cart before the train, which the solve must not touch
+        int other = store.add(Mockito.mock(EntityRef.class));
+        store.setVelocity(other, 5, 0, 0);
+        trains.beginTrain();
+        for (int cart = 0; cart < 2; cart++) {
+            int slot = store.add(Mockito.mock(EntityRef.class));
+            store.setHeading(slot, new Vector3f(0, 0, 1));
+            store.setPosition(slot, new Vector3f(0, 0, -1.5f * cart));
+            store.setMass(slot, 100);
+            trains.addCart(slot);
+        }
+        store.setVelocity(trains.getSlot(0), 0, 0, 2);
+        trains.addJoint(0, 1, 1.5f);
+
+        new CartTrainSolver().solve(trains, 0, store, 1f / 60, 1);
+
+        Assertions.assertEquals(1f, store.getVelocity(trains.getSlot(0), new Vector3f()).z, 1e-6f);
+        Assertions.assertEquals(1f, store.getVelocity(trains.getSlot(1), new Vector3f()).z, 1e-6f);
+        Assertions.assertTrue(trains.isPulled(0));
+        Assertions.assertTrue(trains.isPulled(1));
+        Assertions.assertEquals(new Vector3f(5, 0, 0), store.getVelocity(other, new Vector3f()));
+    }
+}
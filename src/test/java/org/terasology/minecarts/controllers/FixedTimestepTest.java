@@ -0,0 +1,27 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.controllers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FixedTimestepTest {
+
+    @Test
+    public void carriesTheRemainderOver() {
+        FixedTimestep timestep = new FixedTimestep(.25f, 4);
+        Assertions.assertEquals(0, timestep.advance(.125f));
+        Assertions.assertEquals(1, timestep.advance(.25f));
+        Assertions.assertEquals(1, timestep.advance(.125f));
+        Assertions.assertEquals(2, timestep.advance(.5f));
+    }
+
+    @Test
+    public void dropsTimeBeyondTheStepLimit() {
+        FixedTimestep timestep = new FixedTimestep(.25f, 4);
+        Assertions.assertEquals(4, timestep.advance(3f));
+        Assertions.assertEquals(0, timestep.advance(.125f));
+        Assertions.assertEquals(1, timestep.advance(.125f));
+    }
+}
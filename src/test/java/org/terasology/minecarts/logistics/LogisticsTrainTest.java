@@ -0,0 +1,96 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.logistics;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.minecarts.Util;
+
+import java.util.Arrays;
+
+public class LogisticsTrainTest {
+    private static final float STEP = .25f;
+
+    private static long[] line(int length, int... heights) {
+        long[] blocks = new long[length];
+        for (int x = 0; x < length; x++) {
+            blocks[x] = Util.packPosition(x, x < heights.length ? heights[x] : 0, 0);
+        }
+        return blocks;
+    }
+
+    private static LogisticsTrain train(long[] blocks, float speed) {
+        return new LogisticsTrain(new EntityRef[]{EntityRef.NULL}, new long[]{blocks[0]}, new Vector3f(1, 0, 0), speed);
+    }
+
+    @Test
+    public void rollsDownASlopeAndStopsAtTheEnd() {
+        long[] blocks = line(6, 2, 1, 0);
+        LogisticsTrain train = train(blocks, 0);
+        train.follow(new LogisticsRoute(blocks, new float[blocks.length], 0, false));
+
+        train.advance(.5f, STEP);
+        Assertions.assertTrue(train.getSpeed() > 0);
+        Assertions.assertTrue(train.getDistance() > 0);
+
+        train.advance(10, STEP);
+        Assertions.assertEquals(0, train.getSpeed());
+        Assertions.assertEquals(blocks[blocks.length - 1], train.getBlock(0));
+        Assertions.assertFalse(train.needsRoute());
+    }
+
+    @Test
+    public void frictionStopsATrainOnLevelTrack() {
+        long[] blocks = line(20);
+        float[] friction = new float[blocks.length];
+        Arrays.fill(friction, .01f);
+        LogisticsTrain train = train(blocks, 1);
+        train.follow(new LogisticsRoute(blocks, friction, 0, false));
+
+        train.advance(2, STEP);
+
+        Assertions.assertEquals(0, train.getSpeed());
+        Assertions.assertTrue(train.getDistance() > 0 && train.getDistance() < 1);
+    }
+
+    @Test
+    public void runningOffATruncatedRouteAsksForANewOne() {
+        long[] blocks = line(4);
+        LogisticsTrain train = train(blocks, 2);
+        train.follow(new LogisticsRoute(blocks, new float[blocks.length], 0, true));
+
+        train.advance(4, STEP);
+
+        Assertions.assertTrue(train.needsRoute());
+        Assertions.assertEquals(2, train.getSpeed());
+        Assertions.assertEquals(blocks[3], train.getBlock(0));
+        Assertions.assertEquals(new Vector3f(1, 0, 0), train.getHeading());
+    }
+
+    @Test
+    public void keepsCartsApartAndWrapsAroundLoops() {
+        long[] blocks = {
+                Util.packPosition(0, 0, 0), Util.packPosition(1, 0, 0), Util.packPosition(1, 0, 1),
+                Util.packPosition(0, 0, 1), Util.packPosition(0, 0, 0)};
+        LogisticsRoute route = new LogisticsRoute(blocks, new float[blocks.length], 1, false);
+        Assertions.assertTrue(route.isCyclic());
+        Assertions.assertEquals(4, route.getLength());
+
+        LogisticsTrain train = new LogisticsTrain(new EntityRef[]{EntityRef.NULL, EntityRef.NULL},
+                new long[]{blocks[1], blocks[0]}, new Vector3f(0, 0, 1), 1);
+        train.follow(route);
+        train.advance(1, STEP);
+
+        Assertions.assertEquals(blocks[2], train.getBlock(0));
+        Assertions.assertEquals(blocks[1], train.getBlock(1));
+
+        train.advance(3, STEP);
+
+        Assertions.assertEquals(blocks[1], train.getBlock(0));
+        Assertions.assertEquals(blocks[0], train.getBlock(1));
+        Assertions.assertTrue(train.getDistance() >= 0 && train.getDistance() < route.getLength());
+    }
+}
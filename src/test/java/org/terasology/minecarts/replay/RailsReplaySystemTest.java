@@ -0,0 +1,30 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.replay;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class RailsReplaySystemTest {
+    private static final Path REPLAYS = Paths.get("home", "replays").toAbsolutePath();
+
+    @Test
+    public void replayPathStaysInsideTheReplaysFolder() {
+        Assertions.assertEquals(REPLAYS.resolve("rush-hour.replay"),
+                RailsReplaySystem.replayPath(REPLAYS, "rush-hour.replay"));
+        Assertions.assertEquals(REPLAYS.resolve("monday").resolve("rush-hour.replay"),
+                RailsReplaySystem.replayPath(REPLAYS, "monday/./rush-hour.replay"));
+    }
+
+    @Test
+    public void replayPathRejectsPathsLeavingTheReplaysFolder() {
+        Assertions.assertNull(RailsReplaySystem.replayPath(REPLAYS, "../config.cfg"));
+        Assertions.assertNull(RailsReplaySystem.replayPath(REPLAYS, "monday/../../config.cfg"));
+        Assertions.assertNull(RailsReplaySystem.replayPath(REPLAYS, REPLAYS.getRoot().resolve("etc").toString()));
+        Assertions.assertNull(RailsReplaySystem.replayPath(REPLAYS, "."));
+    }
+}
@@ -0,0 +1,132 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.replay;
+
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RailsReplayWriterTest {
+
+    @Test
+    public void readsBackWhatWasWritten() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RailsReplayWriter writer = new RailsReplayWriter(bytes)) {
+            writer.config(1f / 60, 4, 2, true, 4, .005f);
+            writer.block(new Vector3i(1, 2, 3), "Rails:rails");
+            writer.block(new Vector3i(2, 2, 3), "Rails:rails");
+            writer.spawn(7, "Rails:minecartVehicle", new Vector3f(1, 3, 3), new Quaternionf().rotateY(1));
+            writer.attach(7, new Vector3i(1, 2, 3), "Rails:rails_straight", .25f, new Vector3f(1, 0, 0),
+                    new Vector3f(2, 0, 0), new Vector3f(1, 3, 3), new Quaternionf());
+            writer.tick(.02f);
+            writer.pose(8, new Vector3f(4, 5, 6), new Quaternionf(), new Vector3f(0, -1, 0));
+            writer.collide(7, 8, new Vector3f(1, 1, 1), new Vector3f(2, 2, 2), .1f, new Vector3f(0, 1, 0));
+            writer.joint(7, 8, true, 0, false);
+            writer.hash(42);
+            writer.detach(7);
+            writer.destroy(7);
+        }
+
+        List<String> records = new ArrayList<>();
+        try (RailsReplayReader reader = new RailsReplayReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            RailsReplayReader.Handler handler = new RailsReplayReader.Handler() {
+                @Override
+                public void config(float step, int maxStepsPerFrame, int substeps, boolean adaptiveSubsteps,
+                                   int solverIterations, float remainder) {
+                    records.add("config " + step + " " + maxStepsPerFrame + " " + substeps + " " + adaptiveSubsteps
+                            + " " + solverIterations + " " + remainder);
+                }
+
+                @Override
+                public void tick(float delta) {
+                    records.add("tick " + delta);
+                }
+
+                @Override
+                public void hash(long hash) {
+                    records.add("hash " + hash);
+                }
+
+                @Override
+                public void block(Vector3ic position, String uri) {
+                    records.add("block " + position.x() + "," + position.y() + "," + position.z() + " " + uri);
+                }
+
+                @Override
+                public void spawn(long id, String prefab, Vector3fc position, Quaternionfc rotation) {
+                    records.add("spawn " + id + " " + prefab + " " + position.x() + " " + rotation.y());
+                }
+
+                @Override
+                public void destroy(long id) {
+                    records.add("destroy " + id);
+                }
+
+                @Override
+                public void attach(long id, Vector3ic railBlock, String descriptor, float segmentPosition,
+                                   Vector3fc heading, Vector3fc velocity, Vector3fc position, Quaternionfc rotation) {
+                    records.add("attach " + id + " " + railBlock.x() + " " + descriptor + " " + segmentPosition
+                            + " " + heading.x() + " " + velocity.x());
+                }
+
+                @Override
+                public void detach(long id) {
+                    records.add("detach " + id);
+                }
+
+                @Override
+                public void joint(long id, long front, boolean frontOwning, long back, boolean backOwning) {
+                    records.add("joint " + id + " " + front + " " + frontOwning + " " + back + " " + backOwning);
+                }
+
+                @Override
+                public void pose(long id, Vector3fc position, Quaternionfc rotation, Vector3fc velocity) {
+                    records.add("pose " + id + " " + position.z() + " " + velocity.y());
+                }
+
+                @Override
+                public void collide(long id, long other, Vector3fc contactPoint, Vector3fc otherContactPoint,
+                                    float penetration, Vector3fc normal) {
+                    records.add("collide " + id + " " + other + " " + otherContactPoint.x() + " " + penetration
+                            + " " + normal.y());
+                }
+            };
+            while (reader.next(handler)) {
+                // collect every record
+            }
+        }
+
+        Assertions.assertEquals(List.of(
+                "config " + (1f / 60) + " 4 2 true 4 " + .005f,
+                "block 1,2,3 Rails:rails",
+                "block 2,2,3 Rails:rails",
+                "spawn 7 Rails:minecartVehicle 1.0 " + new Quaternionf().rotateY(1).y,
+                "attach 7 1 Rails:rails_straight 0.25 1.0 2.0",
+                "tick " + .02f,
+                "pose 8 6.0 -1.0",
+                "collide 7 8 2.0 " + .1f + " 1.0",
+                "joint 7 8 true 0 false",
+                "hash 42",
+                "detach 7",
+                "destroy 7"), records);
+    }
+
+    @Test
+    public void rejectsOtherFiles() {
+        byte[] notAReplay = new byte[64];
+        Assertions.assertThrows(IOException.class,
+                () -> new RailsReplayReader(new ByteArrayInputStream(notAReplay)).close());
+    }
+}
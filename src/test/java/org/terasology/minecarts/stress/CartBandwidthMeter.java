@@ -0,0 +1,139 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.stress;
+
+import org.terasology.engine.context.Context;
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.metadata.ComponentLibrary;
+import org.terasology.engine.entitySystem.metadata.ReplicatedFieldMetadata;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.persistence.serializers.ComponentSerializer;
+import org.terasology.engine.persistence.serializers.FieldSerializeCheck;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.minecarts.components.CartTrackStateComponent;
+import org.terasology.minecarts.components.RailVehicleComponent;
+import org.terasology.persistence.typeHandling.TypeHandlerLibrary;
+import org.terasology.protobuf.EntityData;
+import org.terasology.reflection.metadata.ClassMetadata;
+import org.terasology.reflection.metadata.FieldMetadata;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Measures what replicating the changes of moving carts costs, by serializing them through the engine's
+ * {@link ComponentSerializer} the way the network does: only the replicated fields that changed since the last look,
+ * with numeric ids for component types and fields.
+ * <p>
+ * It sums up two ways of sending the same carts: the full state, the changes of their {@link LocationComponent} and
+ * {@link RailVehicleComponent}, and the track state, the changes of their {@link CartTrackStateComponent} snapshots.
+ * Both are measured in the same run, so client prediction has to be on for snapshots to be written. The full state is
+ * measured as if it were still replicated. What a client receives when it first sees a cart is the same either way and
+ * is left out.
+ */
+public class CartBandwidthMeter implements Consumer<List<EntityRef>> {
+    private final Time time;
+    private final ComponentLibrary componentLibrary;
+    private final ComponentSerializer serializer;
+    private final FieldSerializeCheck<Component> replicated = new ReplicatedFields();
+    private final Map<EntityRef, Map<Class<?>, Component>> lastSeen = new HashMap<>();
+
+    private long fullStateBytes;
+    private long trackStateBytes;
+    private int carts;
+    private long startMs = -1;
+    private long endMs;
+
+    public CartBandwidthMeter(Context context) {
+        time = context.get(Time.class);
+        componentLibrary = context.get(ComponentLibrary.class);
+        serializer = new ComponentSerializer(componentLibrary, context.get(TypeHandlerLibrary.class));
+        Map<Class<? extends Component>, Integer> componentIds = new HashMap<>();
+        componentIds.put(LocationComponent.class, 0);
+        componentIds.put(RailVehicleComponent.class, 1);
+        componentIds.put(CartTrackStateComponent.class, 2);
+        serializer.setIdMapping(componentIds);
+        serializer.setUsingFieldIds(true);
+    }
+
+    @Override
+    public void accept(List<EntityRef> railVehicles) {
+        endMs = time.getGameTimeInMs();
+        if (startMs == -1) {
+            startMs = endMs;
+        }
+        carts = Math.max(carts, railVehicles.size());
+        for (EntityRef railVehicle : railVehicles) {
+            fullStateBytes += changedBytes(railVehicle, LocationComponent.class)
+                    + changedBytes(railVehicle, RailVehicleComponent.class);
+            trackStateBytes += changedBytes(railVehicle, CartTrackStateComponent.class);
+        }
+    }
+
+    public long getFullStateBytes() {
+        return fullStateBytes;
+    }
+
+    public long getTrackStateBytes() {
+        return trackStateBytes;
+    }
+
+    public float getFullStateBytesPerCartSecond() {
+        return perCartSecond(fullStateBytes);
+    }
+
+    public float getTrackStateBytesPerCartSecond() {
+        return perCartSecond(trackStateBytes);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d carts over %.1f s: full state %.0f B/cart/s, track state %.0f B/cart/s", carts,
+                (endMs - startMs) / 1000f, getFullStateBytesPerCartSecond(), getTrackStateBytesPerCartSecond());
+    }
+
+    private float perCartSecond(long bytes) {
+        long elapsedMs = endMs - startMs;
+        return carts == 0 || elapsedMs == 0 ? 0 : bytes * 1000f / elapsedMs / carts;
+    }
+
+    /**
+     * The size of the changes of a component since the last look, which is nothing when a cart is seen for the first
+     * time.
+     */
+    private <T extends Component> int changedBytes(EntityRef railVehicle, Class<T> type) {
+        T component = railVehicle.getComponent(type);
+        Map<Class<?>, Component> seen = lastSeen.computeIfAbsent(railVehicle, key -> new HashMap<>());
+        Component last = component == null ? seen.remove(type) : seen.put(type, componentLibrary.copy(component));
+        if (component == null || last == null) {
+            return 0;
+        }
+        EntityData.Component changes = serializer.serialize(last, component, replicated);
+        return changes == null ? 0 : changes.getSerializedSize();
+    }
+
+    /**
+     * Passes every field marked as replicated, ignoring whether the component currently wants its changes sent.
+     */
+    private static final class ReplicatedFields implements FieldSerializeCheck<Component> {
+        @Override
+        public boolean shouldSerializeField(ReplicatedFieldMetadata<?, ?> field, Component component) {
+            return field.isReplicated();
+        }
+
+        @Override
+        public boolean shouldSerializeField(ReplicatedFieldMetadata<?, ?> field, Component component,
+                                            boolean componentInitial) {
+            return field.isReplicated();
+        }
+
+        @Override
+        public boolean shouldDeserialize(ClassMetadata<?, ?> classMetadata, FieldMetadata<?, ?> fieldMetadata) {
+            return true;
+        }
+    }
+}
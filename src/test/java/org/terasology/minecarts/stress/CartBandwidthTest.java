@@ -0,0 +1,44 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.integrationenvironment.ModuleTestingHelper;
+import org.terasology.engine.integrationenvironment.jupiter.IntegrationEnvironment;
+import org.terasology.engine.registry.In;
+import org.terasology.minecarts.controllers.CartMotionSystem;
+
+/**
+ * Runs carts and trains around a loop with client prediction on and logs the bytes per cart per second of their
+ * track snapshots next to those of replicating their full state, as measured by a {@link CartBandwidthMeter}.
+ */
+@IntegrationEnvironment(dependencies = {"Rails", "CoreAssets"})
+public class CartBandwidthTest {
+    private static final Logger logger = LoggerFactory.getLogger(CartBandwidthTest.class);
+    private static final int TICKS = 300;
+
+    @In
+    ModuleTestingHelper helper;
+    @In
+    CartMotionSystem cartMotionSystem;
+
+    @Test
+    public void trackSnapshotsTakeLessThanFullState() {
+        CartBandwidthMeter meter = new CartBandwidthMeter(helper.getHostContext());
+        boolean clientPrediction = cartMotionSystem.isClientPrediction();
+        cartMotionSystem.setClientPrediction(true);
+        try {
+            RailsScenario.loop(24).carts(8).trains(2, 4).ticks(TICKS).observe(meter).run(helper);
+        } finally {
+            cartMotionSystem.setClientPrediction(clientPrediction);
+        }
+        logger.info("{}", meter);
+
+        Assertions.assertTrue(meter.getTrackStateBytes() > 0, "no snapshot changed during the run");
+        Assertions.assertTrue(meter.getTrackStateBytes() < meter.getFullStateBytes(), meter.toString());
+    }
+}
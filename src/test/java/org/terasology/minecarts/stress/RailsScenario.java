@@ -0,0 +1,395 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.stress;
+
+import com.sun.management.ThreadMXBean;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.integrationenvironment.ModuleTestingHelper;
+import org.terasology.engine.world.BlockEntityRegistry;
+import org.terasology.engine.world.WorldProvider;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.minecarts.blocks.RailBlockFamily;
+import org.terasology.minecarts.blocks.RailsBlockFamilyUpdateSystem;
+import org.terasology.minecarts.controllers.CartHibernationSystem;
+import org.terasology.minecarts.controllers.CartJointSystem;
+import org.terasology.minecarts.controllers.CartMotionSystem;
+import org.terasology.minecarts.metrics.RailsMetrics;
+import org.terasology.minecarts.metrics.RailsMetricsSystem;
+import org.terasology.segmentedpaths.components.PathFollowerComponent;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A parametrised rail network with carts and trains on it, built in the integration environment and run for a number
+ * of ticks to measure what the rail systems cost.
+ * <p>
+ * The network is laid out around the origin on a dirt floor at y = -1. Carts and trains are spread over its straight
+ * stretches, two blocks apart, and set moving once all of them found their track. Hibernation is turned off for the
+ * run, since no player is near.
+ */
+public final class RailsScenario {
+    public static final String CART_PREFAB = "Rails:minecartVehicle";
+    private static final String RAIL_FAMILY = "Rails:rails";
+    private static final String INVERTED_TEE_FAMILY = "Rails:railsTBlockInverted";
+    /**
+     * Ticks the carts get to fall onto their track before the run starts.
+     */
+    private static final int SETTLE_TICKS = 600;
+    private static final int CART_GAP = 2;
+
+    private final String name;
+    private final List<Vector3i> rails = new ArrayList<>();
+    private final List<Vector3i> ground = new ArrayList<>();
+    /**
+     * Straight stretches of track, in order along the track, that carts are placed on.
+     */
+    private final List<List<Vector3i>> stretches = new ArrayList<>();
+    private boolean invertTees;
+
+    private int carts;
+    private int trains;
+    private int trainLength = 4;
+    private int ticks = 600;
+    private float speed = 4;
+    private Consumer<List<EntityRef>> observer;
+
+    private RailsScenario(String name) {
+        this.name = name;
+    }
+
+    /**
+     * A square loop of track with the given side length.
+     */
+    public static RailsScenario loop(int size) {
+        RailsScenario scenario = new RailsScenario("loop " + size);
+        int last = size - 1;
+        for (int i = 0; i < last; i++) {
+            scenario.rails.add(new Vector3i(i, 0, 0));
+            scenario.rails.add(new Vector3i(last, 0, i));
+            scenario.rails.add(new Vector3i(last - i, 0, last));
+            scenario.rails.add(new Vector3i(0, 0, last - i));
+        }
+        scenario.addStretch(1, 0, 1, 0, last - 1);
+        scenario.addStretch(last, 1, 0, 1, last - 1);
+        scenario.addStretch(last - 1, last, -1, 0, last - 1);
+        scenario.addStretch(0, last - 1, 0, -1, last - 1);
+        return scenario;
+    }
+
+    /**
+     * A grid of the given number of cells in both directions, with a cross wherever two lines meet inside and a tee
+     * wherever a line meets the border.
+     *
+     * @param spacing the distance between two parallel lines
+     */
+    public static RailsScenario junctionGrid(int cells, int spacing) {
+        RailsScenario scenario = new RailsScenario("junction grid " + cells + "x" + cells + " spacing " + spacing);
+        scenario.addGrid(cells, spacing);
+        return scenario;
+    }
+
+    /**
+     * A {@link #junctionGrid} with every tee swapped for an inverted tee.
+     */
+    public static RailsScenario invertedTees(int cells, int spacing) {
+        RailsScenario scenario = new RailsScenario("inverted tees " + cells + "x" + cells + " spacing " + spacing);
+        scenario.addGrid(cells, spacing);
+        scenario.invertTees = true;
+        return scenario;
+    }
+
+    /**
+     * A straight ramp going up by one block per block, with a level run-out of the same length at its foot.
+     */
+    public static RailsScenario slope(int length) {
+        RailsScenario scenario = new RailsScenario("slope " + length);
+        for (int x = -length; x <= length; x++) {
+            int height = Math.max(0, x);
+            scenario.rails.add(new Vector3i(x, height, 0));
+            for (int y = 0; y < height; y++) {
+                scenario.ground.add(new Vector3i(x, y, 0));
+            }
+        }
+        // carts are placed on the ramp first, to roll down it
+        List<Vector3i> ramp = new ArrayList<>();
+        for (int x = length - 1; x > 0; x--) {
+            ramp.add(new Vector3i(x, x, 0));
+        }
+        scenario.stretches.add(ramp);
+        scenario.addStretch(-length, 0, 1, 0, length);
+        return scenario;
+    }
+
+    /**
+     * Sets the number of single carts.
+     */
+    public RailsScenario carts(int count) {
+        carts = count;
+        return this;
+    }
+
+    /**
+     * Sets the number of trains and how many carts each is made of.
+     */
+    public RailsScenario trains(int count, int length) {
+        trains = count;
+        trainLength = length;
+        return this;
+    }
+
+    /**
+     * Sets the number of ticks measured.
+     */
+    public RailsScenario ticks(int count) {
+        ticks = count;
+        return this;
+    }
+
+    /**
+     * Sets the speed carts and trains are pushed to along their track at the start.
+     */
+    public RailsScenario speed(float metresPerSecond) {
+        speed = metresPerSecond;
+        return this;
+    }
+
+    /**
+     * Sets something that gets all carts before every measured tick and once after the last, e.g. to look at their
+     * components as they change. It runs inside the measured tick times.
+     */
+    public RailsScenario observe(Consumer<List<EntityRef>> tickObserver) {
+        observer = tickObserver;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Builds the network, places the carts and trains and runs the game for the configured number of ticks.
+     *
+     * @throws IllegalStateException if the carts and trains do not fit onto the network
+     */
+    public RailsStressReport run(ModuleTestingHelper helper) {
+        Context context = helper.getHostContext();
+        EntityManager entityManager = context.get(EntityManager.class);
+        CartMotionSystem cartMotionSystem = context.get(CartMotionSystem.class);
+        CartJointSystem cartJointSystem = context.get(CartJointSystem.class);
+        CartHibernationSystem cartHibernationSystem = context.get(CartHibernationSystem.class);
+        RailsMetricsSystem railsMetricsSystem = context.get(RailsMetricsSystem.class);
+
+        List<List<Vector3i>> slots = allocateSlots();
+        build(helper, context);
+
+        boolean hibernation = cartHibernationSystem.isEnabled();
+        cartHibernationSystem.setEnabled(false);
+        List<List<EntityRef>> spawned = new ArrayList<>();
+        for (List<Vector3i> slot : slots) {
+            List<EntityRef> train = new ArrayList<>();
+            for (Vector3i position : slot) {
+                train.add(entityManager.create(CART_PREFAB, new Vector3f(position).add(0, .2f, 0)));
+            }
+            spawned.add(train);
+        }
+        int[] settled = {0};
+        helper.runWhile(() -> settled[0]++ < SETTLE_TICKS && !allOnTrack(cartMotionSystem, spawned));
+        for (List<EntityRef> train : spawned) {
+            for (int i = 1; i < train.size(); i++) {
+                cartJointSystem.joinVehicles(train.get(i - 1), train.get(i));
+            }
+            push(cartMotionSystem, train);
+        }
+
+        RailsMetrics metrics = railsMetricsSystem.getMetrics();
+        boolean metricsEnabled = metrics.isEnabled();
+        float logInterval = railsMetricsSystem.getLogInterval();
+        railsMetricsSystem.setLogInterval(0);
+        metrics.setEnabled(false);
+        metrics.setEnabled(true);
+
+        TickClock clock = new TickClock(ticks);
+        Supplier<Boolean> tick = clock;
+        if (observer != null) {
+            List<EntityRef> all = new ArrayList<>();
+            spawned.forEach(all::addAll);
+            tick = () -> {
+                observer.accept(all);
+                return clock.get();
+            };
+        }
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        helper.runWhile(tick);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        int attached = 0;
+        int total = 0;
+        for (List<EntityRef> train : spawned) {
+            for (EntityRef cart : train) {
+                total++;
+                if (cartMotionSystem.isOnTrack(cart)) {
+                    attached++;
+                }
+            }
+        }
+        RailsStressReport report = new RailsStressReport(name, total, attached, clock.tickNanos, allocated,
+                metrics.getNanos(RailsMetrics.Timer.CART_MOTION), metrics.getCount(RailsMetrics.Counter.DETACHES),
+                metrics.getCount(RailsMetrics.Counter.JOINT_BREAKS));
+
+        metrics.setEnabled(metricsEnabled);
+        railsMetricsSystem.setLogInterval(logInterval);
+        cartHibernationSystem.setEnabled(hibernation);
+        return report;
+    }
+
+    private void addGrid(int cells, int spacing) {
+        int extent = cells * spacing;
+        for (int x = 0; x <= extent; x++) {
+            for (int z = 0; z <= extent; z++) {
+                if (x % spacing == 0 || z % spacing == 0) {
+                    rails.add(new Vector3i(x, 0, z));
+                }
+            }
+        }
+        for (int line = 0; line <= cells; line++) {
+            for (int cell = 0; cell < cells; cell++) {
+                int start = cell * spacing + 1;
+                addStretch(start, line * spacing, 1, 0, spacing - 1);
+                addStretch(line * spacing, start, 0, 1, spacing - 1);
+            }
+        }
+    }
+
+    private void addStretch(int x, int z, int stepX, int stepZ, int length) {
+        List<Vector3i> stretch = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            stretch.add(new Vector3i(x + stepX * i, 0, z + stepZ * i));
+        }
+        stretches.add(stretch);
+    }
+
+    /**
+     * Picks the rail blocks for every train, single carts being trains of one, keeping a gap to the next one on the
+     * same stretch.
+     */
+    private List<List<Vector3i>> allocateSlots() {
+        List<List<Vector3i>> slots = new ArrayList<>();
+        int stretch = 0;
+        int next = 0;
+        for (int i = 0; i < trains + carts; i++) {
+            int length = i < trains ? trainLength : 1;
+            while (stretch < stretches.size() && next + length > stretches.get(stretch).size()) {
+                stretch++;
+                next = 0;
+            }
+            if (stretch == stretches.size()) {
+                throw new IllegalStateException(trains + " trains and " + carts + " carts do not fit onto " + name);
+            }
+            slots.add(new ArrayList<>(stretches.get(stretch).subList(next, next + length)));
+            next += length + CART_GAP;
+        }
+        return slots;
+    }
+
+    private void build(ModuleTestingHelper helper, Context context) {
+        WorldProvider worldProvider = context.get(WorldProvider.class);
+        BlockManager blockManager = context.get(BlockManager.class);
+        BlockEntityRegistry blockEntityRegistry = context.get(BlockEntityRegistry.class);
+        RailsBlockFamilyUpdateSystem railsBlockFamilyUpdateSystem = context.get(RailsBlockFamilyUpdateSystem.class);
+        Block air = blockManager.getBlock("engine:air");
+        Block dirt = blockManager.getBlock("CoreAssets:Dirt");
+
+        BlockRegion region = new BlockRegion(BlockRegion.INVALID);
+        for (Vector3i rail : rails) {
+            region.union(rail);
+        }
+        region.expand(1, 0, 1);
+        region.union(region.minX(), -1, region.minZ()).union(region.maxX(), region.maxY() + 2, region.maxZ());
+        for (Vector3ic chunk : Chunks.toChunkRegion(region, new BlockRegion(BlockRegion.INVALID))) {
+            helper.forceAndWaitForGeneration(new Vector3i(chunk).mul(Chunks.CHUNK_SIZE));
+        }
+        for (Vector3ic position : region) {
+            worldProvider.setBlock(position, position.y() < 0 ? dirt : air);
+        }
+        for (Vector3i position : ground) {
+            worldProvider.setBlock(position, dirt);
+        }
+
+        RailBlockFamily railFamily = (RailBlockFamily) blockManager.getBlockFamily(RAIL_FAMILY);
+        railsBlockFamilyUpdateSystem.placeTrack(rails, railFamily);
+        if (invertTees) {
+            RailBlockFamily invertedFamily = (RailBlockFamily) blockManager.getBlockFamily(INVERTED_TEE_FAMILY);
+            for (Vector3i position : rails) {
+                byte connections = RailBlockFamily.getConnections(worldProvider.getBlock(position));
+                if (Integer.bitCount(connections & 0xFF) == 3) {
+                    blockEntityRegistry.setBlockForceUpdateEntity(position,
+                            invertedFamily.getBlockByConnection(connections));
+                }
+            }
+        }
+    }
+
+    private static boolean allOnTrack(CartMotionSystem cartMotionSystem, List<List<EntityRef>> trains) {
+        for (List<EntityRef> train : trains) {
+            for (EntityRef cart : train) {
+                if (!cartMotionSystem.isOnTrack(cart)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets all carts of a train moving the way the first one heads.
+     */
+    private void push(CartMotionSystem cartMotionSystem, List<EntityRef> train) {
+        PathFollowerComponent pathFollower = train.get(0).getComponent(PathFollowerComponent.class);
+        if (pathFollower == null || pathFollower.heading == null || pathFollower.heading.lengthSquared() == 0) {
+            return;
+        }
+        Vector3f velocity = new Vector3f(pathFollower.heading).normalize(speed);
+        for (EntityRef cart : train) {
+            cartMotionSystem.setVelocity(cart, velocity);
+            cartMotionSystem.wakeCart(cart);
+        }
+    }
+
+    /**
+     * Measures the time between its calls, which {@link ModuleTestingHelper#runWhile(Supplier)} makes once before
+     * every tick and once after the last.
+     */
+    private static final class TickClock implements Supplier<Boolean> {
+        final long[] tickNanos;
+        private int calls;
+        private long last;
+
+        TickClock(int ticks) {
+            tickNanos = new long[ticks];
+        }
+
+        @Override
+        public Boolean get() {
+            long now = System.nanoTime();
+            if (calls > 0) {
+                tickNanos[calls - 1] = now - last;
+            }
+            last = now;
+            return calls++ < tickNanos.length;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.stress;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * What a run of a {@link RailsScenario} cost and how the carts fared.
+ */
+public class RailsStressReport {
+    private final String scenario;
+    private final int carts;
+    private final int attachedCarts;
+    private final long[] sortedTickNanos;
+    private final long allocatedBytes;
+    private final long cartMotionNanos;
+    private final long detaches;
+    private final long jointBreaks;
+
+    public RailsStressReport(String scenario, int carts, int attachedCarts, long[] tickNanos, long allocatedBytes,
+                             long cartMotionNanos, long detaches, long jointBreaks) {
+        this.scenario = scenario;
+        this.carts = carts;
+        this.attachedCarts = attachedCarts;
+        this.sortedTickNanos = Arrays.copyOf(tickNanos, tickNanos.length);
+        Arrays.sort(sortedTickNanos);
+        this.allocatedBytes = allocatedBytes;
+        this.cartMotionNanos = cartMotionNanos;
+        this.detaches = detaches;
+        this.jointBreaks = jointBreaks;
+    }
+
+    public int getTicks() {
+        return sortedTickNanos.length;
+    }
+
+    public int getCarts() {
+        return carts;
+    }
+
+    /**
+     * Carts still on their track at the end of the run.
+     */
+    public int getAttachedCarts() {
+        return attachedCarts;
+    }
+
+    /**
+     * The given percentile, between 0 and 100, of the time a whole game tick took in nanoseconds.
+     */
+    public long tickPercentile(double percentile) {
+        if (sortedTickNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sortedTickNanos.length) - 1;
+        return sortedTickNanos[Math.max(0, Math.min(sortedTickNanos.length - 1, index))];
+    }
+
+    /**
+     * Bytes allocated on the game thread during the run; work on background threads is not included.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Time spent in the cart motion system, joints included, over the run.
+     */
+    public long getCartMotionNanos() {
+        return cartMotionNanos;
+    }
+
+    public long getDetaches() {
+        return detaches;
+    }
+
+    public long getJointBreaks() {
+        return jointBreaks;
+    }
+
+    @Override
+    public String toString() {
+        float perTick = sortedTickNanos.length == 0 ? 0 : 1.0f / sortedTickNanos.length;
+        return String.format(Locale.ROOT, "%s: %d carts, %d attached at the end, %d ticks"
+                        + "%n  tick time p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms"
+                        + "%n  cart motion %.3f ms/tick"
+                        + "%n  allocated %.1f KiB/tick"
+                        + "%n  detaches %d, joint breaks %d",
+                scenario, carts, attachedCarts, sortedTickNanos.length,
+                tickPercentile(50) / 1e6, tickPercentile(90) / 1e6, tickPercentile(99) / 1e6, tickPercentile(100) / 1e6,
+                cartMotionNanos * perTick / 1e6f,
+                allocatedBytes * perTick / 1024f,
+                detaches, jointBreaks);
+    }
+}
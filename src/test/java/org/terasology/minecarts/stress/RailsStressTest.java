@@ -0,0 +1,57 @@
+// Copyright 2026 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.minecarts.stress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.integrationenvironment.ModuleTestingHelper;
+import org.terasology.engine.integrationenvironment.jupiter.IntegrationEnvironment;
+import org.terasology.engine.registry.In;
+
+/**
+ * Runs each kind of {@link RailsScenario} and logs its report.
+ * <p>
+ * The scenarios are kept small so the tests stay quick. Set the system property {@code rails.stress.scale} to grow
+ * the networks by that factor, and the number of carts and trains along with the length of their track, e.g. to size
+ * a server.
+ */
+@IntegrationEnvironment(dependencies = {"Rails", "CoreAssets"})
+public class RailsStressTest {
+    private static final Logger logger = LoggerFactory.getLogger(RailsStressTest.class);
+    private static final int SCALE = Math.max(1, Integer.getInteger("rails.stress.scale", 1));
+    private static final int TICKS = 300;
+
+    @In
+    ModuleTestingHelper helper;
+
+    @Test
+    public void loop() {
+        run(RailsScenario.loop(24 * SCALE).carts(8 * SCALE).trains(2 * SCALE, 4));
+    }
+
+    @Test
+    public void junctionGrid() {
+        run(RailsScenario.junctionGrid(3 * SCALE, 8).carts(12 * SCALE * SCALE).trains(3 * SCALE * SCALE, 3));
+    }
+
+    @Test
+    public void invertedTees() {
+        run(RailsScenario.invertedTees(3 * SCALE, 8).carts(12 * SCALE * SCALE).trains(3 * SCALE * SCALE, 3));
+    }
+
+    @Test
+    public void longSlope() {
+        run(RailsScenario.slope(Math.min(48, 16 * SCALE)).carts(4 * SCALE).trains(SCALE, 3).speed(0));
+    }
+
+    private void run(RailsScenario scenario) {
+        RailsStressReport report = scenario.ticks(TICKS).run(helper);
+        logger.info("{}", report);
+
+        Assertions.assertEquals(TICKS, report.getTicks());
+        Assertions.assertTrue(report.getAttachedCarts() > 0, scenario.getName() + " lost all of its carts");
+    }
+}